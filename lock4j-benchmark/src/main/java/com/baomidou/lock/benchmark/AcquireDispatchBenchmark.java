@@ -0,0 +1,99 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.benchmark;
+
+import com.baomidou.lock.executor.RedisTemplateLockExecutor;
+import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>{@link RedisTemplateLockExecutor#acquire}的基准测试：在调用线程上直接执行加锁脚本，
+ * 与此前提交到公共线程池后再阻塞等待结果的方式对比。
+ *
+ * <p>{@code direct}调用执行器当前的实现，{@code commonPool}将同一次调用提交到公共线程池并等待结果，
+ * 即此前的实现方式。脚本的执行由{@link StubRedisTemplate}模拟，以便在没有Redis的环境下只衡量执行器本身与线程切换的开销。
+ * 可以通过{@link BenchmarkRunner}指定不同的线程数，观察公共线程池饱和时的情况。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AcquireDispatchBenchmark {
+
+    private static final String KEY = "key";
+    private static final String VALUE = "value";
+
+    /**
+     * 模拟脚本执行的耗时
+     */
+    @Param({"0", "1000"})
+    private long tokens;
+
+    private RedisTemplateLockExecutor executor;
+
+    @Setup
+    public void setup() {
+        executor = new RedisTemplateLockExecutor(new StubRedisTemplate(tokens), new Lock4jProperties());
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.destroy();
+    }
+
+    @Benchmark
+    public String direct() {
+        return executor.acquire(KEY, VALUE, 30000L, 0L);
+    }
+
+    @Benchmark
+    public String commonPool() throws ExecutionException, InterruptedException {
+        return CompletableFuture.supplyAsync(
+                () -> executor.acquire(KEY, VALUE, 30000L, 0L)).get();
+    }
+
+    /**
+     * 不连接Redis，执行脚本时消耗指定的CPU时间后直接返回加锁成功
+     */
+    private static class StubRedisTemplate extends StringRedisTemplate {
+
+        private final long tokens;
+
+        StubRedisTemplate(long tokens) {
+            this.tokens = tokens;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, RedisSerializer<?> argsSerializer,
+                             RedisSerializer<T> resultSerializer, List<String> keys, Object... args) {
+            Blackhole.consumeCPU(tokens);
+            return (T) "OK";
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基准测试中使用的key集合，通过key的数量控制竞争程度：key越少，竞争越激烈
+ */
+final class BenchmarkKeys {
+
+    private final String[] keys;
+
+    BenchmarkKeys(int keyCount) {
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "key-" + i;
+        }
+    }
+
+    /**
+     * 随机获取一个key
+     *
+     * @return key
+     */
+    String next() {
+        return keys.length == 1 ? keys[0] : keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+}
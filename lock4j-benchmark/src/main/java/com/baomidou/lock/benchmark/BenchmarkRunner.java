@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>基准测试入口，依次以不同的线程数运行基准测试，用于观察不同竞争程度下的表现。
+ *
+ * <p>使用方式：
+ * <pre>
+ *     mvn -pl lock4j-benchmark -am package -DskipTests
+ *     java -jar lock4j-benchmark/target/benchmarks.jar [benchmark正则] [线程数,...]
+ * </pre>
+ * 默认运行全部基准测试，线程数依次为1、4、16、64。
+ * 也可以直接使用JMH的命令行参数，例如{@code java -cp benchmarks.jar org.openjdk.jmh.Main LockTemplateBenchmark -t 8}。
+ */
+public class BenchmarkRunner {
+
+    private static final int[] DEFAULT_THREADS = {1, 4, 16, 64};
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*Benchmark";
+        int[] threads = args.length > 1 ? parseThreads(args[1]) : DEFAULT_THREADS;
+        for (int thread : threads) {
+            Options options = new OptionsBuilder()
+                .include(include)
+                .threads(thread)
+                .build();
+            new Runner(options).run();
+        }
+    }
+
+    private static int[] parseThreads(String threads) {
+        String[] values = threads.split(",");
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = Integer.parseInt(values[i].trim());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.benchmark;
+
+import com.baomidou.lock.executor.LocalLockExecutor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LocalLockExecutor}在每个key独立加锁与条带模式下的加解锁基准测试，
+ * 配合{@code -prof gc}可以观察两者在key数量较多时的内存分配差异
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalLockExecutorBenchmark {
+
+    @Param({"100", "100000"})
+    private int keyCount;
+
+    /**
+     * 条带数量，0表示不开启条带模式
+     */
+    @Param({"0", "1024"})
+    private int stripes;
+
+    private LocalLockExecutor executor;
+    private BenchmarkKeys keys;
+
+    @Setup
+    public void setup() {
+        executor = new LocalLockExecutor(true, stripes);
+        keys = new BenchmarkKeys(keyCount);
+    }
+
+    @Benchmark
+    public boolean acquireAndRelease() {
+        String key = keys.next();
+        LocalLockExecutor.LocalLock lock = executor.acquire(key, "value", 30000, 3000);
+        return executor.releaseLock(key, "value", lock);
+    }
+}
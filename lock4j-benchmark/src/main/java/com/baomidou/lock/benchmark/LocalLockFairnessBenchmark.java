@@ -0,0 +1,60 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.benchmark;
+
+import com.baomidou.lock.executor.LocalLockExecutor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LocalLockExecutor}公平与非公平获取锁在多线程竞争下的吞吐量对比，
+ * 持有锁期间消耗少量CPU以模拟临界区，key越少竞争越激烈
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LocalLockFairnessBenchmark {
+
+    @Param({"1", "16"})
+    private int keyCount;
+
+    @Param({"true", "false"})
+    private boolean fair;
+
+    private LocalLockExecutor executor;
+    private BenchmarkKeys keys;
+
+    @Setup
+    public void setup() {
+        executor = new LocalLockExecutor(fair);
+        keys = new BenchmarkKeys(keyCount);
+    }
+
+    @Benchmark
+    public boolean contended() {
+        String key = keys.next();
+        LocalLockExecutor.LocalLock lock = executor.acquire(key, "value", 30000, 3000);
+        Blackhole.consumeCPU(64);
+        return executor.releaseLock(key, "value", lock);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.benchmark;
+
+import com.baomidou.lock.LockOptions;
+import com.baomidou.lock.annotation.LockMode;
+import com.baomidou.lock.executor.LocalLockExecutor;
+import com.baomidou.lock.executor.LocalReadWriteLockExecutor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程读取同一个key时，{@link LocalLockExecutor}的独占锁与{@link LocalReadWriteLockExecutor}的读锁的吞吐量对比，
+ * 持有锁期间消耗少量CPU以模拟临界区
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LocalReadWriteLockBenchmark {
+
+    private static final LockOptions READ = LockOptions.builder().mode(LockMode.READ).build();
+
+    @Param({"1", "16"})
+    private int keyCount;
+
+    private LocalLockExecutor localLockExecutor;
+    private LocalReadWriteLockExecutor readWriteLockExecutor;
+    private BenchmarkKeys keys;
+
+    @Setup
+    public void setup() {
+        localLockExecutor = new LocalLockExecutor();
+        readWriteLockExecutor = new LocalReadWriteLockExecutor();
+        keys = new BenchmarkKeys(keyCount);
+    }
+
+    @TearDown
+    public void tearDown() {
+        localLockExecutor.destroy();
+        readWriteLockExecutor.destroy();
+    }
+
+    @Benchmark
+    public boolean exclusive() {
+        String key = keys.next();
+        LocalLockExecutor.LocalLock lock = localLockExecutor.acquire(key, "value", 30000, 3000);
+        Blackhole.consumeCPU(64);
+        return localLockExecutor.releaseLock(key, "value", lock);
+    }
+
+    @Benchmark
+    public boolean read() {
+        String key = keys.next();
+        LocalReadWriteLockExecutor.LockView lock = readWriteLockExecutor.acquire(key, "value", 30000, 3000, READ);
+        Blackhole.consumeCPU(64);
+        return readWriteLockExecutor.releaseLock(key, "value", lock);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.benchmark;
+
+import com.baomidou.lock.CompiledLockKey;
+import com.baomidou.lock.DefaultLockKeyBuilder;
+import com.baomidou.lock.SpelMethodBasedExpressionEvaluator;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.ReflectiveMethodInvocation;
+import org.springframework.beans.factory.config.EmbeddedValueResolver;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DefaultLockKeyBuilder#buildKey}与预编译的{@link DefaultLockKeyBuilder#compile}基准测试
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LockKeyBuilderBenchmark {
+
+    private static final String[] SIMPLE_KEYS = {"#orderId"};
+    private static final String[] PROPERTY_KEYS = {"#order.userId", "#order.orderId"};
+
+    @Param({"1", "100", "10000", "100000"})
+    private int keyCount;
+
+    private DefaultLockKeyBuilder keyBuilder;
+    private CompiledLockKey compiledSimpleKey;
+    private CompiledLockKey compiledPropertyKey;
+    private MethodInvocation[] invocations;
+
+    @Setup
+    public void setup() throws Exception {
+        SpelMethodBasedExpressionEvaluator evaluator = new SpelMethodBasedExpressionEvaluator();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        evaluator.setBeanFactory(beanFactory);
+        evaluator.setEmbeddedValueResolver(new EmbeddedValueResolver(beanFactory));
+        keyBuilder = new DefaultLockKeyBuilder(evaluator);
+        Method method = OrderService.class.getMethod("pay", String.class, Order.class);
+        compiledSimpleKey = keyBuilder.compile(method, SIMPLE_KEYS);
+        compiledPropertyKey = keyBuilder.compile(method, PROPERTY_KEYS);
+        OrderService target = new OrderService();
+        invocations = new MethodInvocation[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            String orderId = "order-" + i;
+            invocations[i] = new BenchmarkInvocation(target, method, orderId, new Order("user-" + i, orderId));
+        }
+    }
+
+    @Benchmark
+    public String simpleKey() {
+        return keyBuilder.buildKey(nextInvocation(), SIMPLE_KEYS);
+    }
+
+    @Benchmark
+    public String propertyKey() {
+        return keyBuilder.buildKey(nextInvocation(), PROPERTY_KEYS);
+    }
+
+    @Benchmark
+    public String compiledSimpleKey() {
+        StringBuilder builder = new StringBuilder(32);
+        compiledSimpleKey.appendTo(builder, nextInvocation());
+        return builder.toString();
+    }
+
+    @Benchmark
+    public String compiledPropertyKey() {
+        StringBuilder builder = new StringBuilder(32);
+        compiledPropertyKey.appendTo(builder, nextInvocation());
+        return builder.toString();
+    }
+
+    private MethodInvocation nextInvocation() {
+        return invocations[ThreadLocalRandom.current().nextInt(invocations.length)];
+    }
+
+    private static class BenchmarkInvocation extends ReflectiveMethodInvocation {
+        BenchmarkInvocation(Object target, Method method, Object... arguments) {
+            super(target, target, method, arguments, target.getClass(), Collections.emptyList());
+        }
+    }
+}
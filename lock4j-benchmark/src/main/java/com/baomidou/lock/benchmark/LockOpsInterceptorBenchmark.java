@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.benchmark;
+
+import com.baomidou.lock.aop.LockOpsInterceptor;
+import com.baomidou.lock.spring.boot.autoconfigure.LockAutoConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过代理对象调用{@link com.baomidou.lock.annotation.Lock4j}注解方法的完整AOP链路基准测试，
+ * 包括{@link LockOpsInterceptor#invoke}、SpEL key解析以及基于本地锁的加解锁
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LockOpsInterceptorBenchmark {
+
+    @Param({"1", "100", "10000", "100000"})
+    private int keyCount;
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private OrderService orderService;
+    private Order[] orders;
+
+    @Setup
+    public void setup() {
+        applicationContext = new AnnotationConfigApplicationContext(BenchmarkConfiguration.class);
+        orderService = applicationContext.getBean(OrderService.class);
+        orders = new Order[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            orders[i] = new Order("user-" + i, "order-" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public String simpleKey() {
+        Order order = nextOrder();
+        return orderService.pay(order.getOrderId(), order);
+    }
+
+    @Benchmark
+    public String propertyKey() {
+        Order order = nextOrder();
+        return orderService.refund(order.getOrderId(), order);
+    }
+
+    private Order nextOrder() {
+        return orders[ThreadLocalRandom.current().nextInt(orders.length)];
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @Import(LockAutoConfiguration.class)
+    static class BenchmarkConfiguration {
+
+        @Bean
+        public OrderService orderService() {
+            return new OrderService();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.benchmark;
+
+import com.baomidou.lock.LockInfo;
+import com.baomidou.lock.LockReleaseNotifier;
+import com.baomidou.lock.LockTemplate;
+import com.baomidou.lock.executor.LocalLockExecutor;
+import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于{@link LocalLockExecutor}的{@link LockTemplate#lock}与{@link LockTemplate#releaseLock}基准测试
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LockTemplateBenchmark {
+
+    @Param({"1", "100", "10000", "100000"})
+    private int keyCount;
+
+    private LockTemplate lockTemplate;
+    private BenchmarkKeys keys;
+
+    @Setup
+    public void setup() throws Exception {
+        Lock4jProperties properties = new Lock4jProperties();
+        lockTemplate = new LockTemplate();
+        lockTemplate.setProperties(properties);
+        lockTemplate.setExecutors(Collections.singletonList(new LocalLockExecutor()));
+        lockTemplate.setReleaseNotifier(new LockReleaseNotifier());
+        lockTemplate.afterPropertiesSet();
+        keys = new BenchmarkKeys(keyCount);
+    }
+
+    @Benchmark
+    public boolean lockAndRelease() {
+        LockInfo lockInfo = lockTemplate.lock(keys.next(), 30000, 3000);
+        return lockTemplate.releaseLock(lockInfo);
+    }
+}
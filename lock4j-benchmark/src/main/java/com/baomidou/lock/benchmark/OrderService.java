@@ -0,0 +1,35 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.benchmark;
+
+import com.baomidou.lock.annotation.Lock4j;
+
+/**
+ * 基准测试使用的加锁业务方法
+ */
+public class OrderService {
+
+    @Lock4j(keys = "#orderId", expire = 30000, acquireTimeout = 3000)
+    public String pay(String orderId, Order order) {
+        return orderId;
+    }
+
+    @Lock4j(keys = {"#order.userId", "#order.orderId"}, expire = 30000, acquireTimeout = 3000)
+    public String refund(String orderId, Order order) {
+        return orderId;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.benchmark;
+
+import com.baomidou.lock.SpelMethodBasedExpressionEvaluator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.EmbeddedValueResolver;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同编译模式下{@link SpelMethodBasedExpressionEvaluator}计算{@code #order.userId}等key表达式的基准测试
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpelCompilerBenchmark {
+
+    @Param({"OFF", "MIXED", "IMMEDIATE"})
+    private SpelCompilerMode compilerMode;
+
+    private SpelMethodBasedExpressionEvaluator evaluator;
+    private Method method;
+    private Object[] arguments;
+
+    @Setup
+    public void setup() throws Exception {
+        evaluator = new SpelMethodBasedExpressionEvaluator(
+            new SpelParserConfiguration(compilerMode, getClass().getClassLoader()));
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        evaluator.setBeanFactory(beanFactory);
+        evaluator.setEmbeddedValueResolver(new EmbeddedValueResolver(beanFactory));
+        method = OrderService.class.getMethod("pay", String.class, Order.class);
+        arguments = new Object[]{"order-1", new Order("user-1", "order-1")};
+    }
+
+    @Benchmark
+    public String variable() {
+        return evaluator.getValue(method, arguments, "#orderId", String.class);
+    }
+
+    @Benchmark
+    public String property() {
+        return evaluator.getValue(method, arguments, "#order.userId", String.class);
+    }
+
+    @Benchmark
+    public Boolean condition() {
+        return evaluator.getValue(method, arguments, "#order.userId == 'user-1'", Boolean.class);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.benchmark;
+
+import com.baomidou.lock.LockReleaseNotifier;
+import com.baomidou.lock.LockTemplate;
+import com.baomidou.lock.executor.LocalLockExecutor;
+import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
+import com.baomidou.lock.util.VirtualThreads;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>平台线程与虚拟线程在大量锁等待者下的{@link LockTemplate#executeAsync}对比基准测试，
+ * 每次操作提交{@link #waiters}个任务，在{@link #keyCount}个key上竞争{@link LocalLockExecutor}，
+ * 每个任务持有锁{@link #holdMillis}毫秒，统计所有任务完成所需的时间。
+ *
+ * <p>虚拟线程仅在JDK21及以上版本中可用，低版本JDK下virtual参数组合将直接失败。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String threadType;
+
+    @Param({"10000"})
+    private int waiters;
+
+    @Param({"100", "10000"})
+    private int keyCount;
+
+    @Param({"0", "1"})
+    private long holdMillis;
+
+    private LockTemplate lockTemplate;
+    private ExecutorService executor;
+    private BenchmarkKeys keys;
+
+    @Setup
+    public void setup() throws Exception {
+        Lock4jProperties properties = new Lock4jProperties();
+        properties.setAcquireTimeout(TimeUnit.MINUTES.toMillis(1));
+        executor = "virtual".equals(threadType) ?
+            VirtualThreads.newVirtualThreadPerTaskExecutor("lock4j-virtual-") : Executors.newCachedThreadPool();
+        lockTemplate = new LockTemplate();
+        lockTemplate.setProperties(properties);
+        lockTemplate.setExecutors(Collections.singletonList(new LocalLockExecutor()));
+        lockTemplate.setReleaseNotifier(new LockReleaseNotifier());
+        lockTemplate.setTaskExecutor(executor);
+        lockTemplate.afterPropertiesSet();
+        keys = new BenchmarkKeys(keyCount);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        lockTemplate.destroy();
+    }
+
+    @Benchmark
+    public void executeAsync() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[waiters];
+        for (int i = 0; i < waiters; i++) {
+            futures[i] = lockTemplate.executeAsync(keys.next(), () -> {
+                if (holdMillis > 0) {
+                    TimeUnit.MILLISECONDS.sleep(holdMillis);
+                }
+                return null;
+            });
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+}
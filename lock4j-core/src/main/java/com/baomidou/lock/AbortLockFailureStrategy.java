@@ -1,5 +1,6 @@
 package com.baomidou.lock;
 
+import com.baomidou.lock.cache.ConcurrentMapLockCacheFactory;
 import com.baomidou.lock.exception.LockFailureException;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -43,7 +44,7 @@ public class AbortLockFailureStrategy implements LockFailureStrategy {
     /**
      * 异常处理器缓存
      */
-    private final Map<Method, FailureHandler> exceptionHandlerCaches = new ConcurrentReferenceHashMap<>(8);
+    private LockCache<Method, FailureHandler> exceptionHandlerCaches = new ConcurrentMapLockCacheFactory().createCache("failureHandler");
 
     /**
      * 表达式执行器
@@ -56,6 +57,15 @@ public class AbortLockFailureStrategy implements LockFailureStrategy {
     @Setter
     private boolean allowedMakeNonExecutableExpressionsAsString = true;
 
+    /**
+     * 设置用于创建失败处理器缓存的缓存工厂
+     *
+     * @param cacheFactory 缓存工厂
+     */
+    public void setCacheFactory(LockCacheFactory cacheFactory) {
+        this.exceptionHandlerCaches = cacheFactory.createCache("failureHandler");
+    }
+
     /**
      * 当加锁失败时的处理策略
      *
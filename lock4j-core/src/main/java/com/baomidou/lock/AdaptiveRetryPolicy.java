@@ -0,0 +1,83 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+import lombok.Getter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>自适应重试策略，根据每个锁名称在当前节点上观察到的锁持有时间，动态调整重试间隔。
+ * 同一个锁名称下的key通常由同一个方法加锁，持有时间相近，因此按锁名称而非锁key统计，其数量不会随key的取值增长。
+ *
+ * <p>每当锁被释放时，会以指数加权移动平均(EWMA)的方式更新该锁名称的平均持有时间，
+ * 之后的重试间隔将以该平均值为上限，在{@code [baseInterval, lastInterval * 3]}之间随机取值。
+ * 持有时间越短，重试越频繁；持有时间越长，重试越稀疏，从而减少无效的重试请求。
+ * 尚未观察到持有时间的锁名称则以{@code maxInterval}为上限。
+ */
+@Getter
+public class AdaptiveRetryPolicy implements RetryPolicy {
+
+    /**
+     * 新样本的权重
+     */
+    private static final double ALPHA = 0.2;
+
+    /**
+     * 最小重试间隔(ms)
+     */
+    private final long baseInterval;
+
+    /**
+     * 最大重试间隔(ms)
+     */
+    private final long maxInterval;
+
+    /**
+     * 各锁名称的平均持有时间(ms)
+     */
+    private final Map<String, Double> holdTimes = new ConcurrentHashMap<>();
+
+    public AdaptiveRetryPolicy(long baseInterval, long maxInterval) {
+        this.baseInterval = baseInterval;
+        this.maxInterval = maxInterval;
+    }
+
+    @Override
+    public long nextInterval(String name, int acquireCount, long lastInterval) {
+        Double holdTime = holdTimes.get(name);
+        long ceiling = null == holdTime ? maxInterval
+                : Math.min(maxInterval, Math.max(baseInterval, Math.round(holdTime)));
+        return DecorrelatedJitterRetryPolicy.randomBetween(baseInterval, Math.max(lastInterval, baseInterval) * 3, ceiling);
+    }
+
+    @Override
+    public void onReleased(String name, long holdTime) {
+        holdTimes.merge(name, (double) holdTime, (average, sample) -> average + ALPHA * (sample - average));
+    }
+
+    /**
+     * 获取指定锁名称的平均持有时间
+     *
+     * @param name 锁名称
+     * @return 平均持有时间(ms)，尚未观察到时返回-1
+     */
+    public long getAverageHoldTime(String name) {
+        Double holdTime = holdTimes.get(name);
+        return null == holdTime ? -1 : Math.round(holdTime);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * <p>针对某个方法预编译的锁key，由{@link LockKeyBuilder#compile}创建。
+ *
+ * <p>同一个方法上的key定义是固定的，因此可以在首次调用时完成解析，此后每次调用只需计算并拼接各个片段的值。
+ *
+ * @see LockKeyBuilder#compile
+ */
+@FunctionalInterface
+public interface CompiledLockKey {
+
+    /**
+     * 计算本次调用的key，并追加到{@code builder}中
+     *
+     * @param builder    key构建器
+     * @param invocation 方法调用
+     */
+    void appendTo(StringBuilder builder, MethodInvocation invocation);
+}
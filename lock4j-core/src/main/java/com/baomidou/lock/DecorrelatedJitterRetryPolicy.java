@@ -0,0 +1,58 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>去相关抖动重试策略，等待时间取{@code [baseInterval, lastInterval * 3]}之间的随机值，并且不超过{@code maxInterval}。
+ *
+ * <p>与指数退避相比，每个客户端的等待时间只与自身上一次的等待时间相关，竞争者的重试时刻会更加分散。
+ */
+@Getter
+@RequiredArgsConstructor
+public class DecorrelatedJitterRetryPolicy implements RetryPolicy {
+
+    /**
+     * 最小重试间隔(ms)
+     */
+    private final long baseInterval;
+
+    /**
+     * 最大重试间隔(ms)
+     */
+    private final long maxInterval;
+
+    @Override
+    public long nextInterval(String name, int acquireCount, long lastInterval) {
+        return randomBetween(baseInterval, Math.max(lastInterval, baseInterval) * 3, maxInterval);
+    }
+
+    /**
+     * 获取{@code [min, max]}之间的随机值，结果不超过{@code ceiling}
+     */
+    static long randomBetween(long min, long max, long ceiling) {
+        long upper = Math.min(max, ceiling);
+        if (upper <= min) {
+            return Math.max(Math.min(min, ceiling), 0);
+        }
+        return ThreadLocalRandom.current().nextLong(min, upper + 1);
+    }
+}
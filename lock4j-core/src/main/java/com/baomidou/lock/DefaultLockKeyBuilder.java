@@ -18,10 +18,20 @@ package com.baomidou.lock;
 
 import lombok.RequiredArgsConstructor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -35,6 +45,10 @@ public class DefaultLockKeyBuilder implements LockKeyBuilder {
 
     private final MethodBasedExpressionEvaluator methodBasedExpressionEvaluator;
     private static final String EMPTY_KEY = "";
+    private static final Pattern PROPERTY_PATH = Pattern.compile("#[A-Za-z_]\\w*(\\.[A-Za-z_]\\w*)*");
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final String ROOT_VARIABLE = "root";
+    private static final String THIS_VARIABLE = "this";
 
     @Override
     public String buildKey(MethodInvocation invocation, String[] definitionKeys) {
@@ -50,4 +64,171 @@ public class DefaultLockKeyBuilder implements LockKeyBuilder {
             .map(k -> methodBasedExpressionEvaluator.getValue(method, arguments, k, String.class))
             .collect(Collectors.joining("."));
     }
+
+    /**
+     * <p>针对方法预编译key，预先过滤掉空的key定义，并为每个key定义创建对应的片段。
+     * 每次调用时依次计算各片段的值，并直接追加到同一个{@link StringBuilder}中，结果与{@link #buildKey}一致。
+     *
+     * <p>形如{@code #orderId}或{@code #req.tenantId}的简单属性路径，若能在编译时根据参数的声明类型找到对应的getter方法，
+     * 则直接按参数下标取值并调用getter，不再经过SpEL；其余的key定义，以及运行时无法按该方式取值的情况(比如中间值为{@code null})，
+     * 仍交由{@link MethodBasedExpressionEvaluator}计算。
+     *
+     * <p>若子类重写了{@link #buildKey}或{@link #getSpelDefinitionKey}，则仍然委托给重写后的方法。
+     *
+     * @param method         方法
+     * @param definitionKeys 定义
+     * @return 预编译的key
+     */
+    @Override
+    public CompiledLockKey compile(Method method, String[] definitionKeys) {
+        if (isOverridden("buildKey", MethodInvocation.class, String[].class)
+            || isOverridden("getSpelDefinitionKey", String[].class, MethodInvocation.class)) {
+            return LockKeyBuilder.super.compile(method, definitionKeys);
+        }
+        KeySegment[] segments = ObjectUtils.isEmpty(definitionKeys) ? new KeySegment[0] : Stream.of(definitionKeys)
+            .filter(StringUtils::hasText)
+            .map(definitionKey -> compileSegment(method, definitionKey))
+            .toArray(KeySegment[]::new);
+        return new SegmentedLockKey(segments);
+    }
+
+    /**
+     * 为单个key定义创建片段
+     *
+     * @param method        方法
+     * @param definitionKey key定义
+     * @return 片段
+     */
+    private KeySegment compileSegment(Method method, String definitionKey) {
+        KeySegment segment = (m, arguments) -> methodBasedExpressionEvaluator.getValue(m, arguments, definitionKey, String.class);
+        // 仅默认的SpEL计算器与属性路径的取值方式一致
+        if (!(methodBasedExpressionEvaluator instanceof SpelMethodBasedExpressionEvaluator)
+            || !PROPERTY_PATH.matcher(definitionKey).matches()) {
+            return segment;
+        }
+        String[] path = StringUtils.delimitedListToStringArray(definitionKey.substring(1), ".");
+        // 复用计算器缓存的参数下标，#root与#this不是变量
+        Integer index = ROOT_VARIABLE.equals(path[0]) || THIS_VARIABLE.equals(path[0]) ? null :
+            ((SpelMethodBasedExpressionEvaluator) methodBasedExpressionEvaluator).getArgumentIndexes(method).get(path[0]);
+        if (null == index) {
+            return segment;
+        }
+        Class<?> type = method.getParameterTypes()[index];
+        MethodHandle[] getters = new MethodHandle[path.length - 1];
+        for (int i = 1; i < path.length; i++) {
+            Method getter = findGetter(type, path[i]);
+            if (null == getter) {
+                return segment;
+            }
+            try {
+                getters[i - 1] = MethodHandles.publicLookup().unreflect(getter).asType(GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                return segment;
+            }
+            type = getter.getReturnType();
+        }
+        return new PropertyPathSegment(index, getters, segment);
+    }
+
+    /**
+     * 查找与SpEL属性访问一致的公共getter方法，Map类型的属性由{@code MapAccessor}按key读取，因此不作处理
+     *
+     * @param type     类型
+     * @param property 属性名
+     * @return getter方法，找不到时返回{@code null}
+     */
+    private static Method findGetter(Class<?> type, String property) {
+        if (Map.class.isAssignableFrom(type) || type.isPrimitive() || type.isArray()) {
+            return null;
+        }
+        String suffix = StringUtils.capitalize(property);
+        Method getter = ReflectionUtils.findMethod(type, "get" + suffix);
+        if (null == getter) {
+            getter = ReflectionUtils.findMethod(type, "is" + suffix);
+            if (null != getter && ClassUtils.resolvePrimitiveIfNecessary(getter.getReturnType()) != Boolean.class) {
+                return null;
+            }
+        }
+        return null == getter || getter.getReturnType() == void.class || Modifier.isStatic(getter.getModifiers())
+            || !Modifier.isPublic(getter.getModifiers()) || !Modifier.isPublic(getter.getDeclaringClass().getModifiers()) ?
+            null : getter;
+    }
+
+    private boolean isOverridden(String methodName, Class<?>... parameterTypes) {
+        Method method = ReflectionUtils.findMethod(getClass(), methodName, parameterTypes);
+        return method != null && method.getDeclaringClass() != DefaultLockKeyBuilder.class;
+    }
+
+    /**
+     * key片段，对应注解中的一个key定义
+     */
+    @FunctionalInterface
+    private interface KeySegment {
+
+        /**
+         * 计算片段的值
+         *
+         * @param method    方法
+         * @param arguments 参数
+         * @return 值
+         */
+        String evaluate(Method method, Object[] arguments);
+    }
+
+    /**
+     * 简单属性路径对应的片段，按参数下标取值后依次调用getter方法
+     */
+    @RequiredArgsConstructor
+    private static class PropertyPathSegment implements KeySegment {
+
+        private static final ConversionService CONVERSION_SERVICE = DefaultConversionService.getSharedInstance();
+        private final int index;
+        private final MethodHandle[] getters;
+        private final KeySegment fallback;
+
+        @Override
+        public String evaluate(Method method, Object[] arguments) {
+            if (index >= arguments.length) {
+                return fallback.evaluate(method, arguments);
+            }
+            Object value = arguments[index];
+            for (MethodHandle getter : getters) {
+                // 中间值为null时SpEL将抛出异常，运行时类型为Map时则应按key读取，这些情况交由SpEL处理
+                if (null == value || value instanceof Map) {
+                    return fallback.evaluate(method, arguments);
+                }
+                try {
+                    value = (Object) getter.invokeExact(value);
+                } catch (Throwable e) {
+                    return fallback.evaluate(method, arguments);
+                }
+            }
+            if (value instanceof String || null == value) {
+                return (String) value;
+            }
+            return CONVERSION_SERVICE.canConvert(value.getClass(), String.class) ?
+                CONVERSION_SERVICE.convert(value, String.class) : fallback.evaluate(method, arguments);
+        }
+    }
+
+    /**
+     * 由多个片段组成的key，片段之间以"."分隔
+     */
+    @RequiredArgsConstructor
+    private static class SegmentedLockKey implements CompiledLockKey {
+
+        private final KeySegment[] segments;
+
+        @Override
+        public void appendTo(StringBuilder builder, MethodInvocation invocation) {
+            Method method = invocation.getMethod();
+            Object[] arguments = invocation.getArguments();
+            for (int i = 0; i < segments.length; i++) {
+                if (i > 0) {
+                    builder.append('.');
+                }
+                builder.append(segments[i].evaluate(method, arguments));
+            }
+        }
+    }
 }
@@ -0,0 +1,53 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>指数退避重试策略，第n次重试的等待时间上限为{@code min(maxInterval, baseInterval * 2^(n-1))}，
+ * 实际等待时间为该上限的一半再加上随机抖动，以免多个客户端同时重试。
+ */
+@Getter
+@RequiredArgsConstructor
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+    /**
+     * 初始重试间隔(ms)
+     */
+    private final long baseInterval;
+
+    /**
+     * 最大重试间隔(ms)
+     */
+    private final long maxInterval;
+
+    @Override
+    public long nextInterval(String name, int acquireCount, long lastInterval) {
+        // 避免位移溢出
+        int shift = Math.min(Math.max(acquireCount - 1, 0), 30);
+        long ceiling = Math.min(maxInterval, baseInterval << shift);
+        if (ceiling <= 1) {
+            return Math.max(ceiling, 0);
+        }
+        long half = ceiling >>> 1;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+}
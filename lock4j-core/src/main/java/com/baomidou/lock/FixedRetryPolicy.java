@@ -0,0 +1,38 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 固定间隔的重试策略，每次重试前都等待相同的时间
+ */
+@Getter
+@RequiredArgsConstructor
+public class FixedRetryPolicy implements RetryPolicy {
+
+    /**
+     * 重试间隔(ms)
+     */
+    private final long retryInterval;
+
+    @Override
+    public long nextInterval(String name, int acquireCount, long lastInterval) {
+        return retryInterval;
+    }
+}
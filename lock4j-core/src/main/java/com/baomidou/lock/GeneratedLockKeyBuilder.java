@@ -0,0 +1,151 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+import lombok.Getter;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+
+/**
+ * <p>由{@code lock4j-processor}在编译期为{@code @Lock4j}或{@code @LockWithDefault}方法生成的key构建器。
+ * 生成的实现类直接按参数下标取值并调用getter方法，不需要在运行时解析表达式。
+ *
+ * <p>生成的实现类通过{@link java.util.ServiceLoader}注册，当方法使用默认的{@link DefaultLockKeyBuilder}，
+ * 且注解中的key定义与生成时一致时，拦截器将优先使用该构建器。无法在编译期处理的条件表达式仍然在运行时计算。
+ *
+ * @see com.baomidou.lock.aop.AbstractLockInterceptor
+ */
+@Getter
+public abstract class GeneratedLockKeyBuilder implements LockKeyBuilder {
+
+    private static final ConversionService CONVERSION_SERVICE = DefaultConversionService.getSharedInstance();
+
+    /**
+     * 对应的方法
+     */
+    private final Method method;
+
+    /**
+     * 生成时注解中的key定义
+     */
+    private final String[] definitionKeys;
+
+    /**
+     * 生成时注解中的条件表达式
+     */
+    private final String condition;
+
+    /**
+     * 创建一个key构建器
+     *
+     * @param type           方法所在的类
+     * @param methodName     方法名称
+     * @param parameterTypes 方法参数类型
+     * @param definitionKeys 生成时注解中的key定义
+     * @param condition      生成时注解中的条件表达式
+     */
+    protected GeneratedLockKeyBuilder(
+        Class<?> type, String methodName, Class<?>[] parameterTypes, String[] definitionKeys, String condition) {
+        this.method = ReflectionUtils.findMethod(type, methodName, parameterTypes);
+        this.definitionKeys = definitionKeys;
+        this.condition = condition;
+        Objects.requireNonNull(method, () -> "method not found: " + type.getName() + "#" + methodName);
+    }
+
+    /**
+     * 根据调用参数计算key，并追加到{@code builder}中
+     *
+     * @param builder   key构建器
+     * @param arguments 调用参数
+     */
+    protected abstract void appendKey(StringBuilder builder, Object[] arguments);
+
+    /**
+     * 是否在编译期生成了条件表达式的实现
+     *
+     * @return 是否
+     */
+    public boolean hasCondition() {
+        return false;
+    }
+
+    /**
+     * 计算条件表达式
+     *
+     * @param arguments 调用参数
+     * @return 是否满足条件
+     */
+    public boolean evaluateCondition(Object[] arguments) {
+        throw new UnsupportedOperationException("condition is not generated: " + condition);
+    }
+
+    @Override
+    public String buildKey(MethodInvocation invocation, String[] definitionKeys) {
+        StringBuilder builder = new StringBuilder();
+        appendKey(builder, invocation.getArguments());
+        return builder.toString();
+    }
+
+    @Override
+    public CompiledLockKey compile(Method method, String[] definitionKeys) {
+        return (builder, invocation) -> appendKey(builder, invocation.getArguments());
+    }
+
+    /**
+     * 检查属性所在的对象是否为{@code null}，与SpEL一致，为{@code null}时抛出{@link SpelEvaluationException}
+     *
+     * @param target   属性所在的对象
+     * @param property 属性名
+     * @return 对象
+     */
+    protected static <T> T nonNull(@Nullable T target, String property) {
+        if (Objects.isNull(target)) {
+            throw new SpelEvaluationException(SpelMessage.PROPERTY_OR_FIELD_NOT_READABLE_ON_NULL, property);
+        }
+        return target;
+    }
+
+    /**
+     * 将值转为字符串，与SpEL使用相同的类型转换服务
+     *
+     * @param value 值
+     * @return 字符串
+     */
+    protected static String asString(@Nullable Object value) {
+        return value instanceof String || Objects.isNull(value) ?
+            (String) value : CONVERSION_SERVICE.convert(value, String.class);
+    }
+
+    /**
+     * 将值转为条件表达式的结果，仅当值为{@code true}或{@code 'true'}时满足条件
+     *
+     * @param value 值
+     * @return 是否满足条件
+     */
+    protected static boolean asCondition(@Nullable Object value) {
+        return value instanceof Boolean ?
+            (Boolean) value : Boolean.TRUE.equals(CONVERSION_SERVICE.convert(value, Boolean.class));
+    }
+}
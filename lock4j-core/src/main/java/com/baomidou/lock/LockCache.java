@@ -0,0 +1,92 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+import java.util.function.Function;
+
+/**
+ * <p>lock4j内部使用的缓存，用于缓存按方法解析的锁操作、表达式以及失败处理器等，
+ * 缓存的值总是可以重新计算，因此被淘汰时只会导致重新解析。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @see LockCacheFactory
+ */
+public interface LockCache<K, V> {
+
+    /**
+     * 获取缓存名称
+     *
+     * @return 名称
+     */
+    String getName();
+
+    /**
+     * 获取缓存的值
+     *
+     * @param key 键
+     * @return 值，不存在时返回{@code null}
+     */
+    V get(K key);
+
+    /**
+     * 获取缓存的值，不存在时通过{@code mappingFunction}计算并缓存
+     *
+     * @param key             键
+     * @param mappingFunction 计算函数，返回{@code null}时不缓存
+     * @return 值
+     */
+    V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction);
+
+    /**
+     * 缓存值
+     *
+     * @param key   键
+     * @param value 值
+     */
+    void put(K key, V value);
+
+    /**
+     * 仅在不存在时缓存值
+     *
+     * @param key   键
+     * @param value 值
+     * @return 已经存在的值，不存在时返回{@code null}
+     */
+    V putIfAbsent(K key, V value);
+
+    /**
+     * 获取缓存的数量
+     *
+     * @return 数量
+     */
+    long size();
+
+    /**
+     * 获取命中次数
+     *
+     * @return 次数
+     */
+    long getHitCount();
+
+    /**
+     * 获取未命中次数
+     *
+     * @return 次数
+     */
+    long getMissCount();
+}
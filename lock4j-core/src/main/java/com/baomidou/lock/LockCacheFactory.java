@@ -0,0 +1,45 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+import java.util.Collection;
+
+/**
+ * <p>缓存工厂，用于创建{@link LockCache}，并记录已创建的缓存以便统计命中率。
+ *
+ * <p>默认使用基于强引用且不限容量的{@link com.baomidou.lock.cache.ConcurrentMapLockCacheFactory}，
+ * 项目中存在Caffeine时，也可以通过{@link com.baomidou.lock.cache.CaffeineLockCacheFactory}限制缓存的容量。
+ *
+ * @see LockCache
+ */
+public interface LockCacheFactory {
+
+    /**
+     * 创建缓存，若名称已被使用，将在名称后追加序号
+     *
+     * @param name 名称
+     * @return 缓存
+     */
+    <K, V> LockCache<K, V> createCache(String name);
+
+    /**
+     * 获取已创建的缓存
+     *
+     * @return 缓存
+     */
+    Collection<LockCache<?, ?>> getCaches();
+}
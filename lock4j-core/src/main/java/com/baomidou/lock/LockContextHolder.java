@@ -0,0 +1,87 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+import com.baomidou.lock.executor.LockExecutor;
+import org.springframework.lang.Nullable;
+
+/**
+ * <p>当前线程正在执行的加锁方法所持有的锁信息，由{@link com.baomidou.lock.annotation.Lock4j}的拦截器
+ * 及{@link LockTemplate#executeAsync}在方法执行期间设置。
+ *
+ * <p>开启{@link com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties#fencingToken}后，
+ * 加锁方法可以通过{@link #getFencingToken()}获取本次加锁的fencing token，并在写入存储时一并提交，
+ * 由存储拒绝token小于已见过的最大token的写入，从而避免锁过期后的旧持有者覆盖新持有者的数据。
+ *
+ * <p>方法嵌套加锁时获取到的是最内层的锁信息，内层方法结束后恢复为外层的锁信息。
+ * 响应式方法不在加锁的线程上执行，因此无法通过该类获取锁信息。
+ *
+ * @see LockExecutor#getFencingToken
+ */
+public final class LockContextHolder {
+
+    private static final ThreadLocal<LockInfo> CURRENT = new ThreadLocal<>();
+
+    private LockContextHolder() {
+    }
+
+    /**
+     * 获取当前线程持有的锁信息
+     *
+     * @return 锁信息，当前不在加锁方法中执行时为{@code null}
+     */
+    @Nullable
+    public static LockInfo getLockInfo() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 获取当前线程持有的锁的fencing token
+     *
+     * @return fencing token，当前不在加锁方法中执行、未开启或执行器不支持时为{@link LockExecutor#NO_FENCING_TOKEN}
+     */
+    public static long getFencingToken() {
+        LockInfo lockInfo = CURRENT.get();
+        return null == lockInfo ? LockExecutor.NO_FENCING_TOKEN : lockInfo.getFencingToken();
+    }
+
+    /**
+     * 设置当前线程持有的锁信息，方法执行结束后需要通过{@link #restore}恢复
+     *
+     * @param lockInfo 锁信息
+     * @return 设置前的锁信息
+     */
+    @Nullable
+    public static LockInfo set(LockInfo lockInfo) {
+        LockInfo previous = CURRENT.get();
+        CURRENT.set(lockInfo);
+        return previous;
+    }
+
+    /**
+     * 恢复为设置前的锁信息
+     *
+     * @param previous {@link #set}返回的锁信息
+     */
+    public static void restore(@Nullable LockInfo previous) {
+        if (null == previous) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
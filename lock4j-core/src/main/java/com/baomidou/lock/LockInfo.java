@@ -61,4 +61,46 @@ public class LockInfo {
      * 锁执行器
      */
     private LockExecutor lockExecutor;
+
+    /**
+     * 获取到锁的时间(ms)
+     */
+    private long acquireTime;
+
+    /**
+     * 重试策略
+     */
+    private RetryPolicy retryPolicy;
+
+    /**
+     * 是否通过{@link com.baomidou.lock.executor.AsyncLockExecutor}异步获取
+     */
+    private boolean async;
+
+    /**
+     * 锁名称，用于统计指标
+     *
+     * @see LockMetricsRecorder
+     */
+    private String name;
+
+    /**
+     * fencing token，未开启或执行器不支持时为{@link LockExecutor#NO_FENCING_TOKEN}
+     *
+     * @see LockExecutor#getFencingToken
+     */
+    private long fencingToken;
+
+    public LockInfo(String lockKey, String lockValue, Long expire, Long acquireTimeout, int acquireCount,
+                    Object lockInstance, LockExecutor lockExecutor) {
+        this(lockKey, lockValue, expire, acquireTimeout, acquireCount, lockInstance, lockExecutor,
+                System.currentTimeMillis(), null, false, LockMetricsRecorder.UNNAMED);
+    }
+
+    public LockInfo(String lockKey, String lockValue, Long expire, Long acquireTimeout, int acquireCount,
+                    Object lockInstance, LockExecutor lockExecutor, long acquireTime, RetryPolicy retryPolicy,
+                    boolean async, String name) {
+        this(lockKey, lockValue, expire, acquireTimeout, acquireCount, lockInstance, lockExecutor,
+                acquireTime, retryPolicy, async, name, LockExecutor.NO_FENCING_TOKEN);
+    }
 }
@@ -18,6 +18,8 @@ package com.baomidou.lock;
 
 import org.aopalliance.intercept.MethodInvocation;
 
+import java.lang.reflect.Method;
+
 /**
  * @author zengzhihong
  */
@@ -31,4 +33,15 @@ public interface LockKeyBuilder {
      * @return key
      */
     String buildKey(MethodInvocation invocation, String[] definitionKeys);
+
+    /**
+     * 针对方法预编译key，默认每次调用时委托给{@link #buildKey}
+     *
+     * @param method         方法
+     * @param definitionKeys 定义
+     * @return 预编译的key
+     */
+    default CompiledLockKey compile(Method method, String[] definitionKeys) {
+        return (builder, invocation) -> builder.append(buildKey(invocation, definitionKeys));
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+import com.baomidou.lock.executor.LockExecutor;
+
+/**
+ * <p>锁指标记录器，用于统计加锁耗时、重试次数、持有时间以及失败次数等指标。
+ *
+ * <p>指标应当只按执行器类型与锁名称区分，而不应使用锁key，以免key的取值过多导致指标数量无限增长。
+ * 锁名称即{@link com.baomidou.lock.annotation.Lock4j#name()}，未指定时为方法的全限定名，
+ * 直接通过{@link LockTemplate}加锁且未指定名称时为{@link #UNNAMED}。
+ *
+ * @see com.baomidou.lock.metrics.MicrometerLockMetricsRecorder
+ */
+public interface LockMetricsRecorder {
+
+    /**
+     * 未指定锁名称
+     */
+    String UNNAMED = "none";
+
+    /**
+     * 不记录任何指标
+     */
+    LockMetricsRecorder NONE = new LockMetricsRecorder() {
+    };
+
+    /**
+     * 一次加锁结束时回调，无论成功与否
+     *
+     * @param lockExecutor 锁执行器
+     * @param name         锁名称
+     * @param acquired     是否获取到锁
+     * @param acquireCount 尝试获取锁的次数
+     * @param latency      加锁耗时(ns)，包括重试等待的时间
+     */
+    default void recordAcquire(LockExecutor<?> lockExecutor, String name, boolean acquired, int acquireCount,
+                               long latency) {
+    }
+
+    /**
+     * 释放锁时回调
+     *
+     * @param lockExecutor 锁执行器
+     * @param name         锁名称
+     * @param released     是否释放成功，锁已过期或释放时抛出异常均视为失败
+     * @param holdTime     锁的持有时间(ms)
+     */
+    default void recordRelease(LockExecutor<?> lockExecutor, String name, boolean released, long holdTime) {
+    }
+
+    /**
+     * 获取锁失败，交由失败策略处理时回调
+     *
+     * @param lockExecutor        锁执行器
+     * @param lockFailureStrategy 失败策略
+     * @param name                锁名称
+     */
+    default void recordLockFailure(LockExecutor<?> lockExecutor, LockFailureStrategy lockFailureStrategy, String name) {
+    }
+}
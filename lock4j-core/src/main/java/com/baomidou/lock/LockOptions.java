@@ -0,0 +1,75 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+import com.baomidou.lock.annotation.Fairness;
+import com.baomidou.lock.annotation.Lock4j;
+import com.baomidou.lock.annotation.LockMode;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.lang.Nullable;
+
+/**
+ * <p>加锁时的附加选项，由{@link LockTemplate}透传给执行器，执行器可以忽略不支持的选项。
+ *
+ * @see com.baomidou.lock.executor.LockExecutor#acquire(String, String, long, long, LockOptions)
+ */
+@Getter
+@Builder
+public class LockOptions {
+
+    /**
+     * 默认选项
+     */
+    public static final LockOptions DEFAULT = LockOptions.builder().build();
+
+    /**
+     * 是否公平获取锁，为{@code null}时使用执行器的默认配置
+     */
+    @Nullable
+    private final Boolean fair;
+
+    /**
+     * 锁的模式，不支持读写锁的执行器总是以独占的方式加锁
+     */
+    @Builder.Default
+    private final LockMode mode = LockMode.WRITE;
+
+    /**
+     * 许可数量，即同一个key最多可以同时被多少个调用方持有，不支持信号量的执行器总是以独占的方式加锁
+     */
+    @Builder.Default
+    private final int permits = 1;
+
+    /**
+     * 根据注解创建选项
+     *
+     * @param annotation 注解
+     * @return 选项
+     */
+    public static LockOptions from(Lock4j annotation) {
+        Fairness fairness = annotation.fairness();
+        if (fairness == Fairness.DEFAULT && annotation.mode() == LockMode.WRITE && annotation.permits() == 1) {
+            return DEFAULT;
+        }
+        return LockOptions.builder()
+            .fair(fairness == Fairness.DEFAULT ? null : fairness == Fairness.FAIR)
+            .mode(annotation.mode())
+            .permits(annotation.permits())
+            .build();
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>锁释放通知器，用于在锁被释放时唤醒当前节点内正在等待同一个key的竞争者。
+ *
+ * <p>获取锁失败的线程通过{@link #subscribe}订阅key的释放事件，并在重试前调用{@link Subscription#await}等待，
+ * 当锁被释放时，释放方（本地的{@link LockTemplate#releaseLock}或来自其他节点的远程通知）调用{@link #signal}即可提前唤醒它们。
+ * 若等待期间未收到任何通知（比如锁因过期而被动释放），线程将在超时后照常重试。
+ */
+public class LockReleaseNotifier {
+
+    /**
+     * 正在等待的key及其等待者
+     */
+    private final ConcurrentMap<String, Waiters> waitersMap = new ConcurrentHashMap<>();
+
+    /**
+     * 订阅指定key的释放事件，使用完毕后必须调用{@link Subscription#close()}取消订阅
+     *
+     * @param key 锁key
+     * @return 订阅
+     */
+    public Subscription subscribe(String key) {
+        Waiters waiters = waitersMap.compute(key, (k, current) -> {
+            Waiters w = null == current ? new Waiters() : current;
+            w.subscribers++;
+            return w;
+        });
+        return new Subscription(key, waiters, null);
+    }
+
+    /**
+     * 订阅多个key的释放事件，任意一个key被释放时都将唤醒等待者，用于批量加锁。
+     * 使用完毕后必须调用{@link Subscription#close()}取消订阅
+     *
+     * @param keys 锁key
+     * @return 订阅
+     */
+    public Subscription subscribe(Collection<String> keys) {
+        Waiters own = new Waiters();
+        for (String key : keys) {
+            waitersMap.compute(key, (k, current) -> {
+                Waiters w = null == current ? new Waiters() : current;
+                w.subscribers++;
+                w.link(own);
+                return w;
+            });
+        }
+        return new Subscription(null, own, keys);
+    }
+
+    /**
+     * 通知当前节点内等待该key的所有竞争者锁已被释放
+     *
+     * @param key 锁key
+     */
+    public void signal(String key) {
+        Waiters waiters = waitersMap.get(key);
+        if (null != waiters) {
+            waiters.signalAll();
+        }
+    }
+
+    /**
+     * 获取当前正在等待的key数量
+     *
+     * @return 数量
+     */
+    public int getWaitingKeyCount() {
+        return waitersMap.size();
+    }
+
+    private void unsubscribe(String key) {
+        waitersMap.computeIfPresent(key, (k, current) -> --current.subscribers == 0 ? null : current);
+    }
+
+    private void unsubscribe(String key, Waiters linked) {
+        waitersMap.computeIfPresent(key, (k, current) -> {
+            current.unlink(linked);
+            return --current.subscribers == 0 ? null : current;
+        });
+    }
+
+    /**
+     * 同一个key的等待者
+     */
+    private static class Waiters {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        /**
+         * 订阅数，仅在{@link ConcurrentMap#compute}中修改
+         */
+        private int subscribers;
+        /**
+         * 释放次数，用于判断订阅后是否已经收到过通知，避免丢失唤醒
+         */
+        private volatile long generation;
+        /**
+         * 同时订阅了多个key的等待者，该key被释放时一并唤醒，仅在{@link ConcurrentMap#compute}中修改
+         */
+        private volatile Set<Waiters> linked;
+
+        void link(Waiters waiters) {
+            if (null == linked) {
+                linked = new CopyOnWriteArraySet<>();
+            }
+            linked.add(waiters);
+        }
+
+        void unlink(Waiters waiters) {
+            if (null != linked) {
+                linked.remove(waiters);
+            }
+        }
+
+        void signalAll() {
+            lock.lock();
+            try {
+                generation++;
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            Set<Waiters> current = linked;
+            if (null != current) {
+                current.forEach(Waiters::signalAll);
+            }
+        }
+    }
+
+    /**
+     * 对某个key或多个key释放事件的订阅
+     */
+    public class Subscription implements AutoCloseable {
+
+        private final String key;
+        private final Waiters waiters;
+        /**
+         * 订阅了多个key时为这些key，否则为{@code null}
+         */
+        private final Collection<String> keys;
+        private long observedGeneration;
+
+        Subscription(String key, Waiters waiters, Collection<String> keys) {
+            this.key = key;
+            this.waiters = waiters;
+            this.keys = keys;
+            this.observedGeneration = waiters.generation;
+        }
+
+        /**
+         * 等待锁释放通知，直到收到通知或超时
+         *
+         * @param timeout 最长等待时间，单位毫秒
+         * @return 是否收到了释放通知
+         * @throws InterruptedException 等待时被中断
+         */
+        public boolean await(long timeout) throws InterruptedException {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+            waiters.lock.lock();
+            try {
+                while (waiters.generation == observedGeneration) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = waiters.released.awaitNanos(nanos);
+                }
+                observedGeneration = waiters.generation;
+                return true;
+            } finally {
+                waiters.lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (null == keys) {
+                unsubscribe(key);
+                return;
+            }
+            for (String k : keys) {
+                unsubscribe(k, waiters);
+            }
+        }
+    }
+}
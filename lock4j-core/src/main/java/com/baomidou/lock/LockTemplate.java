@@ -17,18 +17,26 @@
 package com.baomidou.lock;
 
 import com.baomidou.lock.exception.LockException;
+import com.baomidou.lock.exception.LockFailureException;
+import com.baomidou.lock.executor.AsyncLockExecutor;
+import com.baomidou.lock.executor.BatchLockExecutor;
 import com.baomidou.lock.executor.LockExecutor;
 import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
 import com.baomidou.lock.util.LockUtil;
+import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.TreeSet;
+import java.util.concurrent.*;
 
 
 /**
@@ -40,15 +48,35 @@ import java.util.concurrent.TimeUnit;
  */
 @SuppressWarnings("rawtypes")
 @Slf4j
-public class LockTemplate implements InitializingBean {
+public class LockTemplate implements InitializingBean, DisposableBean {
 
     private final Map<Class<? extends LockExecutor>, LockExecutor> executorMap = new LinkedHashMap<>();
+    private final Map<Class<? extends RetryPolicy>, RetryPolicy> retryPolicyMap = new LinkedHashMap<>();
     @Setter
     private Lock4jProperties properties;
     @Setter
     private List<LockExecutor> executors;
+    @Setter
+    private List<RetryPolicy> retryPolicies;
+    @Setter
+    private LockReleaseNotifier releaseNotifier;
+    /**
+     * 用于执行{@link #executeAsync}提交的加锁任务，为空时使用{@link ForkJoinPool#commonPool()}，
+     * 开启虚拟线程模式后为每个任务启动一个虚拟线程
+     */
+    @Setter
+    private Executor taskExecutor;
+    @Getter
+    @Setter
+    private LockMetricsRecorder metricsRecorder = LockMetricsRecorder.NONE;
 
     private LockExecutor primaryExecutor;
+    private RetryPolicy primaryRetryPolicy;
+
+    /**
+     * 异步加锁时用于调度重试的线程，首次需要重试时才创建
+     */
+    private volatile ScheduledExecutorService asyncRetryScheduler;
 
     public LockTemplate() {
     }
@@ -71,38 +99,532 @@ public class LockTemplate implements InitializingBean {
      * @return 加锁成功返回锁信息 失败返回null
      */
     public LockInfo lock(String key, long expire, long acquireTimeout, Class<? extends LockExecutor> executor) {
-        acquireTimeout = acquireTimeout < 0 ? properties.getAcquireTimeout() : acquireTimeout;
-        long retryInterval = properties.getRetryInterval();
+        return lock(key, expire, acquireTimeout, executor, null);
+    }
+
+    /**
+     * 加锁方法
+     *
+     * @param key            锁key 同一个key只能被一个客户端持有
+     * @param expire         过期时间(ms) 防止死锁
+     * @param acquireTimeout 尝试获取锁超时时间(ms)
+     * @param executor       执行器
+     * @param retryPolicy    重试策略
+     * @return 加锁成功返回锁信息 失败返回null
+     */
+    public LockInfo lock(String key, long expire, long acquireTimeout, Class<? extends LockExecutor> executor,
+                         Class<? extends RetryPolicy> retryPolicy) {
+        return lock(key, null, expire, acquireTimeout, executor, retryPolicy);
+    }
+
+    /**
+     * 获取许可，同一个key最多可以同时被{@code permits}个调用方持有，通过{@link #releaseLock}归还
+     *
+     * @param key            许可key
+     * @param permits        许可数量
+     * @param expire         过期时间(ms) 防止许可泄漏
+     * @param acquireTimeout 尝试获取许可超时时间(ms)
+     * @param executor       执行器，需要支持信号量，否则将以独占的方式加锁
+     * @return 获取成功返回锁信息 失败返回null
+     * @see com.baomidou.lock.executor.LocalSemaphoreExecutor
+     */
+    public LockInfo acquirePermit(String key, int permits, long expire, long acquireTimeout,
+                                  Class<? extends LockExecutor> executor) {
+        Assert.isTrue(permits > 0, "permits must be greater than 0");
+        return lock(key, null, expire, acquireTimeout, executor, null, LockOptions.builder().permits(permits).build());
+    }
+
+    /**
+     * 加锁方法
+     *
+     * @param key            锁key 同一个key只能被一个客户端持有
+     * @param name           锁名称，用于统计指标，为空时为{@link LockMetricsRecorder#UNNAMED}
+     * @param expire         过期时间(ms) 防止死锁
+     * @param acquireTimeout 尝试获取锁超时时间(ms)
+     * @param executor       执行器
+     * @param retryPolicy    重试策略
+     * @return 加锁成功返回锁信息 失败返回null
+     */
+    public LockInfo lock(String key, String name, long expire, long acquireTimeout,
+                         Class<? extends LockExecutor> executor, Class<? extends RetryPolicy> retryPolicy) {
+        return lock(key, name, expire, acquireTimeout, executor, retryPolicy, LockOptions.DEFAULT);
+    }
+
+    /**
+     * 加锁方法
+     *
+     * @param key            锁key 同一个key只能被一个客户端持有
+     * @param name           锁名称，用于统计指标，为空时为{@link LockMetricsRecorder#UNNAMED}
+     * @param expire         过期时间(ms) 防止死锁
+     * @param acquireTimeout 尝试获取锁超时时间(ms)
+     * @param executor       执行器
+     * @param retryPolicy    重试策略
+     * @param options        加锁选项
+     * @return 加锁成功返回锁信息 失败返回null
+     */
+    public LockInfo lock(String key, String name, long expire, long acquireTimeout,
+                         Class<? extends LockExecutor> executor, Class<? extends RetryPolicy> retryPolicy,
+                         LockOptions options) {
+        return doLock(key, null, name, expire, acquireTimeout, obtainExecutor(executor), retryPolicy, options);
+    }
+
+    public LockInfo lockAll(Collection<String> keys, long expire, long acquireTimeout,
+                            Class<? extends LockExecutor> executor) {
+        return lockAll(keys, null, expire, acquireTimeout, executor, null);
+    }
+
+    /**
+     * <p>同时对多个key加锁，要么全部加锁成功，要么全部失败。
+     *
+     * <p>key将按字典序排序并去重，因此不同调用方对相同的一组key加锁时不会因为加锁顺序不同而死锁。
+     * 执行器实现了{@link BatchLockExecutor}且支持对这些key批量加锁时，每次尝试都通过一次调用对所有key加锁，
+     * 否则按顺序逐个加锁，任意一个key获取失败时释放已经获取的锁。
+     *
+     * @param keys           锁key
+     * @param name           锁名称，用于统计指标，为空时为{@link LockMetricsRecorder#UNNAMED}
+     * @param expire         过期时间(ms) 防止死锁
+     * @param acquireTimeout 尝试获取全部锁的超时时间(ms)
+     * @param executor       执行器
+     * @param retryPolicy    重试策略
+     * @return 加锁成功返回锁信息，多个key时为{@link MultiLockInfo}，通过{@link #releaseLock}一并释放 失败返回null
+     */
+    public LockInfo lockAll(Collection<String> keys, String name, long expire, long acquireTimeout,
+                            Class<? extends LockExecutor> executor, Class<? extends RetryPolicy> retryPolicy) {
+        Assert.notEmpty(keys, "keys must not be empty");
+        List<String> lockKeys = new ArrayList<>(new TreeSet<>(keys));
+        if (lockKeys.size() == 1) {
+            return lock(lockKeys.get(0), name, expire, acquireTimeout, executor, retryPolicy);
+        }
         LockExecutor lockExecutor = obtainExecutor(executor);
+        if (lockExecutor instanceof BatchLockExecutor && ((BatchLockExecutor<?>) lockExecutor).isBatchSupported(lockKeys)) {
+            return doLock(String.join(",", lockKeys), lockKeys, name, expire, acquireTimeout, lockExecutor,
+                    retryPolicy, LockOptions.DEFAULT);
+        }
+        return lockEach(lockKeys, name, expire, acquireTimeout, executor, retryPolicy);
+    }
+
+    /**
+     * 按顺序逐个加锁，任意一个key获取失败时释放已经获取的锁
+     */
+    private LockInfo lockEach(List<String> lockKeys, String name, long expire, long acquireTimeout,
+                              Class<? extends LockExecutor> executor, Class<? extends RetryPolicy> retryPolicy) {
+        acquireTimeout = acquireTimeout < 0 ? properties.getAcquireTimeout() : acquireTimeout;
+        long start = System.currentTimeMillis();
+        List<LockInfo> locks = new ArrayList<>(lockKeys.size());
+        boolean locked = false;
+        try {
+            for (String key : lockKeys) {
+                long remaining = Math.max(acquireTimeout - (System.currentTimeMillis() - start), 0);
+                LockInfo lockInfo = lock(key, name, expire, remaining, executor, retryPolicy);
+                if (null == lockInfo) {
+                    return null;
+                }
+                locks.add(lockInfo);
+            }
+            locked = true;
+        } finally {
+            if (!locked) {
+                releaseEach(locks);
+            }
+        }
+        LockInfo first = locks.get(0);
+        int acquireCount = 0;
+        long fencingToken = LockExecutor.NO_FENCING_TOKEN;
+        for (LockInfo lockInfo : locks) {
+            acquireCount += lockInfo.getAcquireCount();
+            // 最后获取的锁的token是在持有所有锁期间得到的，因此执行器中所有key共用计数器时，最大的token对所有key均有效；
+            // 每个key各自拥有计数器时则只能通过MultiLockInfo#locks获取每个key各自的token
+            fencingToken = Math.max(fencingToken, lockInfo.getFencingToken());
+        }
+        return new MultiLockInfo(lockKeys, first.getLockValue(), first.getExpire(), acquireTimeout, acquireCount,
+                null, first.getLockExecutor(), System.currentTimeMillis(), first.getRetryPolicy(), first.getName(),
+                fencingToken, locks);
+    }
+
+    /**
+     * 按加锁的相反顺序逐个释放锁
+     *
+     * @param locks 锁信息
+     * @return 是否全部释放成功
+     */
+    private boolean releaseEach(List<LockInfo> locks) {
+        boolean released = true;
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            released &= releaseLock(locks.get(i));
+        }
+        return released;
+    }
+
+    /**
+     * 加锁方法
+     *
+     * @param key            锁key，批量加锁时为以逗号拼接的所有key
+     * @param lockKeys       批量加锁时的锁key，否则为null
+     * @param name           锁名称
+     * @param expire         过期时间(ms)
+     * @param acquireTimeout 尝试获取锁超时时间(ms)
+     * @param lockExecutor   执行器
+     * @param retryPolicy    重试策略
+     * @param options        加锁选项
+     * @return 加锁成功返回锁信息 失败返回null
+     */
+    @SuppressWarnings("unchecked")
+    private LockInfo doLock(String key, List<String> lockKeys, String name, long expire, long acquireTimeout,
+                            LockExecutor lockExecutor, Class<? extends RetryPolicy> retryPolicy, LockOptions options) {
+        String lockName = null == name ? LockMetricsRecorder.UNNAMED : name;
+        acquireTimeout = acquireTimeout < 0 ? properties.getAcquireTimeout() : acquireTimeout;
+        RetryPolicy lockRetryPolicy = obtainRetryPolicy(retryPolicy);
+        long retryInterval = 0;
         log.debug(String.format("use lock class: %s", lockExecutor.getClass()));
         expire = !lockExecutor.renewal() && expire <= 0 ? properties.getExpire() : expire;
         int acquireCount = 0;
         String value = LockUtil.simpleUUID();
         long start = System.currentTimeMillis();
+        long begin = System.nanoTime();
+        LockReleaseNotifier.Subscription subscription = null;
         try {
             do {
                 acquireCount++;
-                Object lockInstance = lockExecutor.acquire(key, value, expire, acquireTimeout);
+                Object lockInstance = null == lockKeys
+                        ? lockExecutor.acquire(key, value, expire, acquireTimeout, options)
+                        : ((BatchLockExecutor<Object>) lockExecutor).acquireAll(lockKeys, value, expire, acquireTimeout);
                 if (null != lockInstance) {
-                    return new LockInfo(key, value, expire, acquireTimeout, acquireCount, lockInstance,
-                            lockExecutor);
+                    metricsRecorder.recordAcquire(lockExecutor, lockName, true, acquireCount, System.nanoTime() - begin);
+                    LockInfo lockInfo = null == lockKeys
+                            ? new LockInfo(key, value, expire, acquireTimeout, acquireCount, lockInstance,
+                            lockExecutor, System.currentTimeMillis(), lockRetryPolicy, false, lockName)
+                            : new MultiLockInfo(lockKeys, value, expire, acquireTimeout, acquireCount, lockInstance,
+                            lockExecutor, System.currentTimeMillis(), lockRetryPolicy, lockName,
+                            LockExecutor.NO_FENCING_TOKEN, null);
+                    if (properties.isFencingToken()) {
+                        lockInfo.setFencingToken(obtainFencingToken(lockInfo));
+                    }
+                    return lockInfo;
+                }
+                long remaining = acquireTimeout - (System.currentTimeMillis() - start);
+                if (remaining <= 0) {
+                    break;
                 }
-                TimeUnit.MILLISECONDS.sleep(retryInterval);
+                // 等待时间不超过剩余的超时时间
+                retryInterval = Math.min(Math.max(lockRetryPolicy.nextInterval(lockName, acquireCount, retryInterval), 0),
+                        remaining);
+                // 首次获取失败后才订阅释放通知，避免无竞争时产生额外开销，批量加锁时订阅所有key
+                if (null == subscription && null != releaseNotifier) {
+                    subscription = null == lockKeys ? releaseNotifier.subscribe(key) : releaseNotifier.subscribe(lockKeys);
+                }
+                awaitRetry(subscription, retryInterval);
             } while (System.currentTimeMillis() - start < acquireTimeout);
         } catch (InterruptedException e) {
+            metricsRecorder.recordAcquire(lockExecutor, lockName, false, acquireCount, System.nanoTime() - begin);
             log.error("lock error", e);
             throw new LockException();
+        } finally {
+            if (null != subscription) {
+                subscription.close();
+            }
         }
+        metricsRecorder.recordAcquire(lockExecutor, lockName, false, acquireCount, System.nanoTime() - begin);
         return null;
     }
 
+    /**
+     * 等待下一次重试，若开启了释放通知，则在收到锁释放通知时提前唤醒
+     *
+     * @param subscription  锁释放通知订阅，为空时直接休眠
+     * @param retryInterval 重试间隔(ms)
+     * @throws InterruptedException 等待时被中断
+     */
+    private void awaitRetry(LockReleaseNotifier.Subscription subscription, long retryInterval)
+            throws InterruptedException {
+        if (null == subscription) {
+            TimeUnit.MILLISECONDS.sleep(retryInterval);
+            return;
+        }
+        subscription.await(retryInterval);
+    }
+
+    /**
+     * 获取锁的fencing token，获取失败时释放刚刚获取的锁
+     *
+     * @param lockInfo 锁信息
+     * @return fencing token
+     */
+    @SuppressWarnings("unchecked")
+    private long obtainFencingToken(LockInfo lockInfo) {
+        try {
+            if (lockInfo instanceof MultiLockInfo) {
+                return ((BatchLockExecutor<Object>) lockInfo.getLockExecutor())
+                        .getFencingToken(((MultiLockInfo) lockInfo).getLockKeys(), lockInfo.getLockInstance());
+            }
+            return lockInfo.getLockExecutor().getFencingToken(lockInfo.getLockKey(), lockInfo.getLockInstance());
+        } catch (RuntimeException e) {
+            releaseLock(lockInfo);
+            throw e;
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public boolean releaseLock(LockInfo lockInfo) {
         if (null == lockInfo) {
             return false;
         }
-        return lockInfo.getLockExecutor().releaseLock(lockInfo.getLockKey(), lockInfo.getLockValue(),
-                lockInfo.getLockInstance());
+        if (lockInfo instanceof MultiLockInfo) {
+            return releaseAll((MultiLockInfo) lockInfo);
+        }
+        // 异步获取的锁只能通过异步方式释放
+        if (lockInfo.isAsync()) {
+            try {
+                return releaseAsync(lockInfo).toCompletableFuture().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("release lock error", e);
+                throw new LockException();
+            } catch (ExecutionException e) {
+                log.error("release lock error", e.getCause());
+                throw new LockException();
+            }
+        }
+        boolean released = false;
+        try {
+            released = lockInfo.getLockExecutor().releaseLock(lockInfo.getLockKey(), lockInfo.getLockValue(),
+                    lockInfo.getLockInstance());
+        } finally {
+            afterRelease(lockInfo, released);
+        }
+        return released;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean releaseAll(MultiLockInfo lockInfo) {
+        if (null != lockInfo.getLocks()) {
+            return releaseEach(lockInfo.getLocks());
+        }
+        boolean released = false;
+        try {
+            released = ((BatchLockExecutor<Object>) lockInfo.getLockExecutor()).releaseAll(lockInfo.getLockKeys(),
+                    lockInfo.getLockValue(), lockInfo.getLockInstance());
+        } finally {
+            afterRelease(lockInfo, released);
+        }
+        return released;
+    }
+
+    public CompletionStage<LockInfo> lockAsync(String key) {
+        return lockAsync(key, 0, -1);
+    }
+
+    public CompletionStage<LockInfo> lockAsync(String key, long expire, long acquireTimeout) {
+        return lockAsync(key, expire, acquireTimeout, null, null);
+    }
+
+    /**
+     * <p>异步加锁方法，加锁及重试等待期间均不会阻塞当前线程。
+     *
+     * <p>若执行器不支持异步加解锁(见{@link #isAsyncSupported})，则直接以{@link IllegalStateException}结束，
+     * 而不是在当前线程上同步加锁：调用方可能是事件循环线程，同步加锁及重试等待将阻塞它。
+     * 只支持同步加锁的执行器可以通过{@link #executeAsync}在{@link #taskExecutor}上加锁并执行任务。
+     *
+     * @param key            锁key 同一个key只能被一个客户端持有
+     * @param expire         过期时间(ms) 防止死锁
+     * @param acquireTimeout 尝试获取锁超时时间(ms)
+     * @param executor       执行器
+     * @param retryPolicy    重试策略
+     * @return 加锁成功时结果为锁信息 失败时结果为null
+     */
+    public CompletionStage<LockInfo> lockAsync(String key, long expire, long acquireTimeout,
+                                               Class<? extends LockExecutor> executor,
+                                               Class<? extends RetryPolicy> retryPolicy) {
+        return lockAsync(key, null, expire, acquireTimeout, executor, retryPolicy);
+    }
+
+    /**
+     * 异步加锁方法
+     *
+     * @param key            锁key 同一个key只能被一个客户端持有
+     * @param name           锁名称，用于统计指标，为空时为{@link LockMetricsRecorder#UNNAMED}
+     * @param expire         过期时间(ms) 防止死锁
+     * @param acquireTimeout 尝试获取锁超时时间(ms)
+     * @param executor       执行器
+     * @param retryPolicy    重试策略
+     * @return 加锁成功时结果为锁信息 失败时结果为null
+     * @see #lockAsync(String, long, long, Class, Class)
+     */
+    public CompletionStage<LockInfo> lockAsync(String key, String name, long expire, long acquireTimeout,
+                                               Class<? extends LockExecutor> executor,
+                                               Class<? extends RetryPolicy> retryPolicy) {
+        return lockAsync(key, name, expire, acquireTimeout, executor, retryPolicy, LockOptions.DEFAULT);
+    }
+
+    /**
+     * 异步加锁方法
+     *
+     * @param key            锁key 同一个key只能被一个客户端持有
+     * @param name           锁名称，用于统计指标，为空时为{@link LockMetricsRecorder#UNNAMED}
+     * @param expire         过期时间(ms) 防止死锁
+     * @param acquireTimeout 尝试获取锁超时时间(ms)
+     * @param executor       执行器
+     * @param retryPolicy    重试策略
+     * @param options        加锁选项
+     * @return 加锁成功时结果为锁信息 失败时结果为null
+     * @see #lockAsync(String, long, long, Class, Class)
+     */
+    public CompletionStage<LockInfo> lockAsync(String key, String name, long expire, long acquireTimeout,
+                                               Class<? extends LockExecutor> executor,
+                                               Class<? extends RetryPolicy> retryPolicy,
+                                               LockOptions options) {
+        LockExecutor lockExecutor = obtainExecutor(executor);
+        if (!isAsyncSupported(lockExecutor)) {
+            CompletableFuture<LockInfo> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException(
+                    "Lock executor does not support async lock: " + lockExecutor.getClass().getName()));
+            return future;
+        }
+        acquireTimeout = acquireTimeout < 0 ? properties.getAcquireTimeout() : acquireTimeout;
+        expire = !lockExecutor.renewal() && expire <= 0 ? properties.getExpire() : expire;
+        AsyncAcquisition acquisition = new AsyncAcquisition(key, null == name ? LockMetricsRecorder.UNNAMED : name,
+                expire, acquireTimeout, lockExecutor, obtainRetryPolicy(retryPolicy), options);
+        acquisition.attempt();
+        return acquisition.result;
+    }
+
+    /**
+     * 异步释放锁，通过同步方式获取的锁将在当前线程上同步释放
+     *
+     * @param lockInfo 锁信息
+     * @return 是否释放成功
+     */
+    @SuppressWarnings("unchecked")
+    public CompletionStage<Boolean> releaseAsync(LockInfo lockInfo) {
+        if (null == lockInfo) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (!lockInfo.isAsync()) {
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            try {
+                future.complete(releaseLock(lockInfo));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        AsyncLockExecutor<Object> lockExecutor = (AsyncLockExecutor<Object>) lockInfo.getLockExecutor();
+        return lockExecutor.releaseLockAsync(lockInfo.getLockKey(), lockInfo.getLockValue(), lockInfo.getLockInstance())
+                .thenApply(Boolean.TRUE::equals)
+                .whenComplete((released, e) -> afterRelease(lockInfo, null == e && released));
+    }
+
+    public <T> CompletableFuture<T> executeAsync(String key, Callable<T> task) {
+        return executeAsync(key, 0, -1, null, null, task);
+    }
+
+    public <T> CompletableFuture<T> executeAsync(String key, long expire, long acquireTimeout, Callable<T> task) {
+        return executeAsync(key, expire, acquireTimeout, null, null, task);
+    }
+
+    /**
+     * <p>在{@link #taskExecutor}上加锁执行任务，任务结束后释放锁。
+     *
+     * <p>加锁、任务执行与解锁均在同一个线程上完成，因此可以使用任意执行器。
+     * 开启虚拟线程模式后，等待锁期间只会挂起虚拟线程而不会占用平台线程。
+     *
+     * @param key            锁key 同一个key只能被一个客户端持有
+     * @param expire         过期时间(ms) 防止死锁
+     * @param acquireTimeout 尝试获取锁超时时间(ms)
+     * @param executor       执行器
+     * @param retryPolicy    重试策略
+     * @param task           持有锁期间执行的任务
+     * @return 任务结果，获取锁失败时以{@link LockFailureException}异常结束
+     */
+    public <T> CompletableFuture<T> executeAsync(String key, long expire, long acquireTimeout,
+                                                 Class<? extends LockExecutor> executor,
+                                                 Class<? extends RetryPolicy> retryPolicy, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable command = () -> {
+            try {
+                LockInfo lockInfo = lock(key, expire, acquireTimeout, executor, retryPolicy);
+                if (null == lockInfo) {
+                    throw new LockFailureException("acquire lock timeout, lockKey=" + key);
+                }
+                T result;
+                LockInfo previous = LockContextHolder.set(lockInfo);
+                try {
+                    result = task.call();
+                } finally {
+                    LockContextHolder.restore(previous);
+                    releaseLock(lockInfo);
+                }
+                // 释放锁后再通知调用方，以免调用方在锁释放前再次竞争同一个key
+                future.complete(result);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        try {
+            (null == taskExecutor ? ForkJoinPool.commonPool() : taskExecutor).execute(command);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void afterRelease(LockInfo lockInfo, boolean released) {
+        String lockName = null == lockInfo.getName() ? LockMetricsRecorder.UNNAMED : lockInfo.getName();
+        long holdTime = System.currentTimeMillis() - lockInfo.getAcquireTime();
+        metricsRecorder.recordRelease(lockInfo.getLockExecutor(), lockName, released, holdTime);
+        if (released && null != releaseNotifier) {
+            if (lockInfo instanceof MultiLockInfo) {
+                ((MultiLockInfo) lockInfo).getLockKeys().forEach(releaseNotifier::signal);
+            } else {
+                releaseNotifier.signal(lockInfo.getLockKey());
+            }
+        }
+        if (released && null != lockInfo.getRetryPolicy()) {
+            lockInfo.getRetryPolicy().onReleased(lockName, holdTime);
+        }
+    }
+
+    /**
+     * 获取锁失败，交由失败策略处理时记录指标
+     *
+     * @param executor            执行器
+     * @param lockFailureStrategy 失败策略
+     * @param name                锁名称
+     * @see LockMetricsRecorder#recordLockFailure
+     */
+    public void recordLockFailure(Class<? extends LockExecutor> executor, LockFailureStrategy lockFailureStrategy,
+                                  String name) {
+        metricsRecorder.recordLockFailure(obtainExecutor(executor), lockFailureStrategy, name);
+    }
+
+    /**
+     * 执行器是否支持异步加解锁
+     *
+     * @param executor 执行器
+     * @return 是否支持
+     */
+    public boolean isAsyncSupported(Class<? extends LockExecutor> executor) {
+        return isAsyncSupported(obtainExecutor(executor));
+    }
+
+    private boolean isAsyncSupported(LockExecutor lockExecutor) {
+        return lockExecutor instanceof AsyncLockExecutor && ((AsyncLockExecutor<?>) lockExecutor).isAsyncSupported();
+    }
+
+    private ScheduledExecutorService obtainAsyncRetryScheduler() {
+        ScheduledExecutorService scheduler = asyncRetryScheduler;
+        if (null != scheduler) {
+            return scheduler;
+        }
+        synchronized (this) {
+            if (null == asyncRetryScheduler) {
+                asyncRetryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "lock4j-async-retry");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return asyncRetryScheduler;
+        }
     }
 
     protected LockExecutor obtainExecutor(Class<? extends LockExecutor> clazz) {
@@ -114,6 +636,15 @@ public class LockTemplate implements InitializingBean {
         return lockExecutor;
     }
 
+    protected RetryPolicy obtainRetryPolicy(Class<? extends RetryPolicy> clazz) {
+        if (null == clazz || clazz == RetryPolicy.class) {
+            return primaryRetryPolicy;
+        }
+        final RetryPolicy retryPolicy = retryPolicyMap.get(clazz);
+        Assert.notNull(retryPolicy, String.format("can not get bean type of %s", clazz));
+        return retryPolicy;
+    }
+
     @Override
     public void afterPropertiesSet() throws Exception {
 
@@ -134,5 +665,134 @@ public class LockTemplate implements InitializingBean {
             this.primaryExecutor = executorMap.get(primaryExecutor);
             Assert.notNull(this.primaryExecutor, "primaryExecutor must be not null");
         }
+
+        if (null != retryPolicies) {
+            for (RetryPolicy retryPolicy : retryPolicies) {
+                retryPolicyMap.put(retryPolicy.getClass(), retryPolicy);
+            }
+        }
+        // 未指定默认重试策略时，按固定间隔重试
+        retryPolicyMap.putIfAbsent(FixedRetryPolicy.class, new FixedRetryPolicy(properties.getRetryInterval()));
+        final Class<? extends RetryPolicy> primaryRetryPolicy = properties.getPrimaryRetryPolicy();
+        this.primaryRetryPolicy = retryPolicyMap.get(null == primaryRetryPolicy ? FixedRetryPolicy.class : primaryRetryPolicy);
+        Assert.notNull(this.primaryRetryPolicy, "primaryRetryPolicy must be not null");
+    }
+
+    @Override
+    public void destroy() {
+        ScheduledExecutorService scheduler = asyncRetryScheduler;
+        if (null != scheduler) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 一次异步加锁过程，获取失败时按重试策略调度下一次尝试，直到成功或超时
+     */
+    private class AsyncAcquisition {
+
+        private final CompletableFuture<LockInfo> result = new CompletableFuture<>();
+        private final String key;
+        private final String name;
+        private final String value = LockUtil.simpleUUID();
+        private final long expire;
+        private final long acquireTimeout;
+        private final LockExecutor lockExecutor;
+        private final RetryPolicy retryPolicy;
+        private final LockOptions options;
+        private final long start = System.currentTimeMillis();
+        private final long begin = System.nanoTime();
+        private int acquireCount;
+        private long retryInterval;
+
+        AsyncAcquisition(String key, String name, long expire, long acquireTimeout, LockExecutor lockExecutor,
+                         RetryPolicy retryPolicy, LockOptions options) {
+            this.key = key;
+            this.name = name;
+            this.expire = expire;
+            this.acquireTimeout = acquireTimeout;
+            this.lockExecutor = lockExecutor;
+            this.retryPolicy = retryPolicy;
+            this.options = options;
+        }
+
+        @SuppressWarnings("unchecked")
+        void attempt() {
+            // 调用方已取消
+            if (result.isDone()) {
+                return;
+            }
+            acquireCount++;
+            CompletionStage<Object> stage;
+            try {
+                stage = ((AsyncLockExecutor<Object>) lockExecutor).acquireAsync(key, value, expire, acquireTimeout, options);
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            stage.whenComplete((lockInstance, ex) -> {
+                if (null != ex) {
+                    result.completeExceptionally(ex);
+                } else if (null != lockInstance) {
+                    onAcquired(lockInstance);
+                } else {
+                    scheduleRetry();
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private void onAcquired(Object lockInstance) {
+            metricsRecorder.recordAcquire(lockExecutor, name, true, acquireCount, System.nanoTime() - begin);
+            LockInfo lockInfo = new LockInfo(key, value, expire, acquireTimeout, acquireCount, lockInstance,
+                    lockExecutor, System.currentTimeMillis(), retryPolicy, true, name);
+            if (!properties.isFencingToken()) {
+                complete(lockInfo);
+                return;
+            }
+            CompletionStage<Long> stage;
+            try {
+                stage = ((AsyncLockExecutor<Object>) lockExecutor).getFencingTokenAsync(key, lockInstance);
+            } catch (Exception e) {
+                onFencingTokenFailure(lockInfo, e);
+                return;
+            }
+            stage.whenComplete((fencingToken, ex) -> {
+                if (null != ex) {
+                    onFencingTokenFailure(lockInfo, ex);
+                    return;
+                }
+                lockInfo.setFencingToken(fencingToken);
+                complete(lockInfo);
+            });
+        }
+
+        private void complete(LockInfo lockInfo) {
+            // 调用方已取消，释放刚刚获取的锁
+            if (!result.complete(lockInfo)) {
+                releaseAsync(lockInfo);
+            }
+        }
+
+        private void onFencingTokenFailure(LockInfo lockInfo, Throwable ex) {
+            releaseAsync(lockInfo);
+            result.completeExceptionally(ex);
+        }
+
+        private void scheduleRetry() {
+            long remaining = acquireTimeout - (System.currentTimeMillis() - start);
+            if (remaining <= 0) {
+                metricsRecorder.recordAcquire(lockExecutor, name, false, acquireCount, System.nanoTime() - begin);
+                result.complete(null);
+                return;
+            }
+            // 等待时间不超过剩余的超时时间
+            retryInterval = Math.min(Math.max(retryPolicy.nextInterval(name, acquireCount, retryInterval), 0), remaining);
+            try {
+                obtainAsyncRetryScheduler().schedule(this::attempt, retryInterval, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        }
     }
 }
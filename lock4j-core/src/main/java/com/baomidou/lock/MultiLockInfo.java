@@ -0,0 +1,53 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+import com.baomidou.lock.executor.LockExecutor;
+import lombok.Getter;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * 通过{@link LockTemplate#lockAll}同时对多个key加锁得到的锁信息，{@link LockInfo#lockKey}为以逗号拼接的所有key
+ *
+ * @see LockTemplate#lockAll
+ */
+@Getter
+public class MultiLockInfo extends LockInfo {
+
+    /**
+     * 排序并去重后的锁key
+     */
+    private final List<String> lockKeys;
+
+    /**
+     * 执行器不支持批量加锁时，按顺序逐个获取的锁，批量加锁时为{@code null}。
+     * 执行器的每个key各自拥有fencing token计数器时，应当使用其中每个锁各自的fencing token
+     */
+    @Nullable
+    private final List<LockInfo> locks;
+
+    public MultiLockInfo(List<String> lockKeys, String lockValue, Long expire, Long acquireTimeout, int acquireCount,
+                         Object lockInstance, LockExecutor lockExecutor, long acquireTime, RetryPolicy retryPolicy,
+                         String name, long fencingToken, @Nullable List<LockInfo> locks) {
+        super(String.join(",", lockKeys), lockValue, expire, acquireTimeout, acquireCount, lockInstance, lockExecutor,
+                acquireTime, retryPolicy, false, name, fencingToken);
+        this.lockKeys = lockKeys;
+        this.locks = locks;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock;
+
+/**
+ * <p>获取锁失败时的重试策略，用于决定下一次重试前需要等待的时间。
+ *
+ * <p>当大量客户端竞争同一个key时，固定的重试间隔会使它们在同一时刻集中重试，
+ * 可以通过退避及随机抖动将重试请求分散开。
+ *
+ * <p>与{@link LockMetricsRecorder}一样，重试策略只按锁名称区分，而不使用锁key，以免key的取值过多导致状态无限增长。
+ *
+ * @see FixedRetryPolicy
+ * @see ExponentialBackoffRetryPolicy
+ * @see DecorrelatedJitterRetryPolicy
+ * @see AdaptiveRetryPolicy
+ */
+public interface RetryPolicy {
+
+    /**
+     * 获取下一次重试前的等待时间
+     *
+     * @param name         锁名称
+     * @param acquireCount 已尝试获取锁的次数，从1开始
+     * @param lastInterval 上一次的等待时间(ms)，首次重试时为0
+     * @return 等待时间(ms)
+     */
+    long nextInterval(String name, int acquireCount, long lastInterval);
+
+    /**
+     * 锁被释放时回调，可用于根据锁的持有时间调整重试间隔
+     *
+     * @param name     锁名称
+     * @param holdTime 锁的持有时间(ms)
+     */
+    default void onReleased(String name, long holdTime) {
+    }
+}
@@ -1,6 +1,9 @@
 package com.baomidou.lock;
 
+import com.baomidou.lock.cache.ConcurrentMapLockCacheFactory;
+import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.context.EmbeddedValueResolverAware;
@@ -13,13 +16,28 @@ import org.springframework.expression.BeanResolver;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectiveMethodResolver;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.spel.support.StandardTypeConverter;
 import org.springframework.lang.NonNull;
 import org.springframework.util.Assert;
-import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.StringValueResolver;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -32,21 +50,61 @@ import java.util.Map;
  *     <li>@beanName：引用Spring容器中的Bean；</li>
  * </ul>
  *
+ * <p>可以通过{@link SpelParserConfiguration}指定表达式的编译模式，
+ * 编译后的表达式在执行时若出现异常(比如参数的实际类型发生了变化)，将退化为解释执行。
+ *
+ * <p>方法的参数名仅在首次调用时解析并缓存，同一次方法调用中的多个表达式(条件、key与失败信息)
+ * 将复用同一个上下文，而属性访问器等无状态组件则在所有上下文间共享，以减少每次调用时的对象创建。
+ *
  * @author huangchengxing
  * @see MethodBasedEvaluationContext
  * @see BeanFactoryResolver
+ * @see SpelCompilerMode
  */
+@Slf4j
 public class SpelMethodBasedExpressionEvaluator
     implements MethodBasedExpressionEvaluator, EmbeddedValueResolverAware, BeanFactoryAware {
 
     private static final MapAccessor MAP_ACCESSOR = new MapAccessor();
-    private final Map<String, Expression> expressionCache = new ConcurrentReferenceHashMap<>(16);
-    private final ExpressionParser expressionParser = new SpelExpressionParser();
+    private static final ExpressionParser INTERPRETED_EXPRESSION_PARSER = new SpelExpressionParser(
+        new SpelParserConfiguration(SpelCompilerMode.OFF, null));
+    private static final List<PropertyAccessor> PROPERTY_ACCESSORS = Collections.unmodifiableList(
+        Arrays.asList(MAP_ACCESSOR, new ReflectivePropertyAccessor()));
+    private static final List<MethodResolver> METHOD_RESOLVERS = Collections.singletonList(new ReflectiveMethodResolver());
+    private static final TypeConverter TYPE_CONVERTER = new StandardTypeConverter();
+    private LockCache<String, Expression> expressionCache;
+    private LockCache<Method, Map<String, Integer>> argumentIndexesCache;
+    private final ThreadLocal<WeakReference<InvocationContext>> currentInvocationContext = new ThreadLocal<>();
+    private final ExpressionParser expressionParser;
     private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
     private BeanResolver beanResolver;
     @Setter
     private StringValueResolver embeddedValueResolver;
 
+    public SpelMethodBasedExpressionEvaluator() {
+        this(new SpelParserConfiguration());
+    }
+
+    /**
+     * 创建一个表达式计算器
+     *
+     * @param configuration 表达式解析配置，可用于指定编译模式
+     */
+    public SpelMethodBasedExpressionEvaluator(SpelParserConfiguration configuration) {
+        this.expressionParser = new SpelExpressionParser(configuration);
+        setCacheFactory(new ConcurrentMapLockCacheFactory());
+    }
+
+    /**
+     * 设置用于创建表达式与参数名缓存的缓存工厂
+     *
+     * @param cacheFactory 缓存工厂
+     */
+    public void setCacheFactory(LockCacheFactory cacheFactory) {
+        this.expressionCache = cacheFactory.createCache("expression");
+        this.argumentIndexesCache = cacheFactory.createCache("argumentIndexes");
+    }
+
     /**
      * 执行表达式，返回执行结果
      *
@@ -60,21 +118,96 @@ public class SpelMethodBasedExpressionEvaluator
     @Override
     public <T> T getValue(
         Method method, Object[] arguments, String expression, Class<T> resultType, @NonNull Map<String, Object> variables) {
-        EvaluationContext context = createEvaluationContext(method, arguments);
-        if (!variables.isEmpty()) {
-            variables.forEach(context::setVariable);
+        EvaluationContext context = getEvaluationContext(method, arguments);
+        if (variables.isEmpty()) {
+            return getValue(context, expression, resultType);
+        }
+        // 上下文在同一次调用的多个表达式间共享，因此变量仅在本次计算中生效
+        Map<String, Object> previous = new HashMap<>(variables.size());
+        variables.forEach((name, value) -> {
+            previous.put(name, context.lookupVariable(name));
+            context.setVariable(name, value);
+        });
+        try {
+            return getValue(context, expression, resultType);
+        } finally {
+            previous.forEach(context::setVariable);
         }
+    }
+
+    private <T> T getValue(EvaluationContext context, String expression, Class<T> resultType) {
         Expression exp = parseExpression(expression, expressionParser);
-        return exp.getValue(context, resultType);
+        try {
+            return exp.getValue(context, resultType);
+        } catch (SpelEvaluationException e) {
+            if (e.getMessageCode() != SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION) {
+                throw e;
+            }
+            // IMMEDIATE模式下编译后的表达式执行失败时不会自动回退，此处替换为仅解释执行的表达式
+            log.debug("Failed to run compiled expression [{}], fall back to interpreted mode", expression, e);
+            exp = INTERPRETED_EXPRESSION_PARSER.parseExpression(embeddedValueResolver.resolveStringValue(expression));
+            expressionCache.put(expression, exp);
+            return exp.getValue(context, resultType);
+        }
+    }
+
+    /**
+     * 获取本次方法调用的上下文，若当前线程上一次获取的上下文属于同一次调用(方法与参数数组均相同)，则直接复用
+     *
+     * @param method 方法
+     * @param args 调用参数
+     * @return 上下文
+     */
+    private EvaluationContext getEvaluationContext(Method method, Object[] args) {
+        WeakReference<InvocationContext> reference = currentInvocationContext.get();
+        InvocationContext invocationContext = null == reference ? null : reference.get();
+        if (null != invocationContext && invocationContext.method == method && invocationContext.arguments == args) {
+            return invocationContext.context;
+        }
+        invocationContext = new InvocationContext(method, args, createEvaluationContext(method, args));
+        currentInvocationContext.set(new WeakReference<>(invocationContext));
+        return invocationContext.context;
     }
 
     protected EvaluationContext createEvaluationContext(Method method, Object[] args) {
-        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(method, method, args, parameterNameDiscoverer);
+        MethodInvocationEvaluationContext context = new MethodInvocationEvaluationContext(method, args, getArgumentIndexes(method));
         context.setBeanResolver(beanResolver);
-        context.addPropertyAccessor(MAP_ACCESSOR);
+        context.setPropertyAccessors(PROPERTY_ACCESSORS);
+        context.setMethodResolvers(METHOD_RESOLVERS);
+        context.setTypeConverter(TYPE_CONVERTER);
         return context;
     }
 
+    /**
+     * 获取方法参数的变量名与参数下标的对应关系，仅在首次获取时解析并缓存
+     *
+     * @param method 方法
+     * @return 变量名与参数下标的对应关系
+     */
+    Map<String, Integer> getArgumentIndexes(Method method) {
+        return argumentIndexesCache.computeIfAbsent(method, this::resolveArgumentIndexes);
+    }
+
+    /**
+     * 解析方法参数的变量名与参数下标的对应关系，与{@link MethodBasedEvaluationContext}一致
+     *
+     * @param method 方法
+     * @return 变量名与参数下标的对应关系
+     */
+    private Map<String, Integer> resolveArgumentIndexes(Method method) {
+        String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
+        int parameterCount = null == parameterNames ? method.getParameterCount() : parameterNames.length;
+        Map<String, Integer> argumentIndexes = new HashMap<>(parameterCount * 4);
+        for (int i = 0; i < parameterCount; i++) {
+            argumentIndexes.put("a" + i, i);
+            argumentIndexes.put("p" + i, i);
+            if (null != parameterNames && null != parameterNames[i]) {
+                argumentIndexes.put(parameterNames[i], i);
+            }
+        }
+        return argumentIndexes;
+    }
+
     /**
      * 解析表达式
      *
@@ -94,4 +227,47 @@ public class SpelMethodBasedExpressionEvaluator
     public void setBeanFactory(@NonNull BeanFactory beanFactory) {
         beanResolver = new BeanFactoryResolver(beanFactory);
     }
+
+    /**
+     * 一次方法调用的上下文
+     */
+    @RequiredArgsConstructor
+    private static class InvocationContext {
+        private final Method method;
+        private final Object[] arguments;
+        private final EvaluationContext context;
+    }
+
+    /**
+     * 基于方法调用的上下文，与{@link MethodBasedEvaluationContext}不同的是，
+     * 参数变量不会在首次访问时全部注册，而是按预先解析的参数下标直接从参数数组中获取
+     */
+    private static class MethodInvocationEvaluationContext extends StandardEvaluationContext {
+
+        private final Object[] arguments;
+        private final Map<String, Integer> argumentIndexes;
+        private final int parameterCount;
+
+        MethodInvocationEvaluationContext(Method method, Object[] arguments, Map<String, Integer> argumentIndexes) {
+            super(method);
+            this.arguments = null == arguments ? new Object[0] : arguments;
+            this.argumentIndexes = argumentIndexes;
+            this.parameterCount = method.getParameterCount();
+        }
+
+        @Override
+        public Object lookupVariable(@NonNull String name) {
+            Object variable = super.lookupVariable(name);
+            if (null != variable) {
+                return variable;
+            }
+            Integer index = argumentIndexes.get(name);
+            if (null == index || index >= arguments.length) {
+                return null;
+            }
+            // 实际参数多于方法参数时，将剩余的参数作为最后一个可变参数
+            return arguments.length > parameterCount && index == parameterCount - 1 ?
+                Arrays.copyOfRange(arguments, index, arguments.length) : arguments[index];
+        }
+    }
 }
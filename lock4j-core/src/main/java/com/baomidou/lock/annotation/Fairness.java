@@ -0,0 +1,40 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.annotation;
+
+/**
+ * 获取锁时的公平性
+ *
+ * @see Lock4j#fairness()
+ */
+public enum Fairness {
+
+    /**
+     * 使用执行器的默认配置
+     */
+    DEFAULT,
+
+    /**
+     * 公平获取，按等待顺序获取锁
+     */
+    FAIR,
+
+    /**
+     * 非公平获取，锁空闲时允许插队
+     */
+    NON_FAIR
+}
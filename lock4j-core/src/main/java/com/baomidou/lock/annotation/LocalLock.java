@@ -2,6 +2,7 @@ package com.baomidou.lock.annotation;
 
 import com.baomidou.lock.LockFailureStrategy;
 import com.baomidou.lock.LockKeyBuilder;
+import com.baomidou.lock.RetryPolicy;
 import com.baomidou.lock.executor.LocalLockExecutor;
 import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
 import org.springframework.core.Ordered;
@@ -70,6 +71,13 @@ public @interface LocalLock {
      */
     Class<? extends LockFailureStrategy> failStrategy() default LockFailureStrategy.class;
 
+    /**
+     * 获取锁失败时的重试策略，不设置则使用默认重试策略 默认值：{@link Lock4jProperties#primaryRetryPolicy}
+     *
+     * @return RetryPolicy
+     */
+    Class<? extends RetryPolicy> retryPolicy() default RetryPolicy.class;
+
     /**
      * key生成器策略
      *
@@ -77,6 +85,14 @@ public @interface LocalLock {
      */
     Class<? extends LockKeyBuilder> keyBuilderStrategy() default LockKeyBuilder.class;
 
+    /**
+     * 获取锁时的公平性，仅对支持的执行器生效，如{@link com.baomidou.lock.executor.LocalLockExecutor}，
+     * 不设置则使用执行器的默认配置 默认值：{@link Lock4jProperties#localLockFair}
+     *
+     * @return 公平性
+     */
+    Fairness fairness() default Fairness.DEFAULT;
+
     /**
      * 获取顺序，值越小越先执行
      *
@@ -18,6 +18,7 @@ package com.baomidou.lock.annotation;
 
 import com.baomidou.lock.LockFailureStrategy;
 import com.baomidou.lock.LockKeyBuilder;
+import com.baomidou.lock.RetryPolicy;
 import com.baomidou.lock.executor.LockExecutor;
 import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
 import org.springframework.core.Ordered;
@@ -62,6 +63,16 @@ public @interface Lock4j {
      */
     String[] keys() default "";
 
+    /**
+     * support SPEL expresion 计算结果为集合或数组时，为其中的每个元素分别加锁，锁的key = name + keys + 元素，
+     * 所有的锁通过{@link com.baomidou.lock.LockTemplate#lockAll}一次性获取，并在方法执行完后一起释放。
+     * 结果为{@code null}或空集合时不加锁，直接执行方法，也不会触发{@link #failStrategy()}。
+     * 不支持响应式方法，也不能同时指定{@link #fairness()}、{@link #mode()}与{@link #permits()}，否则在方法首次调用时抛出{@link IllegalArgumentException}
+     *
+     * @return 集合类型的key表达式
+     */
+    String eachKey() default "";
+
     /**
      * @return 过期时间 单位：毫秒
      * <pre>
@@ -92,6 +103,13 @@ public @interface Lock4j {
      */
     Class<? extends LockFailureStrategy> failStrategy() default LockFailureStrategy.class;
 
+    /**
+     * 获取锁失败时的重试策略，不设置则使用默认重试策略 默认值：{@link Lock4jProperties#primaryRetryPolicy}
+     *
+     * @return RetryPolicy
+     */
+    Class<? extends RetryPolicy> retryPolicy() default RetryPolicy.class;
+
     /**
      * key生成器策略
      *
@@ -99,6 +117,30 @@ public @interface Lock4j {
      */
     Class<? extends LockKeyBuilder> keyBuilderStrategy() default LockKeyBuilder.class;
 
+    /**
+     * 获取锁时的公平性，仅对支持的执行器生效，如{@link com.baomidou.lock.executor.LocalLockExecutor}，
+     * 不设置则使用执行器的默认配置 默认值：{@link Lock4jProperties#localLockFair}
+     *
+     * @return 公平性
+     */
+    Fairness fairness() default Fairness.DEFAULT;
+
+    /**
+     * 锁的模式，仅对支持读写锁的执行器生效，如{@link com.baomidou.lock.executor.LocalReadWriteLockExecutor}，
+     * 其他执行器总是以独占的方式加锁
+     *
+     * @return 锁的模式
+     */
+    LockMode mode() default LockMode.WRITE;
+
+    /**
+     * 许可数量，即同一个key最多可以同时被多少个调用方持有，用于限制并发数，
+     * 仅对信号量执行器生效，如{@link com.baomidou.lock.executor.LocalSemaphoreExecutor}，其他执行器总是以独占的方式加锁
+     *
+     * @return 许可数量
+     */
+    int permits() default 1;
+
     /**
      * 获取顺序，值越小越先执行
      *
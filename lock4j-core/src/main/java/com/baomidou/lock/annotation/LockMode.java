@@ -0,0 +1,35 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.annotation;
+
+/**
+ * 锁的模式
+ *
+ * @see Lock4j#mode()
+ */
+public enum LockMode {
+
+    /**
+     * 读锁，多个读锁之间可以共同持有，但与写锁互斥
+     */
+    READ,
+
+    /**
+     * 写锁，即独占锁，与其他任何锁互斥
+     */
+    WRITE
+}
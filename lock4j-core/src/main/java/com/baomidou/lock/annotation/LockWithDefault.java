@@ -3,6 +3,7 @@ package com.baomidou.lock.annotation;
 import com.baomidou.lock.AbortLockFailureStrategy;
 import com.baomidou.lock.DefaultLockKeyBuilder;
 import com.baomidou.lock.LockKeyBuilder;
+import com.baomidou.lock.RetryPolicy;
 import com.baomidou.lock.exception.LockFailureException;
 import com.baomidou.lock.executor.LockExecutor;
 import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
@@ -75,6 +76,13 @@ public @interface LockWithDefault {
      */
     boolean autoRelease() default true;
 
+    /**
+     * 获取锁失败时的重试策略，不设置则使用默认重试策略 默认值：{@link Lock4jProperties#primaryRetryPolicy}
+     *
+     * @return RetryPolicy
+     */
+    Class<? extends RetryPolicy> retryPolicy() default RetryPolicy.class;
+
     /**
      * key生成器策略，默认使用{@link DefaultLockKeyBuilder}
      *
@@ -37,6 +37,11 @@ import java.util.stream.Collectors;
  * 比如，若Key2的表达式执行结果为true时，其他表达式执行结果为false，此时将会正常获取Key1与Key2的锁。
  * 同理，若Key2的表达式为false，Key3的表达式为true，此时将会正常获取Key1与Key3的锁
  *
+ * <p><strong>批量加锁</strong>
+ * <p>链中每个注解各自拥有条件、锁名称、过期时间、加锁选项与失败处理策略，并严格按照order依次加锁，
+ * 因此即使使用相同的执行器，也不会合并为一次{@link com.baomidou.lock.LockTemplate#lockAll}调用。
+ * 需要一次性对一组key加锁时，应当使用{@link Lock4j#eachKey}或直接调用{@link com.baomidou.lock.LockTemplate#lockAll}。
+ *
  * @author huangchengxing
  */
 public abstract class AbstractConditionalLockChainInterceptor extends AbstractConditionalLockInterceptor {
@@ -62,7 +67,7 @@ public abstract class AbstractConditionalLockChainInterceptor extends AbstractCo
     @Override
     protected LockOps resolveLockOps(MethodInvocation invocation) {
         Set<LockOps> ops = AnnotatedElementUtils.findMergedRepeatableAnnotations(invocation.getMethod(), Lock4j.class).stream()
-            .map(this::createLockOps)
+            .map(annotation -> createLockOps(annotation, invocation.getMethod()))
             .sorted(AnnotationAwareOrderComparator.INSTANCE)
             .collect(Collectors.toCollection(LinkedHashSet::new));
         if (CollectionUtils.isEmpty(ops)) {
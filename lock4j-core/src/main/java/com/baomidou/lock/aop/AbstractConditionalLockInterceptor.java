@@ -1,12 +1,18 @@
 package com.baomidou.lock.aop;
 
+import com.baomidou.lock.GeneratedLockKeyBuilder;
 import com.baomidou.lock.MethodBasedExpressionEvaluator;
 import com.baomidou.lock.annotation.Lock4j;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.lang.Nullable;
 import org.springframework.util.StringUtils;
 
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.function.Predicate;
+
 /**
  * 支持条件表达式的{@link LockOpsInterceptor}扩展类
  *
@@ -24,16 +30,22 @@ public abstract class AbstractConditionalLockInterceptor extends AbstractLockInt
      * 获取锁操作信息
      *
      * @param annotation 注解
+     * @param method 方法
      * @return 锁操作信息
      */
     @Override
-    protected LockOps createLockOps(Lock4j annotation) {
-        LockOps delegate = super.createLockOps(annotation);
+    protected LockOps createLockOps(Lock4j annotation, @Nullable Method method) {
+        LockOps delegate = super.createLockOps(annotation, method);
         String condition = annotation.condition();
         if (!StringUtils.hasText(condition)) {
             return delegate;
         }
-        return new ConditionalLockOps(delegate, condition);
+        // 若编译期已生成条件表达式的实现，则直接使用
+        GeneratedLockKeyBuilder generated = delegate.getLockKeyBuilder() instanceof GeneratedLockKeyBuilder ?
+            (GeneratedLockKeyBuilder) delegate.getLockKeyBuilder() : null;
+        return Objects.nonNull(generated) && generated.hasCondition() ?
+            new ConditionalLockOps(delegate, condition, invocation -> generated.evaluateCondition(invocation.getArguments())) :
+            new ConditionalLockOps(delegate, condition);
     }
 
     /**
@@ -57,13 +69,18 @@ public abstract class AbstractConditionalLockInterceptor extends AbstractLockInt
     @Getter
     protected class ConditionalLockOps extends AbstractLockOpsDelegate {
         private final String condition;
+        private final Predicate<MethodInvocation> predicate;
         public ConditionalLockOps(LockOps delegate, String condition) {
+            this(delegate, condition, invocation -> evaluateCondition(condition, invocation));
+        }
+        public ConditionalLockOps(LockOps delegate, String condition, Predicate<MethodInvocation> predicate) {
             super(delegate);
             this.condition = condition;
+            this.predicate = predicate;
         }
         @Override
         public MethodInvocation attach(MethodInvocation invocation) {
-            return evaluateCondition(condition, invocation) ?
+            return predicate.test(invocation) ?
                 delegate.attach(invocation) : invocation;
         }
     }
@@ -1,12 +1,19 @@
 package com.baomidou.lock.aop;
 
+import com.baomidou.lock.DefaultLockKeyBuilder;
+import com.baomidou.lock.GeneratedLockKeyBuilder;
+import com.baomidou.lock.LockCache;
+import com.baomidou.lock.LockCacheFactory;
 import com.baomidou.lock.LockFailureStrategy;
+import com.baomidou.lock.cache.ConcurrentMapLockCacheFactory;
 import com.baomidou.lock.LockKeyBuilder;
 import com.baomidou.lock.annotation.Lock4j;
 import com.baomidou.lock.util.ThrowableFunction;
 import lombok.*;
 import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
 import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.TargetClassAware;
 import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
@@ -17,19 +24,25 @@ import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
-import org.springframework.util.ConcurrentReferenceHashMap;
 
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.BiFunction;
 
 /**
  * 锁拦截器抽象类，用于提供关于配置信息的解析的基本实现
  *
  * @author huangchengxing
  */
+@Slf4j
 @RequiredArgsConstructor(access = AccessLevel.PROTECTED)
 public abstract class AbstractLockInterceptor
     implements InitializingBean, ApplicationContextAware, Lock4jMethodInterceptor {
@@ -40,9 +53,14 @@ public abstract class AbstractLockInterceptor
     private static final LockOps NULL = new NullLockOps();
 
     /**
-     * 锁操作信息缓存
+     * 锁操作信息缓存，同时缓存各目标类是否为最内层代理的判断结果
      */
-    private final Map<Method, LockOps> lockOpsCaches = new ConcurrentReferenceHashMap<>(16);
+    private LockCache<Method, CachedLockOps> lockOpsCaches = new ConcurrentMapLockCacheFactory().createCache("lockOps");
+
+    /**
+     * 编译期生成的key构建器
+     */
+    private Map<Method, GeneratedLockKeyBuilder> generatedLockKeyBuilders;
 
     /**
      * Spring上下文
@@ -61,22 +79,60 @@ public abstract class AbstractLockInterceptor
         if (Objects.isNull(target)) {
             return invocation.proceed();
         }
-        Class<?> cls = AopProxyUtils.ultimateTargetClass(target);
-        if (!cls.equals(invocation.getThis().getClass())) {
+        Method method = invocation.getMethod();
+        CachedLockOps cachedLockOps = lockOpsCaches.get(method);
+        if (Objects.isNull(cachedLockOps)) {
+            cachedLockOps = new CachedLockOps();
+            CachedLockOps previous = lockOpsCaches.putIfAbsent(method, cachedLockOps);
+            cachedLockOps = Objects.isNull(previous) ? cachedLockOps : previous;
+        }
+        if (!cachedLockOps.isUltimateTarget(target)) {
             return invocation.proceed();
         }
-        LockOps lockOps = lockOpsCaches.computeIfAbsent(
-            invocation.getMethod(),
-            method -> Optional.ofNullable(resolveLockOps(invocation)).orElse(NULL)
-        );
+        LockOps lockOps = cachedLockOps.lockOps;
+        if (Objects.isNull(lockOps)) {
+            // 解析结果总是一致的，因此并发解析时无需加锁
+            lockOps = Optional.ofNullable(resolveLockOps(invocation)).orElse(NULL);
+            cachedLockOps.lockOps = lockOps;
+        }
         MethodInvocation invocationWithLock = lockOps.attach(invocation);
         return invocationWithLock.proceed();
     }
 
+    /**
+     * 设置用于创建锁操作信息缓存的缓存工厂
+     *
+     * @param cacheFactory 缓存工厂
+     */
+    public void setCacheFactory(LockCacheFactory cacheFactory) {
+        this.lockOpsCaches = cacheFactory.createCache("lockOps");
+    }
+
     @Override
     public void afterPropertiesSet() {
         this.defaultLockOps = initDefaultLockOps();
         Assert.notNull(applicationContext, "ApplicationContext must not be null");
+        this.generatedLockKeyBuilders = loadGeneratedLockKeyBuilders();
+    }
+
+    /**
+     * 加载由{@code lock4j-processor}在编译期生成的key构建器
+     *
+     * @return 方法与key构建器的对应关系
+     */
+    private Map<Method, GeneratedLockKeyBuilder> loadGeneratedLockKeyBuilders() {
+        Map<Method, GeneratedLockKeyBuilder> builders = new HashMap<>(16);
+        Iterator<GeneratedLockKeyBuilder> iterator = ServiceLoader.load(
+            GeneratedLockKeyBuilder.class, applicationContext.getClassLoader()).iterator();
+        while (iterator.hasNext()) {
+            try {
+                GeneratedLockKeyBuilder builder = iterator.next();
+                builders.put(builder.getMethod(), builder);
+            } catch (ServiceConfigurationError e) {
+                log.warn("Failed to load generated lock key builder, the key will be resolved at runtime", e);
+            }
+        }
+        return builders;
     }
 
     /**
@@ -89,7 +145,7 @@ public abstract class AbstractLockInterceptor
     @Nullable
     protected LockOps resolveLockOps(MethodInvocation invocation) {
         Lock4j annotation = AnnotatedElementUtils.findMergedAnnotation(invocation.getMethod(), Lock4j.class);
-        return Objects.nonNull(annotation) ? createLockOps(annotation) : null;
+        return Objects.nonNull(annotation) ? createLockOps(annotation, invocation.getMethod()) : null;
     }
 
     /**
@@ -99,6 +155,17 @@ public abstract class AbstractLockInterceptor
      * @return 锁操作信息
      */
     protected LockOps createLockOps(Lock4j annotation) {
+        return createLockOps(annotation, null);
+    }
+
+    /**
+     * 获取锁操作信息，若方法使用默认的key构建器，且存在编译期为其生成的key构建器，则优先使用后者
+     *
+     * @param annotation 注解
+     * @param method 方法
+     * @return 锁操作信息
+     */
+    protected LockOps createLockOps(Lock4j annotation, @Nullable Method method) {
         // TODO 支持根据 beanName 获取相应组件
         // 获取key构建器，若未在注解中指定，则遵循默认的全局配置
         LockKeyBuilder keyBuilder = Optional.ofNullable(annotation.keyBuilderStrategy())
@@ -108,6 +175,10 @@ public abstract class AbstractLockInterceptor
             .flatMap(components -> components.stream().min(AnnotationAwareOrderComparator.INSTANCE))
             .map(LockKeyBuilder.class::cast)
             .orElse(defaultLockOps.getLockKeyBuilder());
+        if (Objects.equals(keyBuilder.getClass(), DefaultLockKeyBuilder.class)) {
+            keyBuilder = Optional.<LockKeyBuilder>ofNullable(getGeneratedLockKeyBuilder(annotation, method))
+                .orElse(keyBuilder);
+        }
         // 获取失败回调策略，若未在注解中指定，则遵循默认的全局配置
         LockFailureStrategy failureStrategy = Optional.ofNullable(annotation.failStrategy())
             .filter(type -> !Objects.equals(type, LockFailureStrategy.class))
@@ -121,6 +192,22 @@ public abstract class AbstractLockInterceptor
             .setLockFailureStrategy(failureStrategy);
     }
 
+    /**
+     * 获取编译期为方法生成的key构建器，若注解中的定义已与生成时不一致，则忽略该构建器
+     *
+     * @param annotation 注解
+     * @param method 方法
+     * @return key构建器，若不存在则返回null
+     */
+    @Nullable
+    protected GeneratedLockKeyBuilder getGeneratedLockKeyBuilder(Lock4j annotation, @Nullable Method method) {
+        return Optional.ofNullable(method)
+            .map(generatedLockKeyBuilders::get)
+            .filter(builder -> Arrays.equals(builder.getDefinitionKeys(), annotation.keys()))
+            .filter(builder -> Objects.equals(builder.getCondition(), annotation.condition()))
+            .orElse(null);
+    }
+
     /**
      * 初始化默认的锁操作配置
      *
@@ -180,6 +267,17 @@ public abstract class AbstractLockInterceptor
             return getAnnotation().order();
         }
 
+        /**
+         * 获取预编译的锁key模板，由于锁操作按方法缓存，实现类可以在首次获取时编译并缓存该模板
+         *
+         * @param method   方法
+         * @param compiler 模板编译器
+         * @return 锁key模板
+         */
+        default LockKeyTemplate getLockKeyTemplate(Method method, BiFunction<LockOps, Method, LockKeyTemplate> compiler) {
+            return compiler.apply(this, method);
+        }
+
         /**
          * 包装方法调用
          *
@@ -191,6 +289,60 @@ public abstract class AbstractLockInterceptor
         }
     }
 
+    /**
+     * 方法对应的锁操作缓存
+     */
+    private static class CachedLockOps {
+
+        private static final TargetType[] EMPTY = new TargetType[0];
+
+        /**
+         * 锁操作信息，首次在最内层代理中调用时解析
+         */
+        private volatile LockOps lockOps;
+
+        /**
+         * 已经判断过的目标类，通常只有一个，因此使用写时复制的数组
+         */
+        private volatile TargetType[] targetTypes = EMPTY;
+
+        /**
+         * <p>判断调用目标是否为最内层的代理对象，仅在最内层执行锁操作，以避免多层代理时重复加锁。
+         *
+         * <p>对于非{@link TargetClassAware}的对象，判断结果仅取决于其类型，因此按类型缓存；
+         * 否则，结果取决于具体的代理配置，每次调用时重新判断。
+         *
+         * @param target 调用目标
+         * @return 是否
+         */
+        boolean isUltimateTarget(Object target) {
+            Class<?> type = target.getClass();
+            TargetType[] types = targetTypes;
+            for (TargetType targetType : types) {
+                if (targetType.type == type) {
+                    return targetType.ultimateTarget;
+                }
+            }
+            boolean ultimateTarget = AopProxyUtils.ultimateTargetClass(target).equals(type);
+            if (!(target instanceof TargetClassAware)) {
+                TargetType[] newTypes = Arrays.copyOf(types, types.length + 1);
+                newTypes[types.length] = new TargetType(type, ultimateTarget);
+                // 并发写入时可能丢失部分结果，但只会导致重新判断
+                targetTypes = newTypes;
+            }
+            return ultimateTarget;
+        }
+    }
+
+    /**
+     * 目标类及其是否为最内层代理的判断结果
+     */
+    @RequiredArgsConstructor
+    private static class TargetType {
+        private final Class<?> type;
+        private final boolean ultimateTarget;
+    }
+
     /**
      * 空操作，用于占位
      */
@@ -240,6 +392,31 @@ public abstract class AbstractLockInterceptor
          */
         private int order = Ordered.LOWEST_PRECEDENCE;
 
+        /**
+         * 预编译的锁key模板
+         */
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        private volatile LockKeyTemplate lockKeyTemplate;
+
+        /**
+         * 获取预编译的锁key模板，首次获取时进行编译
+         *
+         * @param method   方法
+         * @param compiler 模板编译器
+         * @return 锁key模板
+         */
+        @Override
+        public LockKeyTemplate getLockKeyTemplate(Method method, BiFunction<LockOps, Method, LockKeyTemplate> compiler) {
+            LockKeyTemplate template = lockKeyTemplate;
+            if (Objects.isNull(template)) {
+                // 编译结果总是一致的，因此并发编译时无需加锁
+                template = compiler.apply(this, method);
+                lockKeyTemplate = template;
+            }
+            return template;
+        }
+
         /**
          * 包装方法调用
          *
@@ -274,6 +451,10 @@ public abstract class AbstractLockInterceptor
         public int getOrder() {
             return delegate.getOrder();
         }
+        @Override
+        public LockKeyTemplate getLockKeyTemplate(Method method, BiFunction<LockOps, Method, LockKeyTemplate> compiler) {
+            return delegate.getLockKeyTemplate(method, compiler);
+        }
     }
 
     @RequiredArgsConstructor
@@ -16,6 +16,7 @@
 
 package com.baomidou.lock.aop;
 
+import com.baomidou.lock.LockContextHolder;
 import com.baomidou.lock.LockFailureStrategy;
 import com.baomidou.lock.LockInfo;
 import com.baomidou.lock.LockKeyBuilder;
@@ -78,7 +79,12 @@ public class LockInterceptor implements InitializingBean,Lock4jMethodInterceptor
             String key = prefix + (StringUtils.hasText(suffix) ? "#" + suffix : "");
             lockInfo = lockTemplate.lock(key, lock4j.expire(), lock4j.acquireTimeout(), lock4j.executor());
             if (null != lockInfo) {
-                return invocation.proceed();
+                LockInfo previous = LockContextHolder.set(lockInfo);
+                try {
+                    return invocation.proceed();
+                } finally {
+                    LockContextHolder.restore(previous);
+                }
             }
             // lock failure
             lockOperation.lockFailureStrategy.onLockFailure(key, invocation.getMethod(), invocation.getArguments());
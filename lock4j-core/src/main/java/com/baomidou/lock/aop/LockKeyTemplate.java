@@ -0,0 +1,149 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.aop;
+
+import com.baomidou.lock.CompiledLockKey;
+import com.baomidou.lock.LockOptions;
+import com.baomidou.lock.MethodBasedExpressionEvaluator;
+import lombok.Getter;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ObjectUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>针对某个方法预编译的锁key模板，由锁名称、不变的前缀与{@link CompiledLockKey}组成，并携带该方法的加锁选项，
+ * 随{@link AbstractLockInterceptor.LockOps}一起按方法缓存。
+ *
+ * <p>生成key时只需创建一个{@link StringBuilder}，其初始容量取此前生成过的最长key的长度，以避免扩容。
+ *
+ * <p>指定了集合类型的key表达式时，表达式结果中的每个元素各自对应一把锁，见{@link #buildKeys}。
+ */
+public class LockKeyTemplate {
+
+    /**
+     * 锁名称
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * 加锁选项
+     */
+    @Getter
+    private final LockOptions options;
+    private final String prefix;
+    private final CompiledLockKey compiledKey;
+
+    /**
+     * 集合类型的key表达式，未指定时为{@code null}
+     */
+    @Nullable
+    private final String eachKey;
+
+    /**
+     * 集合元素与其余部分之间的分隔符
+     */
+    private final String eachKeyDelimiter;
+
+    /**
+     * 此前生成过的最长key的长度，仅用于估算容量，因此不需要保证可见性
+     */
+    private int capacity;
+
+    public LockKeyTemplate(String name, String prefix, CompiledLockKey compiledKey) {
+        this(name, LockOptions.DEFAULT, prefix, compiledKey);
+    }
+
+    public LockKeyTemplate(String name, LockOptions options, String prefix, CompiledLockKey compiledKey) {
+        this(name, options, prefix, compiledKey, null, "");
+    }
+
+    /**
+     * 构造器
+     *
+     * @param name             锁名称
+     * @param options          加锁选项
+     * @param prefix           不变的前缀
+     * @param compiledKey      预编译的key
+     * @param eachKey          集合类型的key表达式，为{@code null}时只生成一个key
+     * @param eachKeyDelimiter 集合元素与其余部分之间的分隔符
+     */
+    public LockKeyTemplate(String name, LockOptions options, String prefix, CompiledLockKey compiledKey,
+                           @Nullable String eachKey, String eachKeyDelimiter) {
+        this.name = name;
+        this.options = options;
+        this.prefix = prefix;
+        this.compiledKey = compiledKey;
+        this.eachKey = eachKey;
+        this.eachKeyDelimiter = eachKeyDelimiter;
+        this.capacity = prefix.length() + 16;
+    }
+
+    /**
+     * 是否为集合中的每个元素分别生成key
+     *
+     * @return 是否
+     */
+    public boolean isMultiKey() {
+        return null != eachKey;
+    }
+
+    /**
+     * 生成本次调用的锁key
+     *
+     * @param invocation 方法调用
+     * @return 锁key
+     */
+    public String buildKey(MethodInvocation invocation) {
+        StringBuilder builder = new StringBuilder(capacity).append(prefix);
+        compiledKey.appendTo(builder, invocation);
+        if (builder.length() > capacity) {
+            capacity = builder.length();
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 计算集合类型的key表达式，并为结果中的每个元素生成一个锁key，即{@link #buildKey}的结果与元素的拼接。
+     * 表达式的结果为数组或集合以外的对象时视为只有一个元素，为{@code null}时视为空集合
+     *
+     * @param invocation 方法调用
+     * @param evaluator  表达式执行器
+     * @return 锁key
+     */
+    public List<String> buildKeys(MethodInvocation invocation, MethodBasedExpressionEvaluator evaluator) {
+        Object value = evaluator.getValue(invocation.getMethod(), invocation.getArguments(), eachKey, Object.class);
+        Collection<?> elements = value instanceof Collection ? (Collection<?>) value
+            : ObjectUtils.isArray(value) ? Arrays.asList(ObjectUtils.toObjectArray(value))
+            : null == value ? Collections.emptyList() : Collections.singletonList(value);
+        if (elements.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String key = buildKey(invocation) + eachKeyDelimiter;
+        List<String> keys = new ArrayList<>(elements.size());
+        for (Object element : elements) {
+            keys.add(key + element);
+        }
+        return keys;
+    }
+}
@@ -1,18 +1,25 @@
 package com.baomidou.lock.aop;
 
 import com.baomidou.lock.*;
+import com.baomidou.lock.annotation.Fairness;
 import com.baomidou.lock.annotation.Lock4j;
+import com.baomidou.lock.annotation.LockMode;
 import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
 
 /**
  * 基于{@link Lock4j}注解的锁操作拦截器
@@ -22,15 +29,24 @@ import java.util.Objects;
 @Slf4j
 public class LockOpsInterceptor extends AbstractConditionalLockChainInterceptor {
 
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent(
+        "reactor.core.publisher.Mono", LockOpsInterceptor.class.getClassLoader());
+
+    private final MethodBasedExpressionEvaluator methodBasedExpressionEvaluator;
     private final LockTemplate lockTemplate;
     protected final Lock4jProperties lock4jProperties;
+    @Nullable
+    private final ReactiveLockSupport reactiveLockSupport;
+    private final BiFunction<LockOps, Method, LockKeyTemplate> keyTemplateCompiler = this::compileKeyTemplate;
 
     public LockOpsInterceptor(
         MethodBasedExpressionEvaluator methodBasedExpressionEvaluator,
         LockTemplate lockTemplate, Lock4jProperties lock4jProperties) {
         super(methodBasedExpressionEvaluator);
+        this.methodBasedExpressionEvaluator = methodBasedExpressionEvaluator;
         this.lockTemplate = lockTemplate;
         this.lock4jProperties = lock4jProperties;
+        this.reactiveLockSupport = REACTOR_PRESENT ? new ReactiveLockSupport(lockTemplate) : null;
     }
 
     /**
@@ -69,17 +85,43 @@ public class LockOpsInterceptor extends AbstractConditionalLockChainInterceptor
      */
     @Override
     protected Object doLock(LockOps lockOps, MethodInvocation invocation) throws Throwable {
+        // 响应式方法需要在订阅时加锁，并在发布者结束时解锁
+        LockKeyTemplate keyTemplate = lockOps.getLockKeyTemplate(invocation.getMethod(), keyTemplateCompiler);
+        String name = keyTemplate.getName();
+        if (Objects.nonNull(reactiveLockSupport) && reactiveLockSupport.isReactive(invocation.getMethod())) {
+            return reactiveLockSupport.doLock(
+                lockOps, invocation, name, resolveKey(invocation, keyTemplate), keyTemplate.getOptions());
+        }
         Lock4j annotation = lockOps.getAnnotation();
         LockInfo lockInfo = null;
         try {
-            String key = resolveKey(invocation, lockOps);
-            lockInfo = lockTemplate.lock(key, annotation.expire(), annotation.acquireTimeout(), annotation.executor());
+            String key;
+            if (keyTemplate.isMultiKey()) {
+                List<String> keys = resolveKeys(invocation, keyTemplate);
+                // 没有需要加锁的元素时不加锁，也不触发失败策略
+                if (keys.isEmpty()) {
+                    return invocation.proceed();
+                }
+                key = String.join(",", keys);
+                lockInfo = lockTemplate.lockAll(keys, name, annotation.expire(), annotation.acquireTimeout(),
+                    annotation.executor(), annotation.retryPolicy());
+            } else {
+                key = resolveKey(invocation, keyTemplate);
+                lockInfo = lockTemplate.lock(key, name, annotation.expire(), annotation.acquireTimeout(),
+                    annotation.executor(), annotation.retryPolicy(), keyTemplate.getOptions());
+            }
             if (Objects.nonNull(lockInfo)) {
                 log.debug("Lock success, lockKey={}, lockValue={}", lockInfo.getLockKey(), lockInfo.getLockValue());
-                return invocation.proceed();
+                LockInfo previous = LockContextHolder.set(lockInfo);
+                try {
+                    return invocation.proceed();
+                } finally {
+                    LockContextHolder.restore(previous);
+                }
             }
             log.debug("Lock failure, lockKey={}", key);
             // lock failure
+            lockTemplate.recordLockFailure(annotation.executor(), lockOps.getLockFailureStrategy(), name);
             lockOps.getLockFailureStrategy()
                 .onLockFailure(key, invocation.getMethod(), invocation.getArguments());
             return null;
@@ -89,7 +131,7 @@ public class LockOpsInterceptor extends AbstractConditionalLockChainInterceptor
     }
 
     private void doUnlock(@Nullable LockInfo lockInfo, Lock4j annotation) {
-        if (Objects.isNull(lockInfo) || annotation.autoRelease()) {
+        if (Objects.isNull(lockInfo) || !annotation.autoRelease()) {
             return;
         }
         final boolean releaseLock = lockTemplate.releaseLock(lockInfo);
@@ -101,16 +143,58 @@ public class LockOpsInterceptor extends AbstractConditionalLockChainInterceptor
             lockInfo.getLockValue());
     }
 
-    private String resolveKey(MethodInvocation invocation, LockOps lockOps) {
-        String prefix = lock4jProperties.getLockKeyPrefix() + ":";
-        Method method = invocation.getMethod();
+    /**
+     * 编译锁key模板，模板的前缀为{@code 锁key前缀:锁名称#}
+     *
+     * @param lockOps 锁操作
+     * @param method  方法
+     * @return 锁key模板
+     */
+    private LockKeyTemplate compileKeyTemplate(LockOps lockOps, Method method) {
         Lock4j annotation = lockOps.getAnnotation();
-        prefix += StringUtils.hasText(annotation.name()) ? annotation.name() :
+        String name = resolveName(method, annotation);
+        String prefix = lock4jProperties.getLockKeyPrefix() + ":" + name + "#";
+        CompiledLockKey compiledKey = lockOps.getLockKeyBuilder().compile(method, annotation.keys());
+        if (!StringUtils.hasText(annotation.eachKey())) {
+            return new LockKeyTemplate(name, LockOptions.from(annotation), prefix, compiledKey);
+        }
+        Assert.isTrue(Objects.isNull(reactiveLockSupport) || !reactiveLockSupport.isReactive(method),
+            () -> "eachKey is not supported on reactive method: " + method);
+        Assert.isTrue(annotation.fairness() == Fairness.DEFAULT && annotation.mode() == LockMode.WRITE
+                && annotation.permits() == 1,
+            () -> "fairness, mode and permits are not supported with eachKey: " + method);
+        // 未指定keys时，集合元素直接跟在前缀之后
+        String delimiter = Stream.of(annotation.keys()).anyMatch(StringUtils::hasText) ? "." : "";
+        return new LockKeyTemplate(
+            name, LockOptions.from(annotation), prefix, compiledKey, annotation.eachKey(), delimiter);
+    }
+
+    /**
+     * 获取锁名称，未指定时为方法的全限定名
+     *
+     * @param method     方法
+     * @param annotation 注解
+     * @return 锁名称
+     */
+    private String resolveName(Method method, Lock4j annotation) {
+        return StringUtils.hasText(annotation.name()) ? annotation.name() :
             method.getDeclaringClass().getName() + method.getName();
-        String key = prefix + "#" + lockOps.getLockKeyBuilder().buildKey(invocation, annotation.keys());
+    }
+
+    private String resolveKey(MethodInvocation invocation, LockKeyTemplate keyTemplate) {
+        Method method = invocation.getMethod();
+        String key = keyTemplate.buildKey(invocation);
         if (log.isDebugEnabled()) {
             log.debug("generate lock key [{}] for invocation of [{}]", key, method);
         }
         return key;
     }
+
+    private List<String> resolveKeys(MethodInvocation invocation, LockKeyTemplate keyTemplate) {
+        List<String> keys = keyTemplate.buildKeys(invocation, methodBasedExpressionEvaluator);
+        if (log.isDebugEnabled()) {
+            log.debug("generate lock keys {} for invocation of [{}]", keys, invocation.getMethod());
+        }
+        return keys;
+    }
 }
@@ -0,0 +1,134 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.aop;
+
+import com.baomidou.lock.LockFailureStrategy;
+import com.baomidou.lock.LockInfo;
+import com.baomidou.lock.LockOptions;
+import com.baomidou.lock.LockTemplate;
+import com.baomidou.lock.aop.AbstractLockInterceptor.LockOps;
+import com.baomidou.lock.annotation.Lock4j;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * <p>返回值为{@link Mono}或{@link Flux}的方法的加锁支持，仅在项目中存在reactor时使用。
+ *
+ * <p>对于响应式方法，直接在方法调用前后加解锁时，锁会在发布者被订阅之前就已经释放。
+ * 因此这里在订阅时才通过{@link LockTemplate#lockAsync}非阻塞的获取锁，持有锁直到发布者结束，
+ * 并在完成、异常或取消时通过{@link LockTemplate#releaseAsync}释放锁。
+ *
+ * <p>由于获取锁与释放锁可能发生在不同的线程上，执行器必须支持异步加解锁，
+ * 即实现了{@link com.baomidou.lock.executor.AsyncLockExecutor}，否则将以异常结束。
+ */
+@Slf4j
+class ReactiveLockSupport {
+
+    private final LockTemplate lockTemplate;
+
+    ReactiveLockSupport(LockTemplate lockTemplate) {
+        this.lockTemplate = lockTemplate;
+    }
+
+    /**
+     * 是否为响应式方法
+     *
+     * @param method 方法
+     * @return 是否
+     */
+    boolean isReactive(Method method) {
+        Class<?> returnType = method.getReturnType();
+        return Mono.class.isAssignableFrom(returnType) || Flux.class.isAssignableFrom(returnType);
+    }
+
+    /**
+     * 进行加锁
+     *
+     * @param lockOps    锁操作
+     * @param invocation 方法调用
+     * @param name       锁名称
+     * @param key        锁key
+     * @param options    加锁选项
+     * @return 持有锁期间执行的发布者
+     */
+    Object doLock(LockOps lockOps, MethodInvocation invocation, String name, String key, LockOptions options) {
+        Lock4j annotation = lockOps.getAnnotation();
+        boolean isMono = Mono.class.isAssignableFrom(invocation.getMethod().getReturnType());
+        if (!lockTemplate.isAsyncSupported(annotation.executor())) {
+            IllegalStateException e = new IllegalStateException(
+                "Lock executor does not support async lock, can not be used on reactive method: " + invocation.getMethod());
+            return isMono ? Mono.error(e) : Flux.error(e);
+        }
+        Mono<LockInfo> acquire = Mono.defer(() -> Mono.fromCompletionStage(lockTemplate.lockAsync(
+                key, name, annotation.expire(), annotation.acquireTimeout(), annotation.executor(),
+                annotation.retryPolicy(), options)))
+            .doOnNext(lockInfo -> log.debug("Lock success, lockKey={}, lockValue={}", lockInfo.getLockKey(), lockInfo.getLockValue()))
+            .switchIfEmpty(Mono.defer(() -> onLockFailure(lockOps, name, key, invocation)));
+        Function<LockInfo, Mono<Void>> release = lockInfo -> annotation.autoRelease() ? release(lockInfo) : Mono.empty();
+        if (isMono) {
+            return Mono.usingWhen(acquire, lockInfo -> Mono.from(proceed(invocation)),
+                release, (lockInfo, e) -> release.apply(lockInfo), release);
+        }
+        return Flux.usingWhen(acquire, lockInfo -> proceed(invocation),
+            release, (lockInfo, e) -> release.apply(lockInfo), release);
+    }
+
+    private Mono<LockInfo> onLockFailure(LockOps lockOps, String name, String key, MethodInvocation invocation) {
+        log.debug("Lock failure, lockKey={}", key);
+        LockFailureStrategy lockFailureStrategy = lockOps.getLockFailureStrategy();
+        lockTemplate.recordLockFailure(lockOps.getAnnotation().executor(), lockFailureStrategy, name);
+        try {
+            lockFailureStrategy.onLockFailure(key, invocation.getMethod(), invocation.getArguments());
+        } catch (Exception e) {
+            return Mono.error(e);
+        }
+        return Mono.empty();
+    }
+
+    private Publisher<?> proceed(MethodInvocation invocation) {
+        try {
+            Object result = invocation.proceed();
+            return null == result ? Mono.empty() : (Publisher<?>) result;
+        } catch (Throwable e) {
+            return Mono.error(e);
+        }
+    }
+
+    private Mono<Void> release(LockInfo lockInfo) {
+        return Mono.defer(() -> Mono.fromCompletionStage(lockTemplate.releaseAsync(lockInfo)))
+            .doOnNext(released -> {
+                if (Boolean.TRUE.equals(released)) {
+                    log.debug("Release lock success, lockKey={}, lockValue={}", lockInfo.getLockKey(),
+                        lockInfo.getLockValue());
+                } else {
+                    log.error("Release lock fail, lockKey={}, lockValue={}", lockInfo.getLockKey(),
+                        lockInfo.getLockValue());
+                }
+            })
+            .onErrorResume(e -> {
+                log.error("Release lock fail, lockKey={}, lockValue={}", lockInfo.getLockKey(), lockInfo.getLockValue(), e);
+                return Mono.empty();
+            })
+            .then();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.cache;
+
+import com.baomidou.lock.LockCache;
+import com.baomidou.lock.LockCacheFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存工厂的抽象类，用于记录已创建的缓存，并保证缓存名称唯一
+ */
+public abstract class AbstractLockCacheFactory implements LockCacheFactory {
+
+    private final Map<String, LockCache<?, ?>> caches = new ConcurrentHashMap<>(8);
+
+    @Override
+    public synchronized <K, V> LockCache<K, V> createCache(String name) {
+        String uniqueName = name;
+        for (int i = 2; caches.containsKey(uniqueName); i++) {
+            uniqueName = name + "#" + i;
+        }
+        LockCache<K, V> cache = doCreateCache(uniqueName);
+        caches.put(uniqueName, cache);
+        return cache;
+    }
+
+    @Override
+    public Collection<LockCache<?, ?>> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+
+    /**
+     * 创建缓存
+     *
+     * @param name 名称
+     * @return 缓存
+     */
+    protected abstract <K, V> LockCache<K, V> doCreateCache(String name);
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.cache;
+
+import com.baomidou.lock.LockCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.function.Function;
+
+/**
+ * 基于Caffeine的缓存工厂，缓存为强引用，超过最大容量时按W-TinyLFU策略淘汰
+ */
+@RequiredArgsConstructor
+public class CaffeineLockCacheFactory extends AbstractLockCacheFactory {
+
+    /**
+     * 每个缓存的最大容量
+     */
+    private final long maximumSize;
+
+    @Override
+    protected <K, V> LockCache<K, V> doCreateCache(String name) {
+        Cache<K, V> cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+        return new CaffeineLockCache<>(name, cache);
+    }
+
+    @RequiredArgsConstructor
+    private static class CaffeineLockCache<K, V> implements LockCache<K, V> {
+
+        @Getter
+        private final String name;
+        private final Cache<K, V> cache;
+
+        @Override
+        public V get(K key) {
+            return cache.getIfPresent(key);
+        }
+
+        @Override
+        public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+            return cache.get(key, mappingFunction);
+        }
+
+        @Override
+        public void put(K key, V value) {
+            cache.put(key, value);
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            return cache.asMap().putIfAbsent(key, value);
+        }
+
+        @Override
+        public long size() {
+            return cache.estimatedSize();
+        }
+
+        @Override
+        public long getHitCount() {
+            return cache.stats().hitCount();
+        }
+
+        @Override
+        public long getMissCount() {
+            return cache.stats().missCount();
+        }
+    }
+}
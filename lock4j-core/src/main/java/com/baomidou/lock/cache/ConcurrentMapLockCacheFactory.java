@@ -0,0 +1,94 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.cache;
+
+import com.baomidou.lock.LockCache;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <p>基于{@link ConcurrentHashMap}的缓存工厂，缓存为强引用且不限容量。
+ *
+ * <p>lock4j缓存的键通常为方法或注解中的表达式，数量在启动后即趋于稳定，
+ * 因此默认不会淘汰缓存，以免在内存紧张时因缓存被回收而重新解析。
+ */
+public class ConcurrentMapLockCacheFactory extends AbstractLockCacheFactory {
+
+    @Override
+    protected <K, V> LockCache<K, V> doCreateCache(String name) {
+        return new ConcurrentMapLockCache<>(name);
+    }
+
+    @RequiredArgsConstructor
+    private static class ConcurrentMapLockCache<K, V> implements LockCache<K, V> {
+
+        @Getter
+        private final String name;
+        private final Map<K, V> cache = new ConcurrentHashMap<>(16);
+        private final LongAdder hitCount = new LongAdder();
+        private final LongAdder missCount = new LongAdder();
+
+        @Override
+        public V get(K key) {
+            V value = cache.get(key);
+            (value != null ? hitCount : missCount).increment();
+            return value;
+        }
+
+        @Override
+        public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+            // 命中时不进入computeIfAbsent，以免在JDK8下竞争桶锁
+            V value = cache.get(key);
+            if (value != null) {
+                hitCount.increment();
+                return value;
+            }
+            missCount.increment();
+            return cache.computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        public void put(K key, V value) {
+            cache.put(key, value);
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            return cache.putIfAbsent(key, value);
+        }
+
+        @Override
+        public long size() {
+            return cache.size();
+        }
+
+        @Override
+        public long getHitCount() {
+            return hitCount.sum();
+        }
+
+        @Override
+        public long getMissCount() {
+            return missCount.sum();
+        }
+    }
+}
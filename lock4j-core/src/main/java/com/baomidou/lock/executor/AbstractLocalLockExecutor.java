@@ -0,0 +1,228 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockOptions;
+import com.baomidou.lock.exception.LockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>本地锁执行器的基类，实现了基于{@link LocalLockLease}的锁过期与获取流程。
+ *
+ * <p>锁的过期时间基于{@link System#nanoTime()}，不受系统时钟调整的影响。
+ * 持有中的锁到期后将由{@link LocalLockTimingWheel}主动标记为过期并移除，
+ * 正在等待的线程最多只等待到持有者的过期时间，届时将转而竞争新的锁实例，而不必等到获取锁超时。
+ *
+ * @param <T> 锁实例类型
+ * @see LocalLockExecutor
+ * @see LocalReadWriteLockExecutor
+ */
+@Slf4j
+abstract class AbstractLocalLockExecutor<T> extends AbstractLockExecutor<T> implements DisposableBean {
+
+    /**
+     * 未在{@link LockOptions}中指定时，是否公平获取锁
+     */
+    private final boolean fair;
+
+    /**
+     * 用于使持有中的锁到期时主动过期的时间轮
+     */
+    final LocalLockTimingWheel timingWheel;
+
+    /**
+     * 用于生成fencing token的计数器，由执行器中所有的key共用
+     */
+    private final AtomicLong fencingTokens = new AtomicLong();
+
+    /**
+     * 构造器
+     *
+     * @param fair            默认是否公平获取锁
+     * @param timerThreadName 时间轮线程名称
+     */
+    AbstractLocalLockExecutor(boolean fair, String timerThreadName) {
+        this.fair = fair;
+        this.timingWheel = new LocalLockTimingWheel(timerThreadName);
+    }
+
+    /**
+     * 尝试针对 key 加锁
+     *
+     * @param lockKey        锁标识
+     * @param lockValue      锁值
+     * @param expire         锁有效时间，单位毫秒
+     * @param acquireTimeout 获取锁超时时间，单位毫秒
+     * @return 锁实例
+     */
+    @Override
+    public T acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        return acquire(lockKey, lockValue, expire, acquireTimeout, LockOptions.DEFAULT);
+    }
+
+    /**
+     * 尝试针对 key 加锁，并根据{@link LockOptions#fair}决定是否公平获取
+     *
+     * @param lockKey        锁标识
+     * @param lockValue      锁值
+     * @param expire         锁有效时间，单位毫秒
+     * @param acquireTimeout 获取锁超时时间，单位毫秒
+     * @param options        加锁选项
+     * @return 锁实例
+     * @see #acquire(String, String, long, long)
+     */
+    @Override
+    public T acquire(String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+        boolean fairAcquire = Objects.isNull(options.getFair()) ? fair : options.getFair();
+        try {
+            return doAcquire(lockKey, expire, acquireTimeout, fairAcquire, options);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("lock fail", e);
+            throw new LockException();
+        }
+    }
+
+    private T doAcquire(
+        String lockKey, long expire, long acquireTimeout, boolean fair, LockOptions options) throws InterruptedException {
+        long timeout = TimeUnit.MILLISECONDS.toNanos(Math.max(acquireTimeout, 0L));
+        long waitUntil = 0L;
+        T lock = obtainLock(lockKey, options);
+        while (true) {
+            LocalLockLease lease = getLease(lock);
+            // 非公平获取时先尝试插队，即使有其他线程正在等待
+            boolean locked = fair ? tryLock(lock, 0L) : tryLock(lock);
+            if (!locked && timeout > 0L) {
+                long now = LocalLockLease.now();
+                waitUntil = waitUntil == 0L ? now + timeout : waitUntil;
+                // 最多等待到持有者过期，届时持有者的锁将被强制过期
+                long wait = Math.min(waitUntil - now, lease.getRemainingNanos(now));
+                locked = wait > 0L && tryLock(lock, wait);
+            }
+            if (locked) {
+                // 不管是重入还是新加锁，都需要重置过期时间，若锁已经过期或被移除，则释放后重新获取
+                if (isCurrent(lockKey, lock) && renew(lock, expire)) {
+                    return lock;
+                }
+                unlock(lock);
+            } else if (!lease.tryExpire()) {
+                if (timeout == 0L || LocalLockLease.now() - waitUntil >= 0L) {
+                    abandon(lock);
+                    return null;
+                }
+                // 持有者在等待期间续期了锁，继续等待
+                continue;
+            } else {
+                abandon(lock);
+            }
+            lock = obtainLock(lockKey, options);
+        }
+    }
+
+    /**
+     * 在持有锁期间递增计数器作为fencing token，由于下一个持有者只能在当前持有者释放或过期后获取锁，因此其token总是更大
+     *
+     * @param lockKey      锁标识
+     * @param lockInstance 锁实例
+     * @return fencing token
+     */
+    @Override
+    public long getFencingToken(String lockKey, T lockInstance) {
+        return fencingTokens.incrementAndGet();
+    }
+
+    /**
+     * 获取key对应的锁实例
+     *
+     * @param lockKey 锁标识
+     * @param options 加锁选项
+     * @return 锁实例
+     */
+    abstract T obtainLock(String lockKey, LockOptions options);
+
+    /**
+     * 获取锁实例的租约
+     *
+     * @param lock 锁实例
+     * @return 租约
+     */
+    abstract LocalLockLease getLease(T lock);
+
+    /**
+     * 尝试立即加锁，即使有其他线程正在等待也会插队
+     *
+     * @param lock 锁实例
+     * @return 是否加锁成功
+     */
+    abstract boolean tryLock(T lock);
+
+    /**
+     * 在指定时间内尝试加锁，遵循锁实例的公平性
+     *
+     * @param lock    锁实例
+     * @param timeout 等待时间，单位纳秒
+     * @return 是否加锁成功
+     * @throws InterruptedException 等待期间线程被中断
+     */
+    abstract boolean tryLock(T lock, long timeout) throws InterruptedException;
+
+    /**
+     * 释放通过{@link #tryLock}获取的锁实例
+     *
+     * @param lock 锁实例
+     */
+    abstract void unlock(T lock);
+
+    /**
+     * 锁实例是否仍然是key对应的锁实例
+     *
+     * @param lockKey 锁标识
+     * @param lock    锁实例
+     * @return 是否
+     */
+    abstract boolean isCurrent(String lockKey, T lock);
+
+    /**
+     * 获取锁后更新过期时间
+     *
+     * @param lock   锁实例
+     * @param expire 锁的有效时间，单位毫秒
+     * @return 是否更新成功，锁已被强制过期时返回{@code false}
+     * @see LocalLockLease#renew
+     */
+    abstract boolean renew(T lock, long expire);
+
+    /**
+     * 放弃通过{@link #obtainLock}获取但未能加锁的锁实例
+     *
+     * @param lock 锁实例
+     */
+    abstract void abandon(T lock);
+
+    /**
+     * 停止时间轮线程
+     */
+    @Override
+    public void destroy() {
+        timingWheel.shutdown();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockOptions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * <p>支持非阻塞加解锁的执行器，由{@link LockExecutor}的实现类按需实现。
+ *
+ * <p>与{@link LockExecutor}不同，异步加锁得到的锁不与任何线程绑定，可以在任意线程上通过{@link #releaseLockAsync}释放。
+ * 因此异步加锁得到的锁实例类型可能与同步加锁时不同，只能通过{@link #releaseLockAsync}释放。
+ *
+ * @param <A> 异步加锁得到的锁实例类型
+ * @see com.baomidou.lock.LockTemplate#lockAsync
+ */
+public interface AsyncLockExecutor<A> {
+
+    /**
+     * 当前是否支持异步加解锁，不支持时{@link com.baomidou.lock.LockTemplate}将退化为同步调用
+     *
+     * @return 是否支持
+     */
+    default boolean isAsyncSupported() {
+        return true;
+    }
+
+    /**
+     * 异步加锁，只尝试一次，由调用方负责重试
+     *
+     * @param lockKey        锁标识
+     * @param lockValue      锁值
+     * @param expire         锁有效时间
+     * @param acquireTimeout 获取锁超时时间
+     * @return 锁实例，加锁失败时结果为null
+     */
+    CompletionStage<A> acquireAsync(String lockKey, String lockValue, long expire, long acquireTimeout);
+
+    /**
+     * 异步加锁，只尝试一次，由调用方负责重试，默认忽略加锁选项
+     *
+     * @param lockKey        锁标识
+     * @param lockValue      锁值
+     * @param expire         锁有效时间
+     * @param acquireTimeout 获取锁超时时间
+     * @param options        加锁选项
+     * @return 锁实例，加锁失败时结果为null
+     * @see LockExecutor#acquire(String, String, long, long, LockOptions)
+     */
+    default CompletionStage<A> acquireAsync(
+        String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+        return acquireAsync(lockKey, lockValue, expire, acquireTimeout);
+    }
+
+    /**
+     * 异步解锁
+     *
+     * @param key          加锁key
+     * @param value        加锁value
+     * @param lockInstance 通过{@link #acquireAsync}获取的锁实例
+     * @return 是否释放成功
+     */
+    CompletionStage<Boolean> releaseLockAsync(String key, String value, A lockInstance);
+
+    /**
+     * 异步获取本次加锁对应的fencing token，默认不支持
+     *
+     * @param lockKey      锁标识
+     * @param lockInstance 通过{@link #acquireAsync}获取的锁实例
+     * @return fencing token，不支持时为{@link LockExecutor#NO_FENCING_TOKEN}
+     * @see LockExecutor#getFencingToken
+     */
+    default CompletionStage<Long> getFencingTokenAsync(String lockKey, A lockInstance) {
+        return CompletableFuture.completedFuture(LockExecutor.NO_FENCING_TOKEN);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import java.util.List;
+
+/**
+ * <p>支持一次性对多个key加锁的执行器，由{@link LockExecutor}的实现类按需实现。
+ *
+ * <p>加锁要么全部成功，要么全部失败，{@link com.baomidou.lock.LockTemplate#lockAll}将优先通过该接口加锁，
+ * 以减少逐个加锁时的网络往返，执行器未实现该接口时则逐个加锁。
+ *
+ * @param <B> 批量加锁得到的锁实例类型
+ * @see com.baomidou.lock.LockTemplate#lockAll
+ */
+public interface BatchLockExecutor<B> {
+
+    /**
+     * 是否支持通过{@link #acquireAll}对这些key加锁，不支持时{@link com.baomidou.lock.LockTemplate#lockAll}将逐个加锁。
+     * 比如Redis集群模式下，一次脚本调用只能访问同一个slot中的key
+     *
+     * @param lockKeys 锁标识，已经排序并去重
+     * @return 是否支持
+     */
+    default boolean isBatchSupported(List<String> lockKeys) {
+        return true;
+    }
+
+    /**
+     * 对所有key加锁，要么全部成功，要么全部失败
+     *
+     * @param lockKeys       锁标识，已经排序并去重
+     * @param lockValue      锁值
+     * @param expire         锁有效时间
+     * @param acquireTimeout 获取锁超时时间
+     * @return 锁实例，加锁失败时为null
+     */
+    B acquireAll(List<String> lockKeys, String lockValue, long expire, long acquireTimeout);
+
+    /**
+     * 释放通过{@link #acquireAll}获取的锁
+     *
+     * @param lockKeys     锁标识
+     * @param value        锁值
+     * @param lockInstance 锁实例
+     * @return 是否全部释放成功
+     */
+    boolean releaseAll(List<String> lockKeys, String value, B lockInstance);
+
+    /**
+     * 获取本次批量加锁对应的fencing token，该token对所有key均有效，默认不支持
+     *
+     * @param lockKeys     锁标识
+     * @param lockInstance 通过{@link #acquireAll}获取的锁实例
+     * @return fencing token，不支持时为{@link LockExecutor#NO_FENCING_TOKEN}
+     * @see LockExecutor#getFencingToken
+     */
+    default long getFencingToken(List<String> lockKeys, B lockInstance) {
+        return LockExecutor.NO_FENCING_TOKEN;
+    }
+}
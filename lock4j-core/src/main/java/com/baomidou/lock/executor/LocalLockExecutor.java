@@ -1,47 +1,103 @@
 package com.baomidou.lock.executor;
 
-import com.baomidou.lock.exception.LockException;
-import lombok.AllArgsConstructor;
-import lombok.NoArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.util.ConcurrentReferenceHashMap;
+import com.baomidou.lock.LockOptions;
 
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
 
 /**
  * <p>基于{@link ReentrantLock}实现的单机本地锁执行器，用于提供加锁和解锁功能。
  *
+ * <p>默认情况下，每个key在使用期间对应一个独立的锁实例，使用完毕后即被移除。
+ * 当指定了条带数量时将使用条带模式：预先创建固定数量的锁实例，并根据key的哈希值选择对应的锁，
+ * 加解锁过程中不再创建锁实例，但不同的key可能会共用同一把锁，即：
+ * <ul>
+ *     <li>某个key被持有时，其他线程对共用同一把锁的key加锁将被阻塞；</li>
+ *     <li>同一线程对共用同一把锁的不同key加锁时将视为重入；</li>
+ * </ul>
+ * 因此条带模式仅适用于可以接受偶发误阻塞的场景。
+ *
+ * <p>锁实例总是以公平锁的形式创建，公平性由每次获取时决定：
+ * 公平获取时按等待顺序获取锁，非公平获取时若锁空闲则直接插队获取，失败后再排队等待。
+ * 因此同一个key的公平与非公平竞争者仍然竞争同一个锁实例，彼此互斥。
+ *
+ * <p>锁的过期时间与获取流程见{@link AbstractLocalLockExecutor}。
+ *
  * @author huangchengxing
  */
-@Slf4j
-@NoArgsConstructor
-@AllArgsConstructor
-public class LocalLockExecutor extends AbstractLockExecutor<LocalLockExecutor.LocalLock> {
+public class LocalLockExecutor extends AbstractLocalLockExecutor<LocalLockExecutor.LocalLock> {
 
     /**
-     * 是否为公平锁
+     * 最大条带数量
      */
-    private boolean fair = true;
+    private static final int MAXIMUM_STRIPES = 1 << 30;
+
+    /**
+     * 条带模式下的锁实例，数量总是2的幂，未开启条带模式时为{@code null}
+     */
+    private final AtomicReferenceArray<LocalLock> stripes;
 
     /**
      * <p>当前正在使用中的本地锁列表，每个key有且仅对应一个锁实例：
      * <ul>
      *     <li>当一个Key没有对应的锁时，线程应当创建并向列表中添加一个新的锁实例；</li>
      *     <li>当列表中的锁未过期时，多个线程可以正常的竞争同一把锁；</li>
-     *     <li>当列表中的锁已过期时，新的线程将会将其替换为新的锁实例，旧的锁实例将不再影响其他线程；</li>
-     *     <li>当线程解锁后，若没有其他竞争者正在使用该实例，则需要将锁实例从列表中移除；</li>
+     *     <li>当列表中的锁已过期时，将由时间轮或等待中的线程将其移除，之后的线程将使用新的锁实例，旧的锁实例将不再影响其他线程；</li>
+     *     <li>当锁被完全释放后，若没有其他竞争者正在使用该实例，则将锁实例从列表中移除；</li>
      * </ul>
      *
-     * <p>当用户直接通过{@link LocalLock}的API而非{@link #releaseLock}时进行解锁时，
-     * 可能会导致一个已经过期、且没有被任何线程持有的锁实例长时间存在于列表中，
-     * 为了防止内存泄露，我们将其列表对锁实例的引用设置为弱引用，以便在此情况下借助GC时对其进行回收。
+     * <p>即使用户直接通过{@link LocalLock}的API而非{@link #releaseLock}进行解锁，锁实例也会在完全释放时从列表中移除，
+     * 因此列表中只会保留仍被持有或有线程等待中的锁实例。
+     */
+    private final ConcurrentMap<String, LocalLock> lockMap = new ConcurrentHashMap<>(32);
+
+    /**
+     * 若key尚无对应的锁实例，或锁实例已经过期，则创建新的锁实例
      */
-    private final ConcurrentMap<String, LocalLock> lockMap = new ConcurrentReferenceHashMap<>(
-        32, ConcurrentReferenceHashMap.ReferenceType.WEAK
-    );
+    private final BiFunction<String, LocalLock, LocalLock> lockFactory = (key, current) ->
+        Objects.isNull(current) || current.lease.isDiscarded() ? new LocalLock(this, key, -1) : current;
+
+    /**
+     * 创建一个默认非公平获取锁的本地锁执行器
+     */
+    public LocalLockExecutor() {
+        this(false);
+    }
+
+    /**
+     * 创建一个本地锁执行器
+     *
+     * @param fair 默认是否公平获取锁
+     */
+    public LocalLockExecutor(boolean fair) {
+        this(fair, 0);
+    }
+
+    /**
+     * 创建一个本地锁执行器
+     *
+     * @param fair    默认是否公平获取锁
+     * @param stripes 条带数量，将向上取整为2的幂，小于等于0时不开启条带模式
+     */
+    public LocalLockExecutor(boolean fair, int stripes) {
+        super(fair, "lock4j-local-lock-timer");
+        this.stripes = stripes > 0 ? createStripes(stripes) : null;
+    }
+
+    private AtomicReferenceArray<LocalLock> createStripes(int stripes) {
+        int size = stripes >= MAXIMUM_STRIPES ? MAXIMUM_STRIPES
+            : stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        AtomicReferenceArray<LocalLock> locks = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < size; i++) {
+            locks.set(i, new LocalLock(this, null, i));
+        }
+        return locks;
+    }
 
     /**
      * <p>尝试针对 key 加锁：
@@ -59,24 +115,117 @@ public class LocalLockExecutor extends AbstractLockExecutor<LocalLockExecutor.Lo
      */
     @Override
     public LocalLock acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
-        // 如果锁不存在，则创建一个新实例
-        // 如果存在但是已经过期，则使用一个新实例替换它，此时旧锁的解锁与否将不再影响其他线程
-        // 如果锁仍然未过期，则继续复用该实例，此时多个线程可能会竞争同一把锁
-        LocalLock lock = lockMap.compute(lockKey, (key, current) ->
-            Objects.isNull(current) || current.isExpired() ? new LocalLock(fair, expire) : current
-        );
-        try {
-            if (lock.tryLock(acquireTimeout, TimeUnit.MILLISECONDS)) {
-                // 不管是重入还是新加锁，都需要重置过期时间
-                lock.resetExpire(expire);
-                return lock;
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("lock fail", e);
-            throw new LockException();
+        return super.acquire(lockKey, lockValue, expire, acquireTimeout);
+    }
+
+    /**
+     * 尝试针对 key 加锁，并根据{@link LockOptions#fair}决定是否公平获取
+     *
+     * @param lockKey        锁标识
+     * @param lockValue      锁值
+     * @param expire         锁有效时间，单位毫秒
+     * @param acquireTimeout 获取锁超时时间，单位毫秒
+     * @param options        加锁选项
+     * @return 锁实例
+     * @see #acquire(String, String, long, long)
+     */
+    @Override
+    public LocalLock acquire(String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+        return super.acquire(lockKey, lockValue, expire, acquireTimeout, options);
+    }
+
+    /**
+     * 获取key对应的锁实例
+     *
+     * @param lockKey 锁标识
+     * @param options 加锁选项
+     * @return 锁实例
+     */
+    @Override
+    LocalLock obtainLock(String lockKey, LockOptions options) {
+        if (Objects.isNull(stripes)) {
+            return lockMap.compute(lockKey, lockFactory);
+        }
+        int h = lockKey.hashCode();
+        return stripes.get((h ^ (h >>> 16)) & (stripes.length() - 1));
+    }
+
+    /**
+     * 锁实例是否仍然是key对应的锁实例
+     *
+     * @param lockKey 锁标识
+     * @param lock    锁实例
+     * @return 是否
+     */
+    @Override
+    boolean isCurrent(String lockKey, LocalLock lock) {
+        return Objects.isNull(stripes) ? lockMap.get(lockKey) == lock : stripes.get(lock.stripe) == lock;
+    }
+
+    @Override
+    LocalLockLease getLease(LocalLock lock) {
+        return lock.lease;
+    }
+
+    @Override
+    boolean tryLock(LocalLock lock) {
+        return lock.tryLock();
+    }
+
+    @Override
+    boolean tryLock(LocalLock lock, long timeout) throws InterruptedException {
+        return lock.tryLock(timeout, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    void unlock(LocalLock lock) {
+        lock.unlock();
+    }
+
+    @Override
+    boolean renew(LocalLock lock, long expire) {
+        return lock.lease.renew(expire, lock.getHoldCount() > 1, false);
+    }
+
+    /**
+     * 将已过期的锁实例移除，条带模式下使用新实例替换它
+     *
+     * @param lock 锁实例
+     */
+    void discard(LocalLock lock) {
+        if (Objects.isNull(stripes)) {
+            lockMap.remove(lock.key, lock);
+        } else if (stripes.get(lock.stripe) == lock) {
+            stripes.compareAndSet(lock.stripe, lock, new LocalLock(this, null, lock.stripe));
+        }
+    }
+
+    /**
+     * 若锁实例已经不被持有，且没有其他线程正在等待，则将其从列表中移除
+     *
+     * @param lock 锁实例
+     */
+    @Override
+    void abandon(LocalLock lock) {
+        if (Objects.isNull(stripes)) {
+            lockMap.computeIfPresent(lock.key, (k, current) ->
+                current == lock && !current.isLocked() && !current.hasQueuedThreads() ? null : current
+            );
+        }
+    }
+
+    /**
+     * 锁实例被完全释放前调用，除非有其他线程已经获取到该实例并进行竞争，否则将其从列表移除
+     *
+     * @param lock 锁实例
+     */
+    void beforeRelease(LocalLock lock) {
+        if (Objects.isNull(stripes)) {
+            // 若锁已经在列表中不存在，说明其可能已因过期而被移除，故不做任何处理
+            lockMap.computeIfPresent(lock.key, (k, current) ->
+                current == lock && current.getQueueLength() == 0 ? null : current
+            );
         }
-        return null;
     }
 
     /**
@@ -99,29 +248,15 @@ public class LocalLockExecutor extends AbstractLockExecutor<LocalLockExecutor.Lo
         if (!lockInstance.isHeldByCurrentThread()) {
             return false;
         }
-        boolean expired = lockInstance.isExpired();
-        // 进入此步骤，说明当前线程仍然持有锁，不过可能已经过期，也无法保证在列表中依然存在
-        lockMap.computeIfPresent(key, (k, current) -> {
-            // 若锁已经在列表中不存在，说明其可能已因过期而被其他线程移除，故不做任何处理
-            if (current != lockInstance) {
-                return current;
-            }
-            // 若锁仍然存在，且可重入数量大于1，则不做任何处理，等待后续重入
-            if (current.getHoldCount() > 1) {
-                return current;
-            }
-            // 锁仍然存在，且已经是最后一次重入，
-            // 此时，除非有其他线程已经获取到该实例并进行竞争，否则将其从列表移除
-            return current.getQueueLength() > 0 ? current : null;
-        });
-        // 无论如何都进行一次解锁操作，因此除非锁已经过期，否则总是认为解锁成功
+        boolean expired = lockInstance.lease.isExpired();
+        // 无论如何都进行一次解锁操作，完全释放时锁实例将自行从列表中移除，因此除非锁已经过期，否则总是认为解锁成功
         lockInstance.unlock();
         return !expired;
     }
 
     /**
      * 基于{@link ReentrantLock}实现的本地锁,
-     * 当创建时需要指定锁的有效时间，
+     * 获取锁时需要指定锁的有效时间，
      * 如果有效时间小于0则表示永不过期。
      *
      * @author huangchengxing
@@ -133,30 +268,33 @@ public class LocalLockExecutor extends AbstractLockExecutor<LocalLockExecutor.Lo
          */
         public static final long NEVER_EXPIRE = -1L;
 
+        private final transient LocalLockExecutor executor;
+        private final transient LocalLockLease lease;
+        private final String key;
+        private final int stripe;
+
         /**
          * 构造器
          *
-         * @param fair 是否为公平锁
-         * @param expireTime 锁的有效时间
+         * @param executor 所属执行器
+         * @param key      锁标识，条带模式下为{@code null}
+         * @param stripe   条带下标，非条带模式下为-1
          */
-        LocalLock(boolean fair, long expireTime) {
-            super(fair);
-            this.expireTime = expireTime;
+        LocalLock(LocalLockExecutor executor, String key, int stripe) {
+            super(true);
+            this.executor = executor;
+            this.lease = new Lease(executor.timingWheel);
+            this.key = key;
+            this.stripe = stripe;
         }
 
-        /**
-         * 过期时间点
-         */
-        private long expireTime;
-
         /**
          * 当前锁是否已经过期
          *
          * @return 是否
          */
         public boolean isExpired() {
-            return expireTime != NEVER_EXPIRE
-                && System.currentTimeMillis() > expireTime;
+            return lease.isExpired();
         }
 
         /**
@@ -165,8 +303,41 @@ public class LocalLockExecutor extends AbstractLockExecutor<LocalLockExecutor.Lo
          * @param expire 锁的有效时间
          */
         public void resetExpire(long expire) {
-            this.expireTime = expire < 0 ?
-                NEVER_EXPIRE : System.currentTimeMillis() + expire;
+            lease.renew(expire, getHoldCount() > 1, false);
+        }
+
+        /**
+         * 释放锁，完全释放时将其从执行器中移除
+         */
+        @Override
+        public void unlock() {
+            if (getHoldCount() != 1) {
+                super.unlock();
+                return;
+            }
+            executor.beforeRelease(this);
+            super.unlock();
+            lease.released();
+        }
+
+        /**
+         * 锁实例的租约
+         */
+        private final class Lease extends LocalLockLease {
+
+            Lease(LocalLockTimingWheel timingWheel) {
+                super(timingWheel);
+            }
+
+            @Override
+            boolean isHeld() {
+                return isLocked();
+            }
+
+            @Override
+            void discard() {
+                executor.discard(LocalLock.this);
+            }
         }
     }
 }
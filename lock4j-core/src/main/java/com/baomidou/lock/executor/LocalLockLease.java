@@ -0,0 +1,199 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * <p>本地锁实例的租约，记录锁实例的过期时间，并由{@link LocalLockTimingWheel}在到期时主动使其过期。
+ *
+ * <p>过期时间基于{@link System#nanoTime()}，不受系统时钟调整的影响。
+ * 锁实例被强制过期后将不再对应任何key，其持有者的解锁与否将不再影响其他线程。
+ *
+ * @see AbstractLocalLockExecutor
+ */
+abstract class LocalLockLease {
+
+    /**
+     * 永不过期
+     */
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    /**
+     * 已被强制过期
+     */
+    static final long EXPIRED = Long.MIN_VALUE;
+
+    private static final long ORIGIN = System.nanoTime();
+    private static final AtomicLongFieldUpdater<LocalLockLease> DEADLINE =
+        AtomicLongFieldUpdater.newUpdater(LocalLockLease.class, "deadline");
+
+    private final LocalLockTimingWheel timingWheel;
+
+    /**
+     * 过期时间点，基于{@link #now()}
+     */
+    private volatile long deadline = NO_DEADLINE;
+
+    /**
+     * 以下字段由{@link LocalLockTimingWheel}使用
+     */
+    LocalLockLease prev;
+    LocalLockLease next;
+    LocalLockLease nextPending;
+    int bucket = -1;
+    volatile int pending;
+    volatile long scheduledTime = LocalLockTimingWheel.UNSCHEDULED;
+
+    LocalLockLease(LocalLockTimingWheel timingWheel) {
+        this.timingWheel = timingWheel;
+    }
+
+    /**
+     * 获取当前时间，单位纳秒，单调递增且不受系统时钟调整的影响
+     *
+     * @return 当前时间
+     */
+    static long now() {
+        return System.nanoTime() - ORIGIN;
+    }
+
+    /**
+     * 锁实例当前是否被任意线程持有
+     *
+     * @return 是否
+     */
+    abstract boolean isHeld();
+
+    /**
+     * 锁实例被强制过期后，将其从所属执行器中移除
+     */
+    abstract void discard();
+
+    /**
+     * 锁是否已经过期
+     *
+     * @return 是否
+     */
+    boolean isExpired() {
+        long current = deadline;
+        return current == EXPIRED || (current != NO_DEADLINE && now() - current > 0L);
+    }
+
+    /**
+     * 锁是否已被强制过期
+     *
+     * @return 是否
+     */
+    boolean isDiscarded() {
+        return deadline == EXPIRED;
+    }
+
+    /**
+     * 获取锁后更新过期时间，若当前线程重入时锁已经过期，则将其强制过期
+     *
+     * @param expire     锁的有效时间，单位毫秒，小于0时永不过期
+     * @param reentrant  当前线程是否为重入
+     * @param extendOnly 是否只允许延长过期时间，用于多个线程共同持有锁的情况
+     * @return 是否更新成功，锁已被强制过期时返回{@code false}
+     */
+    boolean renew(long expire, boolean reentrant, boolean extendOnly) {
+        long next = expire < 0 ? NO_DEADLINE : now() + TimeUnit.MILLISECONDS.toNanos(expire);
+        long target;
+        while (true) {
+            long current = deadline;
+            if (current == EXPIRED) {
+                return false;
+            }
+            if (reentrant && current != NO_DEADLINE && now() - current > 0L) {
+                if (expire(current)) {
+                    return false;
+                }
+                continue;
+            }
+            target = extendOnly && (current == NO_DEADLINE || current - next > 0L) ? current : next;
+            if (target == current || DEADLINE.compareAndSet(this, current, target)) {
+                break;
+            }
+        }
+        if (target != NO_DEADLINE && target < scheduledTime) {
+            timingWheel.submit(this, target);
+        }
+        return true;
+    }
+
+    /**
+     * 若锁已经到期，则将其强制过期
+     *
+     * @return 锁是否已被强制过期
+     */
+    boolean tryExpire() {
+        long current = deadline;
+        if (current == EXPIRED) {
+            return true;
+        }
+        return current != NO_DEADLINE && now() - current > 0L && (expire(current) || isDiscarded());
+    }
+
+    /**
+     * 将过期时间为{@code expected}的锁强制过期，并将其从所属执行器中移除
+     *
+     * @param expected 预期的过期时间
+     * @return 是否成功
+     */
+    boolean expire(long expected) {
+        if (!DEADLINE.compareAndSet(this, expected, EXPIRED)) {
+            return false;
+        }
+        discard();
+        return true;
+    }
+
+    /**
+     * 获取距离过期的剩余时间
+     *
+     * @param now 当前时间
+     * @return 剩余时间，永不过期时为{@link Long#MAX_VALUE}
+     */
+    long getRemainingNanos(long now) {
+        long current = deadline;
+        if (current == NO_DEADLINE) {
+            return Long.MAX_VALUE;
+        }
+        return current == EXPIRED ? 0L : Math.max(current - now, 0L);
+    }
+
+    /**
+     * 获取时间轮调度的到期时间，仅持有中的锁需要调度
+     *
+     * @return 到期时间，无需调度时为{@link LocalLockTimingWheel#UNSCHEDULED}
+     */
+    long getTimerDeadline() {
+        long current = deadline;
+        return current == EXPIRED || current == NO_DEADLINE || !isHeld() ? LocalLockTimingWheel.UNSCHEDULED : current;
+    }
+
+    /**
+     * 锁实例不再被任何线程持有后调用，通知时间轮取消调度
+     */
+    void released() {
+        if (scheduledTime != LocalLockTimingWheel.UNSCHEDULED) {
+            timingWheel.submit(this, LocalLockTimingWheel.UNSCHEDULED);
+        }
+    }
+}
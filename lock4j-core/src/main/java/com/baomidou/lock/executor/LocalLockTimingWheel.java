@@ -0,0 +1,295 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>用于主动使本地锁过期的分层时间轮，时间基于{@link System#nanoTime()}，不受系统时钟调整的影响。
+ *
+ * <p>时间轮共有4层，每层64个桶，第一层每个桶的跨度约为1ms，之后每层的跨度为上一层的64倍，
+ * 超出最后一层范围的锁将被放入溢出桶中，到期时再重新调度到下层。
+ * 桶仅由时间轮线程访问，其他线程通过无锁的侵入式栈提交需要调度或取消调度的锁实例，因此不会产生额外的内存分配。
+ * 锁租约到期时若锁实例仍被持有，则将其标记为已过期，并从执行器中移除；若已被释放，则直接将其从时间轮中移除。
+ *
+ * <p>时间轮线程在首次提交时启动，没有需要调度的锁时将一直休眠。
+ *
+ * @see LocalLockLease
+ */
+final class LocalLockTimingWheel implements Runnable {
+
+    /**
+     * 未被调度
+     */
+    static final long UNSCHEDULED = Long.MAX_VALUE;
+
+    /**
+     * 每层桶跨度的位移量，最后一个元素为溢出桶
+     */
+    private static final int[] SHIFTS = { 20, 26, 32, 38, 44 };
+    private static final int BUCKETS = 64;
+    private static final int OVERFLOW = (SHIFTS.length - 1) * BUCKETS;
+
+    /**
+     * 有锁实例被调度时的最长休眠时间，约67ms，用于限制已释放的锁实例在时间轮中的停留时间
+     */
+    private static final long MAXIMUM_PARK_NANOS = 1L << SHIFTS[1];
+
+    private static final AtomicIntegerFieldUpdater<LocalLockLease> PENDING =
+        AtomicIntegerFieldUpdater.newUpdater(LocalLockLease.class, "pending");
+
+    private final String threadName;
+    private final LocalLockLease[] buckets = new LocalLockLease[OVERFLOW + 1];
+    private final AtomicReference<LocalLockLease> pending = new AtomicReference<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile Thread thread;
+    private volatile boolean shutdown;
+
+    /**
+     * 时间轮线程下次被唤醒的时间
+     */
+    private volatile long wakeTime = UNSCHEDULED;
+
+    /**
+     * 上次推进的时间及被调度的锁数量，仅由时间轮线程访问
+     */
+    private long nanos;
+    private int size;
+
+    LocalLockTimingWheel(String threadName) {
+        this.threadName = threadName;
+    }
+
+    /**
+     * 提交需要重新调度的锁实例，时间轮线程将根据其当前状态进行调度或取消调度
+     *
+     * @param lock     锁实例
+     * @param deadline 锁实例的到期时间，早于时间轮线程的唤醒时间时将立即唤醒时间轮线程
+     */
+    void submit(LocalLockLease lock, long deadline) {
+        if (shutdown || !PENDING.compareAndSet(lock, 0, 1)) {
+            return;
+        }
+        LocalLockLease head;
+        do {
+            head = pending.get();
+            lock.nextPending = head;
+        } while (!pending.compareAndSet(head, lock));
+        Thread current = thread;
+        if (current == null) {
+            current = start();
+        }
+        if (deadline < wakeTime) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    private Thread start() {
+        if (started.compareAndSet(false, true)) {
+            Thread timer = new Thread(this, threadName);
+            timer.setDaemon(true);
+            thread = timer;
+            timer.start();
+            return timer;
+        }
+        Thread current;
+        while ((current = thread) == null) {
+            Thread.yield();
+        }
+        return current;
+    }
+
+    /**
+     * 停止时间轮线程
+     */
+    void shutdown() {
+        shutdown = true;
+        Thread current = thread;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    @Override
+    public void run() {
+        nanos = LocalLockLease.now();
+        while (!shutdown) {
+            long now = LocalLockLease.now();
+            advance(now);
+            drain(now);
+            long wake = nextWakeTime();
+            wakeTime = wake;
+            if (pending.get() != null) {
+                continue;
+            }
+            if (wake == UNSCHEDULED) {
+                LockSupport.park(this);
+            } else {
+                LockSupport.parkNanos(this, wake - LocalLockLease.now());
+            }
+        }
+    }
+
+    /**
+     * 推进时间轮，处理已经到期的桶
+     *
+     * @param now 当前时间
+     */
+    private void advance(long now) {
+        long previous = nanos;
+        nanos = now;
+        for (int level = 0; level < SHIFTS.length; level++) {
+            long previousTicks = previous >>> SHIFTS[level];
+            long delta = (now >>> SHIFTS[level]) - previousTicks;
+            if (delta <= 0L) {
+                break;
+            }
+            expire(level, previousTicks, delta, now);
+        }
+    }
+
+    private void expire(int level, long previousTicks, long delta, long now) {
+        int count = level * BUCKETS == OVERFLOW ? 1 : BUCKETS;
+        int mask = count - 1;
+        int steps = (int) Math.min(delta + 1, count);
+        int start = (int) (previousTicks & mask);
+        for (int i = start; i < start + steps; i++) {
+            int bucket = level * BUCKETS + (i & mask);
+            LocalLockLease lock = buckets[bucket];
+            buckets[bucket] = null;
+            while (lock != null) {
+                LocalLockLease next = lock.next;
+                lock.prev = null;
+                lock.next = null;
+                lock.bucket = -1;
+                size--;
+                process(lock, now);
+                lock = next;
+            }
+        }
+    }
+
+    /**
+     * 处理其他线程提交的锁实例
+     *
+     * @param now 当前时间
+     */
+    private void drain(long now) {
+        LocalLockLease lock = pending.getAndSet(null);
+        while (lock != null) {
+            LocalLockLease next = lock.nextPending;
+            lock.nextPending = null;
+            PENDING.set(lock, 0);
+            unlink(lock);
+            process(lock, now);
+            lock = next;
+        }
+    }
+
+    /**
+     * 根据锁实例的当前状态进行调度：若已释放则不再调度，若已到期则使其过期，否则按到期时间放入对应的桶中
+     *
+     * @param lock 锁实例
+     * @param now  当前时间
+     */
+    private void process(LocalLockLease lock, long now) {
+        // 先清除调度时间再读取锁状态，与加解锁线程先修改锁状态再读取调度时间的顺序相反，从而保证两者至少有一方能感知到对方的修改
+        lock.scheduledTime = UNSCHEDULED;
+        long deadline = lock.getTimerDeadline();
+        if (deadline != UNSCHEDULED && deadline <= now) {
+            lock.expire(deadline);
+            deadline = lock.getTimerDeadline();
+        }
+        if (deadline != UNSCHEDULED) {
+            link(lock, deadline);
+        }
+    }
+
+    private void link(LocalLockLease lock, long deadline) {
+        int bucket = findBucket(Math.max(deadline, nanos));
+        LocalLockLease head = buckets[bucket];
+        lock.next = head;
+        if (head != null) {
+            head.prev = lock;
+        }
+        buckets[bucket] = lock;
+        lock.bucket = bucket;
+        lock.scheduledTime = deadline;
+        size++;
+    }
+
+    private void unlink(LocalLockLease lock) {
+        if (lock.bucket < 0) {
+            return;
+        }
+        LocalLockLease prev = lock.prev;
+        LocalLockLease next = lock.next;
+        if (prev == null) {
+            buckets[lock.bucket] = next;
+        } else {
+            prev.next = next;
+        }
+        if (next != null) {
+            next.prev = prev;
+        }
+        lock.prev = null;
+        lock.next = null;
+        lock.bucket = -1;
+        size--;
+    }
+
+    private int findBucket(long time) {
+        long duration = time - nanos;
+        for (int level = 0; level < SHIFTS.length - 1; level++) {
+            if (duration < 1L << SHIFTS[level + 1]) {
+                return level * BUCKETS + (int) ((time >>> SHIFTS[level]) & (BUCKETS - 1));
+            }
+        }
+        return OVERFLOW;
+    }
+
+    /**
+     * 计算下次需要唤醒的时间：第一层为最近的非空桶的结束时间，其他层为最近的非空桶的开始时间，
+     * 且不晚于{@link #MAXIMUM_PARK_NANOS}之后
+     *
+     * @return 唤醒时间，没有被调度的锁实例时为{@link #UNSCHEDULED}
+     */
+    private long nextWakeTime() {
+        if (size == 0) {
+            return UNSCHEDULED;
+        }
+        long latest = nanos + MAXIMUM_PARK_NANOS;
+        long ticks = nanos >>> SHIFTS[0];
+        for (int k = 0; k < BUCKETS; k++) {
+            if (buckets[(int) ((ticks + k) & (BUCKETS - 1))] != null) {
+                return Math.min((ticks + k + 1) << SHIFTS[0], latest);
+            }
+        }
+        for (int level = 1; level < SHIFTS.length - 1; level++) {
+            ticks = nanos >>> SHIFTS[level];
+            for (int k = 1; k <= BUCKETS; k++) {
+                if (buckets[level * BUCKETS + (int) ((ticks + k) & (BUCKETS - 1))] != null) {
+                    return Math.min((ticks + k) << SHIFTS[level], latest);
+                }
+            }
+        }
+        return latest;
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockOptions;
+import com.baomidou.lock.annotation.LockMode;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+/**
+ * <p>基于{@link ReentrantReadWriteLock}实现的单机本地读写锁执行器，根据{@link LockOptions#mode}获取读锁或写锁：
+ * 同一个key的读锁之间可以共同持有，写锁则与其他任何锁互斥。
+ *
+ * <p>与{@link LocalLockExecutor}一样，每个key在使用期间对应一个独立的锁实例，使用完毕后即被移除；
+ * 锁实例总是以公平锁的形式创建，公平性由每次获取时决定；锁的过期与获取流程见{@link AbstractLocalLockExecutor}。
+ * 读锁被多个线程共同持有时，锁实例的过期时间为各持有者中最晚的过期时间，到期后所有持有者将一并失去该锁。
+ *
+ * <p>与{@link ReentrantReadWriteLock}一样，持有写锁的线程可以再获取读锁，但持有读锁的线程无法再获取写锁。
+ *
+ * @see LocalLockExecutor
+ */
+public class LocalReadWriteLockExecutor extends AbstractLocalLockExecutor<LocalReadWriteLockExecutor.LockView> {
+
+    /**
+     * <p>当前正在使用中的本地锁列表，每个key有且仅对应一个锁实例。
+     * 锁实例记录了通过{@link #obtainLock}获取它且尚未释放或放弃的次数，
+     * 计数的增减均在{@link ConcurrentMap#compute}中进行，归零时即将锁实例从列表中移除，
+     * 因此即使锁被多个读线程共同持有，也不会有线程在锁实例被移除后仍然获取到它。
+     */
+    private final ConcurrentMap<String, LocalReadWriteLock> lockMap = new ConcurrentHashMap<>(32);
+
+    /**
+     * 若key尚无对应的锁实例，或锁实例已经过期，则创建新的锁实例，并增加其使用计数
+     */
+    private final BiFunction<String, LocalReadWriteLock, LocalReadWriteLock> lockFactory = (key, current) -> {
+        LocalReadWriteLock lock = Objects.isNull(current) || current.lease.isDiscarded() ?
+            new LocalReadWriteLock(this, key) : current;
+        lock.users++;
+        return lock;
+    };
+
+    /**
+     * 创建一个默认非公平获取锁的本地读写锁执行器
+     */
+    public LocalReadWriteLockExecutor() {
+        this(false);
+    }
+
+    /**
+     * 创建一个本地读写锁执行器
+     *
+     * @param fair 默认是否公平获取锁
+     */
+    public LocalReadWriteLockExecutor(boolean fair) {
+        super(fair, "lock4j-local-read-write-lock-timer");
+    }
+
+    /**
+     * 获取key对应的锁实例，并根据{@link LockOptions#mode}返回其读锁或写锁
+     *
+     * @param lockKey 锁标识
+     * @param options 加锁选项
+     * @return 锁实例
+     */
+    @Override
+    LockView obtainLock(String lockKey, LockOptions options) {
+        LocalReadWriteLock lock = lockMap.compute(lockKey, lockFactory);
+        return options.getMode() == LockMode.READ ? lock.readView : lock.writeView;
+    }
+
+    @Override
+    LocalLockLease getLease(LockView lock) {
+        return lock.getReadWriteLock().lease;
+    }
+
+    /**
+     * 锁实例在被使用期间不会被移除，除非已被强制过期
+     *
+     * @param lockKey 锁标识
+     * @param lock    锁实例
+     * @return 是否
+     */
+    @Override
+    boolean isCurrent(String lockKey, LockView lock) {
+        return !lock.getReadWriteLock().lease.isDiscarded();
+    }
+
+    @Override
+    boolean tryLock(LockView lock) {
+        return lock.tryLock();
+    }
+
+    @Override
+    boolean tryLock(LockView lock, long timeout) throws InterruptedException {
+        return lock.tryLock(timeout, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    void unlock(LockView lock) {
+        lock.unlock();
+    }
+
+    /**
+     * 获取锁后更新过期时间，读锁被多个线程共同持有时只会延长过期时间
+     *
+     * @param lock   锁实例
+     * @param expire 锁的有效时间，单位毫秒
+     * @return 是否更新成功，锁已被强制过期时返回{@code false}
+     */
+    @Override
+    boolean renew(LockView lock, long expire) {
+        LocalReadWriteLock owner = lock.getReadWriteLock();
+        if (lock.getMode() == LockMode.WRITE) {
+            return owner.lease.renew(expire, owner.getWriteHoldCount() > 1, false);
+        }
+        boolean shared = owner.getReadLockCount() > 1 || owner.isWriteLocked();
+        return owner.lease.renew(expire, owner.getReadHoldCount() > 1, shared);
+    }
+
+    @Override
+    void abandon(LockView lock) {
+        leave(lock.getReadWriteLock());
+    }
+
+    /**
+     * 减少锁实例的使用计数，归零时将其从列表中移除
+     *
+     * @param lock 锁实例
+     */
+    void leave(LocalReadWriteLock lock) {
+        // 若锁已经在列表中不存在，说明其可能已因过期而被移除，故不做任何处理
+        lockMap.computeIfPresent(lock.key, (k, current) -> current != lock || --current.users > 0 ? current : null);
+    }
+
+    /**
+     * <p>尝试针对 key 解锁：
+     * <ul>
+     *     <li>若锁不被当前线程持有，则直接返回；</li>
+     *     <li>锁未过期，则正常释放锁，若已经没有其他线程正在使用该锁实例，则将锁实例从列表中移除；</li>
+     *     <li>锁已过期，此时其他线程已经获取了新的锁实例，则直接释放锁，并不做任何处理；</li>
+     * </ul>
+     *
+     * @param key          加锁key
+     * @param value        加锁value
+     * @param lockInstance 锁实例
+     * @return 是否释放成功
+     */
+    @Override
+    public boolean releaseLock(String key, String value, LockView lockInstance) {
+        // 当用户直接通过锁实例进行解锁时，则此时锁可能已经被释放
+        if (!lockInstance.isHeldByCurrentThread()) {
+            return false;
+        }
+        boolean expired = lockInstance.getReadWriteLock().isExpired();
+        lockInstance.unlock();
+        return !expired;
+    }
+
+    /**
+     * 读写锁中的读锁或写锁，每次通过执行器获取后，都应当通过{@link #releaseLock}或{@link #unlock()}释放一次
+     */
+    public interface LockView extends Lock {
+
+        /**
+         * 获取锁的模式
+         *
+         * @return 锁的模式
+         */
+        LockMode getMode();
+
+        /**
+         * 当前线程是否持有该锁
+         *
+         * @return 是否
+         */
+        boolean isHeldByCurrentThread();
+
+        /**
+         * 获取所属的读写锁
+         *
+         * @return 读写锁
+         */
+        LocalReadWriteLock getReadWriteLock();
+    }
+
+    /**
+     * 基于{@link ReentrantReadWriteLock}实现的本地读写锁，
+     * 获取锁时需要指定锁的有效时间，
+     * 如果有效时间小于0则表示永不过期。
+     */
+    public static class LocalReadWriteLock extends ReentrantReadWriteLock {
+
+        private final transient LocalReadWriteLockExecutor executor;
+        private final transient LocalLockLease lease;
+        private final String key;
+        private final ReadView readView;
+        private final WriteView writeView;
+
+        /**
+         * 使用计数，仅在执行器锁列表的计算函数中访问
+         */
+        private int users;
+
+        /**
+         * 构造器
+         *
+         * @param executor 所属执行器
+         * @param key      锁标识
+         */
+        LocalReadWriteLock(LocalReadWriteLockExecutor executor, String key) {
+            super(true);
+            this.executor = executor;
+            this.lease = new Lease(executor.timingWheel);
+            this.key = key;
+            this.readView = new ReadView();
+            this.writeView = new WriteView();
+        }
+
+        /**
+         * 当前锁是否已经过期
+         *
+         * @return 是否
+         */
+        public boolean isExpired() {
+            return lease.isExpired();
+        }
+
+        /**
+         * 释放读锁或写锁后调用
+         */
+        private void afterUnlock() {
+            executor.leave(this);
+            if (!lease.isHeld()) {
+                lease.released();
+            }
+        }
+
+        /**
+         * 读锁
+         */
+        private final class ReadView extends ReadLock implements LockView {
+
+            ReadView() {
+                super(LocalReadWriteLock.this);
+            }
+
+            @Override
+            public LockMode getMode() {
+                return LockMode.READ;
+            }
+
+            @Override
+            public boolean isHeldByCurrentThread() {
+                return getReadHoldCount() > 0;
+            }
+
+            @Override
+            public LocalReadWriteLock getReadWriteLock() {
+                return LocalReadWriteLock.this;
+            }
+
+            @Override
+            public void unlock() {
+                super.unlock();
+                afterUnlock();
+            }
+        }
+
+        /**
+         * 写锁
+         */
+        private final class WriteView extends WriteLock implements LockView {
+
+            WriteView() {
+                super(LocalReadWriteLock.this);
+            }
+
+            @Override
+            public LockMode getMode() {
+                return LockMode.WRITE;
+            }
+
+            @Override
+            public LocalReadWriteLock getReadWriteLock() {
+                return LocalReadWriteLock.this;
+            }
+
+            @Override
+            public void unlock() {
+                super.unlock();
+                afterUnlock();
+            }
+        }
+
+        /**
+         * 锁实例的租约
+         */
+        private final class Lease extends LocalLockLease {
+
+            Lease(LocalLockTimingWheel timingWheel) {
+                super(timingWheel);
+            }
+
+            @Override
+            boolean isHeld() {
+                return isWriteLocked() || getReadLockCount() > 0;
+            }
+
+            @Override
+            void discard() {
+                executor.lockMap.remove(key, LocalReadWriteLock.this);
+            }
+        }
+    }
+}
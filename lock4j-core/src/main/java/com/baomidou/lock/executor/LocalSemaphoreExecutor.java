@@ -0,0 +1,347 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockOptions;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * <p>基于{@link Semaphore}实现的单机本地信号量执行器，同一个key最多可以同时被{@link LockOptions#permits}个调用方持有，
+ * 用于限制并发数。许可不与线程绑定，可以在任意线程上释放，但不可重入。
+ *
+ * <p>与{@link LocalLockExecutor}一样，每个key在使用期间对应一个独立的信号量实例，使用完毕后即被移除；
+ * 信号量总是以公平的形式创建，公平性由每次获取时决定；过期与获取流程见{@link AbstractLocalLockExecutor}。
+ * 许可数量由创建信号量实例时的调用方决定，在信号量实例被使用期间，以不同的许可数量获取同一个key将抛出{@link IllegalArgumentException}。
+ * 每个许可各自拥有过期时间，到期后仅该许可被强制归还，其他持有者不受影响，同时持有的许可总数不会超过许可数量。
+ *
+ * @see LocalLockExecutor
+ */
+public class LocalSemaphoreExecutor extends AbstractLocalLockExecutor<LocalSemaphoreExecutor.Permit> {
+
+    /**
+     * 当前正在使用中的信号量列表，使用计数的维护方式与{@link LocalReadWriteLockExecutor}相同
+     */
+    private final ConcurrentMap<String, LocalSemaphore> semaphoreMap = new ConcurrentHashMap<>(32);
+
+    /**
+     * 创建一个默认非公平获取许可的本地信号量执行器
+     */
+    public LocalSemaphoreExecutor() {
+        this(false);
+    }
+
+    /**
+     * 创建一个本地信号量执行器
+     *
+     * @param fair 默认是否公平获取许可
+     */
+    public LocalSemaphoreExecutor(boolean fair) {
+        super(fair, "lock4j-local-semaphore-timer");
+    }
+
+    /**
+     * 获取key对应的信号量实例，并创建一个尚未获取的许可
+     *
+     * @param lockKey 锁标识
+     * @param options 加锁选项
+     * @return 许可
+     * @throws IllegalArgumentException 许可数量与正在使用中的信号量实例不一致
+     */
+    @Override
+    Permit obtainLock(String lockKey, LockOptions options) {
+        int permits = options.getPermits();
+        LocalSemaphore semaphore = semaphoreMap.compute(lockKey, (key, current) -> {
+            // 在计算函数中抛出异常时不会修改列表，因此不会影响已有信号量实例的使用计数
+            if (Objects.nonNull(current) && current.permits != permits) {
+                throw new IllegalArgumentException(String.format(
+                    "permits of [%s] is %d, but %d is given", key, current.permits, permits));
+            }
+            LocalSemaphore next = Objects.isNull(current) ? new LocalSemaphore(this, key, permits) : current;
+            next.users++;
+            return next;
+        });
+        return new Permit(semaphore);
+    }
+
+    /**
+     * 获取许可自身的租约，过期的许可由时间轮强制归还并唤醒等待者，因此等待期间无需关注其他持有者的过期时间
+     *
+     * @param lock 许可
+     * @return 租约
+     */
+    @Override
+    LocalLockLease getLease(Permit lock) {
+        return lock.lease;
+    }
+
+    /**
+     * 信号量实例在被使用期间不会被移除
+     *
+     * @param lockKey 锁标识
+     * @param lock    许可
+     * @return 是否
+     */
+    @Override
+    boolean isCurrent(String lockKey, Permit lock) {
+        return true;
+    }
+
+    @Override
+    boolean tryLock(Permit lock) {
+        return lock.tryAcquire();
+    }
+
+    @Override
+    boolean tryLock(Permit lock, long timeout) throws InterruptedException {
+        return lock.tryAcquire(timeout, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    void unlock(Permit lock) {
+        lock.release();
+    }
+
+    /**
+     * 获取许可后设置其过期时间，与其他持有者的过期时间无关
+     *
+     * @param lock   许可
+     * @param expire 锁的有效时间，单位毫秒
+     * @return 是否更新成功
+     */
+    @Override
+    boolean renew(Permit lock, long expire) {
+        return lock.lease.renew(expire, false, false);
+    }
+
+    @Override
+    void abandon(Permit lock) {
+        leave(lock.semaphore);
+    }
+
+    /**
+     * 减少信号量实例的使用计数，归零时将其从列表中移除
+     *
+     * @param semaphore 信号量实例
+     */
+    void leave(LocalSemaphore semaphore) {
+        semaphoreMap.computeIfPresent(semaphore.key, (k, current) ->
+            current != semaphore || --current.users > 0 ? current : null);
+    }
+
+    /**
+     * <p>尝试归还许可：
+     * <ul>
+     *     <li>若许可未被持有或已被归还，则直接返回；</li>
+     *     <li>许可未过期，则正常归还许可，若已经没有其他调用方正在使用该信号量，则将其从列表中移除；</li>
+     *     <li>许可已到期但尚未被强制归还，则同样归还许可，但返回{@code false}；</li>
+     * </ul>
+     *
+     * @param key          加锁key
+     * @param value        加锁value
+     * @param lockInstance 许可
+     * @return 是否释放成功
+     */
+    @Override
+    public boolean releaseLock(String key, String value, Permit lockInstance) {
+        if (!lockInstance.isHeld()) {
+            return false;
+        }
+        boolean expired = lockInstance.isExpired();
+        try {
+            lockInstance.release();
+        } catch (IllegalMonitorStateException e) {
+            // 已被并发归还
+            return false;
+        }
+        return !expired;
+    }
+
+    /**
+     * 一次获取得到的许可，不与线程绑定，只能归还一次
+     */
+    public static class Permit {
+
+        private static final AtomicIntegerFieldUpdater<Permit> HELD =
+            AtomicIntegerFieldUpdater.newUpdater(Permit.class, "held");
+
+        private final LocalSemaphore semaphore;
+        private final LocalLockLease lease;
+        private volatile int held;
+
+        Permit(LocalSemaphore semaphore) {
+            this.semaphore = semaphore;
+            this.lease = new Lease(semaphore.executor.timingWheel);
+        }
+
+        /**
+         * 许可是否仍被持有
+         *
+         * @return 是否
+         */
+        public boolean isHeld() {
+            return held == 1;
+        }
+
+        /**
+         * 许可是否已经过期
+         *
+         * @return 是否
+         */
+        public boolean isExpired() {
+            return lease.isExpired();
+        }
+
+        /**
+         * 获取所属的信号量
+         *
+         * @return 信号量
+         */
+        public LocalSemaphore getSemaphore() {
+            return semaphore;
+        }
+
+        /**
+         * 尝试立即获取许可，即使有其他调用方正在等待也会插队
+         *
+         * @return 是否获取成功
+         */
+        boolean tryAcquire() {
+            if (semaphore.tryAcquire()) {
+                held = 1;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 在指定时间内尝试获取许可
+         *
+         * @param time 等待时间
+         * @param unit 时间单位
+         * @return 是否获取成功
+         * @throws InterruptedException 等待期间线程被中断
+         */
+        boolean tryAcquire(long time, TimeUnit unit) throws InterruptedException {
+            if (semaphore.tryAcquire(time, unit)) {
+                held = 1;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 归还许可，不再被任何调用方使用时将信号量从执行器中移除
+         *
+         * @throws IllegalMonitorStateException 许可未被持有或已被归还
+         */
+        public void release() {
+            if (!reclaim()) {
+                throw new IllegalMonitorStateException();
+            }
+            lease.released();
+        }
+
+        /**
+         * 归还许可，并减少信号量实例的使用计数
+         *
+         * @return 是否归还成功，许可未被持有或已被归还时返回{@code false}
+         */
+        private boolean reclaim() {
+            if (!HELD.compareAndSet(this, 1, 0)) {
+                return false;
+            }
+            semaphore.release();
+            semaphore.executor.leave(semaphore);
+            return true;
+        }
+
+        /**
+         * 许可的租约，到期后仅强制归还该许可
+         */
+        private final class Lease extends LocalLockLease {
+
+            Lease(LocalLockTimingWheel timingWheel) {
+                super(timingWheel);
+            }
+
+            @Override
+            boolean isHeld() {
+                return Permit.this.isHeld();
+            }
+
+            @Override
+            void discard() {
+                reclaim();
+            }
+        }
+    }
+
+    /**
+     * 基于{@link Semaphore}实现的本地信号量，
+     * 获取许可时需要指定有效时间，
+     * 如果有效时间小于0则表示永不过期。
+     */
+    public static class LocalSemaphore extends Semaphore {
+
+        private final transient LocalSemaphoreExecutor executor;
+        private final String key;
+        private final int permits;
+
+        /**
+         * 使用计数，仅在执行器信号量列表的计算函数中访问
+         */
+        private int users;
+
+        /**
+         * 构造器
+         *
+         * @param executor 所属执行器
+         * @param key      锁标识
+         * @param permits  许可数量
+         */
+        LocalSemaphore(LocalSemaphoreExecutor executor, String key, int permits) {
+            super(permits, true);
+            this.executor = executor;
+            this.key = key;
+            this.permits = permits;
+        }
+
+        /**
+         * 获取许可数量
+         *
+         * @return 许可数量
+         */
+        public int getPermits() {
+            return permits;
+        }
+
+        /**
+         * 获取当前持有许可的调用方数量
+         *
+         * @return 数量
+         */
+        public int getHolders() {
+            return permits - availablePermits();
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package com.baomidou.lock.executor;
 
+import com.baomidou.lock.LockOptions;
+
 
 /**
  * 分布式锁核心处理器
@@ -24,6 +26,11 @@ package com.baomidou.lock.executor;
  */
 public interface LockExecutor<T> {
 
+    /**
+     * 执行器不支持fencing token时的token
+     */
+    long NO_FENCING_TOKEN = 0L;
+
     /**
      * 续期，目前只有redisson支持，且expire参数为-1才会续期
      *
@@ -44,6 +51,20 @@ public interface LockExecutor<T> {
      */
     T acquire(String lockKey, String lockValue, long expire, long acquireTimeout);
 
+    /**
+     * 根据选项加锁，默认忽略选项
+     *
+     * @param lockKey        锁标识
+     * @param lockValue      锁值
+     * @param expire         锁有效时间
+     * @param acquireTimeout 获取锁超时时间
+     * @param options        加锁选项
+     * @return 锁信息
+     */
+    default T acquire(String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+        return acquire(lockKey, lockValue, expire, acquireTimeout);
+    }
+
     /**
      * 解锁
      *
@@ -60,4 +81,19 @@ public interface LockExecutor<T> {
      */
     boolean releaseLock(String key, String value, T lockInstance);
 
+    /**
+     * <p>获取本次加锁对应的fencing token，同一个key后获取到锁的调用方总是得到更大的token，
+     * 存储可以据此拒绝来自已经过期的持有者的写入。
+     *
+     * <p>仅在开启{@link com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties#fencingToken}时，
+     * 由{@link com.baomidou.lock.LockTemplate}在加锁成功后、释放锁之前调用一次，默认不支持。
+     *
+     * @param lockKey      锁标识
+     * @param lockInstance 锁实例
+     * @return fencing token，不支持时为{@link #NO_FENCING_TOKEN}
+     */
+    default long getFencingToken(String lockKey, T lockInstance) {
+        return NO_FENCING_TOKEN;
+    }
+
 }
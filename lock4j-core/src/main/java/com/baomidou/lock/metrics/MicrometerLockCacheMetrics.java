@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.metrics;
+
+import com.baomidou.lock.LockCache;
+import com.baomidou.lock.LockCacheFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+/**
+ * <p>将{@link LockCacheFactory}创建的缓存注册到Micrometer，记录以下指标：
+ * <ul>
+ *     <li>{@code lock4j.cache.gets}：缓存的访问次数，按{@code result}区分{@code hit}与{@code miss}；</li>
+ *     <li>{@code lock4j.cache.size}：缓存的数量；</li>
+ * </ul>
+ * 所有指标均带有{@code cache}标签，即缓存名称。由于缓存在各组件初始化时创建，因此在所有单例初始化完毕后再进行注册。
+ */
+@RequiredArgsConstructor
+public class MicrometerLockCacheMetrics implements SmartInitializingSingleton {
+
+    private static final String TAG_CACHE = "cache";
+
+    private final MeterRegistry registry;
+    private final LockCacheFactory cacheFactory;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        cacheFactory.getCaches().forEach(this::bind);
+    }
+
+    private void bind(LockCache<?, ?> cache) {
+        FunctionCounter.builder("lock4j.cache.gets", cache, LockCache::getHitCount)
+            .tags(TAG_CACHE, cache.getName(), "result", "hit")
+            .register(registry);
+        FunctionCounter.builder("lock4j.cache.gets", cache, LockCache::getMissCount)
+            .tags(TAG_CACHE, cache.getName(), "result", "miss")
+            .register(registry);
+        Gauge.builder("lock4j.cache.size", cache, LockCache::size)
+            .tags(TAG_CACHE, cache.getName())
+            .register(registry);
+    }
+}
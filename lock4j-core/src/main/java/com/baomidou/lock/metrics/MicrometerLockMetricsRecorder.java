@@ -0,0 +1,138 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.metrics;
+
+import com.baomidou.lock.LockFailureStrategy;
+import com.baomidou.lock.LockMetricsRecorder;
+import com.baomidou.lock.executor.LockExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>基于Micrometer的锁指标记录器，记录以下指标：
+ * <ul>
+ *     <li>{@code lock4j.acquire}：加锁耗时，包括重试等待的时间，按{@code result}区分是否获取到锁；</li>
+ *     <li>{@code lock4j.acquire.attempts}：每次加锁尝试获取锁的次数；</li>
+ *     <li>{@code lock4j.hold}：锁的持有时间；</li>
+ *     <li>{@code lock4j.release.failures}：释放锁失败的次数；</li>
+ *     <li>{@code lock4j.failures}：获取锁失败后交由失败策略处理的次数，按{@code strategy}区分失败策略；</li>
+ * </ul>
+ * 所有指标均带有{@code executor}与{@code name}标签，分别为执行器类名与锁名称。
+ *
+ * @see LockMetricsRecorder
+ */
+public class MicrometerLockMetricsRecorder implements LockMetricsRecorder {
+
+    private static final String TAG_EXECUTOR = "executor";
+    private static final String TAG_NAME = "name";
+
+    private final MeterRegistry registry;
+
+    /**
+     * 按执行器类型与锁名称缓存的指标，避免每次记录时都重新查找
+     */
+    private final Map<Class<?>, Map<String, LockMeters>> lockMetersCaches = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Map<String, Map<Class<?>, Counter>>> failureCounterCaches = new ConcurrentHashMap<>();
+
+    public MicrometerLockMetricsRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void recordAcquire(LockExecutor<?> lockExecutor, String name, boolean acquired, int acquireCount,
+                              long latency) {
+        LockMeters meters = obtainLockMeters(lockExecutor, name);
+        (acquired ? meters.acquired : meters.acquireFailed).record(latency, TimeUnit.NANOSECONDS);
+        meters.acquireAttempts.record(acquireCount);
+    }
+
+    @Override
+    public void recordRelease(LockExecutor<?> lockExecutor, String name, boolean released, long holdTime) {
+        LockMeters meters = obtainLockMeters(lockExecutor, name);
+        meters.hold.record(holdTime, TimeUnit.MILLISECONDS);
+        if (!released) {
+            meters.releaseFailures.increment();
+        }
+    }
+
+    @Override
+    public void recordLockFailure(LockExecutor<?> lockExecutor, LockFailureStrategy lockFailureStrategy, String name) {
+        Class<?> executorType = ClassUtils.getUserClass(lockExecutor);
+        Class<?> strategyType = ClassUtils.getUserClass(lockFailureStrategy);
+        failureCounterCaches.computeIfAbsent(executorType, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(name, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(strategyType, k -> Counter.builder("lock4j.failures")
+                .description("Number of lock failures handled by the lock failure strategy")
+                .tags(TAG_EXECUTOR, executorType.getSimpleName(), TAG_NAME, name, "strategy", strategyType.getSimpleName())
+                .register(registry))
+            .increment();
+    }
+
+    private LockMeters obtainLockMeters(LockExecutor<?> lockExecutor, String name) {
+        Class<?> executorType = ClassUtils.getUserClass(lockExecutor);
+        return lockMetersCaches.computeIfAbsent(executorType, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(name, k -> new LockMeters(registry,
+                Tags.of(TAG_EXECUTOR, executorType.getSimpleName(), TAG_NAME, name)));
+    }
+
+    /**
+     * 同一个执行器与锁名称对应的指标
+     */
+    private static class LockMeters {
+
+        private final Timer acquired;
+        private final Timer acquireFailed;
+        private final DistributionSummary acquireAttempts;
+        private final Timer hold;
+        private final Counter releaseFailures;
+
+        LockMeters(MeterRegistry registry, Tags tags) {
+            this.acquired = acquireTimer(registry, tags, "acquired");
+            this.acquireFailed = acquireTimer(registry, tags, "failed");
+            this.acquireAttempts = DistributionSummary.builder("lock4j.acquire.attempts")
+                .description("Number of attempts per lock acquisition")
+                .tags(tags)
+                .register(registry);
+            this.hold = Timer.builder("lock4j.hold")
+                .description("Time the lock is held")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+            this.releaseFailures = Counter.builder("lock4j.release.failures")
+                .description("Number of failed lock releases")
+                .tags(tags)
+                .register(registry);
+        }
+
+        private static Timer acquireTimer(MeterRegistry registry, Tags tags, String result) {
+            return Timer.builder("lock4j.acquire")
+                .description("Time spent acquiring the lock, including retries")
+                .tags(tags)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(registry);
+        }
+    }
+}
@@ -18,10 +18,12 @@ package com.baomidou.lock.spring.boot.autoconfigure;
 
 import com.baomidou.lock.LockFailureStrategy;
 import com.baomidou.lock.LockKeyBuilder;
+import com.baomidou.lock.RetryPolicy;
 import com.baomidou.lock.executor.LockExecutor;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.expression.spel.SpelCompilerMode;
 
 /**
  * lock4j配置
@@ -48,6 +50,28 @@ public class Lock4jProperties {
      */
     private Long retryInterval = 100L;
 
+    /**
+     * 获取锁失败时最大重试时间间隔，仅对退避类的重试策略生效 单位：毫秒
+     */
+    private Long maxRetryInterval = 1000L;
+
+    /**
+     * 默认重试策略，不设置则按{@link #retryInterval}固定间隔重试
+     */
+    private Class<? extends RetryPolicy> primaryRetryPolicy;
+
+    /**
+     * 是否开启锁释放通知，开启后获取锁失败的线程将在锁释放时被提前唤醒，而不必等待完整的重试间隔。
+     * RedisTemplate执行器每次解锁时将额外发送一条PUBLISH消息，并且每个节点会创建一个{@code RedisMessageListenerContainer}，
+     * 占用一个专门用于订阅的Redis连接，因此默认关闭
+     */
+    private boolean notifyOnRelease = false;
+
+    /**
+     * 是否开启虚拟线程模式，需要JDK21及以上版本，开启后{@link com.baomidou.lock.LockTemplate#executeAsync}提交的任务将在虚拟线程上执行
+     */
+    private boolean virtualThreads = false;
+
     /**
      * 默认执行器，不设置默认取容器第一个(默认注入顺序，redisson>redisTemplate>zookeeper)
      */
@@ -72,4 +96,34 @@ public class Lock4jProperties {
      * 是否允许将非可执行表达式作为字符串
      */
     private boolean allowedMakeNonExecutableExpressionsAsString = true;
+
+    /**
+     * key及条件等SpEL表达式的编译模式，不设置时遵循spring.expression.compiler.mode，默认为{@link SpelCompilerMode#OFF}，
+     * 设置为{@link SpelCompilerMode#MIXED}或{@link SpelCompilerMode#IMMEDIATE}时将表达式编译为字节码执行，编译失败时仍然解释执行
+     */
+    private SpelCompilerMode spelCompilerMode;
+
+    /**
+     * 锁操作、表达式及失败处理器等内部缓存各自的最大容量，需要引入Caffeine，不设置时缓存不限容量
+     */
+    private Long cacheMaximumSize;
+
+    /**
+     * 本地锁的条带数量，将向上取整为2的幂，设置后本地锁执行器将根据key的哈希值从固定数量的锁中选择，
+     * 不再为每个key创建锁实例，但不同的key可能共用同一把锁，不设置时每个key对应独立的锁
+     */
+    private int localLockStripes = 0;
+
+    /**
+     * 本地锁默认是否公平获取，公平锁在竞争激烈时吞吐量明显下降，可以通过{@link com.baomidou.lock.annotation.Lock4j#fairness()}为单个方法单独指定
+     */
+    private boolean localLockFair = false;
+
+    /**
+     * 是否在加锁成功后获取fencing token，可以通过{@link com.baomidou.lock.LockContextHolder#getFencingToken()}在加锁方法中获取，
+     * Redis及Redisson执行器需要额外递增每个锁key对应的计数器，因此默认关闭
+     *
+     * @see com.baomidou.lock.util.LockUtil#getFencingTokenKey(String)
+     */
+    private boolean fencingToken = false;
 }
@@ -20,17 +20,30 @@ import com.baomidou.lock.*;
 import com.baomidou.lock.aop.Lock4jMethodInterceptor;
 import com.baomidou.lock.aop.LockAnnotationAdvisor;
 import com.baomidou.lock.aop.LockOpsInterceptor;
+import com.baomidou.lock.cache.CaffeineLockCacheFactory;
+import com.baomidou.lock.cache.ConcurrentMapLockCacheFactory;
 import com.baomidou.lock.executor.LocalLockExecutor;
+import com.baomidou.lock.executor.LocalReadWriteLockExecutor;
+import com.baomidou.lock.executor.LocalSemaphoreExecutor;
 import com.baomidou.lock.executor.LockExecutor;
+import com.baomidou.lock.util.VirtualThreads;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Role;
 import org.springframework.core.Ordered;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
 
 /**
  * 分布式锁自动配置器
@@ -41,11 +54,35 @@ import java.util.List;
 @Configuration(proxyBeanMethods = false)
 public class LockAutoConfiguration {
 
+    /**
+     * 虚拟线程模式下用于执行加锁任务的执行器
+     */
+    public static final String VIRTUAL_THREAD_EXECUTOR_BEAN_NAME = "lock4jVirtualThreadExecutor";
+
+    private static final boolean CAFFEINE_PRESENT = ClassUtils.isPresent(
+        "com.github.benmanes.caffeine.cache.Caffeine", LockAutoConfiguration.class.getClassLoader());
+
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Bean
+    @ConditionalOnMissingBean
+    public LockCacheFactory lockCacheFactory(Lock4jProperties lock4jProperties) {
+        Long maximumSize = lock4jProperties.getCacheMaximumSize();
+        if (Objects.isNull(maximumSize)) {
+            return new ConcurrentMapLockCacheFactory();
+        }
+        Assert.state(CAFFEINE_PRESENT, "lock4j.cache-maximum-size requires caffeine on the classpath");
+        return new CaffeineLockCacheFactory(maximumSize);
+    }
+
     @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
     @ConditionalOnMissingBean(MethodBasedExpressionEvaluator.class)
     @Bean
-    public SpelMethodBasedExpressionEvaluator methodBasedExpressionEvaluator() {
-        return new SpelMethodBasedExpressionEvaluator();
+    public SpelMethodBasedExpressionEvaluator methodBasedExpressionEvaluator(
+        Lock4jProperties lock4jProperties, LockCacheFactory lockCacheFactory) {
+        SpelMethodBasedExpressionEvaluator evaluator = new SpelMethodBasedExpressionEvaluator(
+            new SpelParserConfiguration(lock4jProperties.getSpelCompilerMode(), ClassUtils.getDefaultClassLoader()));
+        evaluator.setCacheFactory(lockCacheFactory);
+        return evaluator;
     }
 
     @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
@@ -54,17 +91,68 @@ public class LockAutoConfiguration {
         return new Lock4jProperties();
     }
 
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Bean
+    @ConditionalOnMissingBean
+    public LockReleaseNotifier lockReleaseNotifier() {
+        return new LockReleaseNotifier();
+    }
+
     @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
     @SuppressWarnings("rawtypes")
     @Bean
     @ConditionalOnMissingBean
-    public LockTemplate lockTemplate(List<LockExecutor> executors, Lock4jProperties properties) {
+    public LockTemplate lockTemplate(List<LockExecutor> executors, List<RetryPolicy> retryPolicies,
+                                     Lock4jProperties properties, LockReleaseNotifier lockReleaseNotifier,
+                                     @Qualifier(VIRTUAL_THREAD_EXECUTOR_BEAN_NAME) ObjectProvider<ExecutorService> taskExecutor,
+                                     ObjectProvider<LockMetricsRecorder> metricsRecorder) {
         LockTemplate lockTemplate = new LockTemplate();
         lockTemplate.setProperties(properties);
         lockTemplate.setExecutors(executors);
+        lockTemplate.setRetryPolicies(retryPolicies);
+        if (properties.isNotifyOnRelease()) {
+            lockTemplate.setReleaseNotifier(lockReleaseNotifier);
+        }
+        taskExecutor.ifAvailable(lockTemplate::setTaskExecutor);
+        metricsRecorder.ifAvailable(lockTemplate::setMetricsRecorder);
         return lockTemplate;
     }
 
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Bean(name = VIRTUAL_THREAD_EXECUTOR_BEAN_NAME, destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "lock4j", name = "virtual-threads", havingValue = "true")
+    public ExecutorService lock4jVirtualThreadExecutor() {
+        return VirtualThreads.newVirtualThreadPerTaskExecutor("lock4j-virtual-");
+    }
+
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Bean
+    @ConditionalOnMissingBean
+    public FixedRetryPolicy fixedRetryPolicy(Lock4jProperties lock4jProperties) {
+        return new FixedRetryPolicy(lock4jProperties.getRetryInterval());
+    }
+
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Bean
+    @ConditionalOnMissingBean
+    public ExponentialBackoffRetryPolicy exponentialBackoffRetryPolicy(Lock4jProperties lock4jProperties) {
+        return new ExponentialBackoffRetryPolicy(lock4jProperties.getRetryInterval(), lock4jProperties.getMaxRetryInterval());
+    }
+
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Bean
+    @ConditionalOnMissingBean
+    public DecorrelatedJitterRetryPolicy decorrelatedJitterRetryPolicy(Lock4jProperties lock4jProperties) {
+        return new DecorrelatedJitterRetryPolicy(lock4jProperties.getRetryInterval(), lock4jProperties.getMaxRetryInterval());
+    }
+
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Bean
+    @ConditionalOnMissingBean
+    public AdaptiveRetryPolicy adaptiveRetryPolicy(Lock4jProperties lock4jProperties) {
+        return new AdaptiveRetryPolicy(lock4jProperties.getRetryInterval(), lock4jProperties.getMaxRetryInterval());
+    }
+
     @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
     @Bean
     @ConditionalOnMissingBean
@@ -77,9 +165,11 @@ public class LockAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public AbortLockFailureStrategy abortLockFailureStrategy(
-        MethodBasedExpressionEvaluator methodBasedExpressionEvaluator, Lock4jProperties lock4jProperties) {
+        MethodBasedExpressionEvaluator methodBasedExpressionEvaluator, Lock4jProperties lock4jProperties,
+        LockCacheFactory lockCacheFactory) {
         AbortLockFailureStrategy strategy = new AbortLockFailureStrategy(methodBasedExpressionEvaluator);
         strategy.setAllowedMakeNonExecutableExpressionsAsString(lock4jProperties.isAllowedMakeNonExecutableExpressionsAsString());
+        strategy.setCacheFactory(lockCacheFactory);
         return strategy;
     }
 
@@ -95,8 +185,10 @@ public class LockAutoConfiguration {
     @ConditionalOnMissingBean(Lock4jMethodInterceptor.class)
     public LockOpsInterceptor conditionalLockOpsInterceptor(
         MethodBasedExpressionEvaluator methodBasedExpressionEvaluator,
-        Lock4jProperties lock4jProperties, LockTemplate lockTemplate) {
-        return new LockOpsInterceptor(methodBasedExpressionEvaluator, lockTemplate, lock4jProperties);
+        Lock4jProperties lock4jProperties, LockTemplate lockTemplate, LockCacheFactory lockCacheFactory) {
+        LockOpsInterceptor interceptor = new LockOpsInterceptor(methodBasedExpressionEvaluator, lockTemplate, lock4jProperties);
+        interceptor.setCacheFactory(lockCacheFactory);
+        return interceptor;
     }
 
     @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
@@ -108,7 +200,19 @@ public class LockAutoConfiguration {
 
     @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
     @Bean
-    public LocalLockExecutor localLockExecutor() {
-        return new LocalLockExecutor();
+    public LocalLockExecutor localLockExecutor(Lock4jProperties lock4jProperties) {
+        return new LocalLockExecutor(lock4jProperties.isLocalLockFair(), lock4jProperties.getLocalLockStripes());
+    }
+
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Bean
+    public LocalReadWriteLockExecutor localReadWriteLockExecutor(Lock4jProperties lock4jProperties) {
+        return new LocalReadWriteLockExecutor(lock4jProperties.isLocalLockFair());
+    }
+
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Bean
+    public LocalSemaphoreExecutor localSemaphoreExecutor(Lock4jProperties lock4jProperties) {
+        return new LocalSemaphoreExecutor(lock4jProperties.isLocalLockFair());
     }
 }
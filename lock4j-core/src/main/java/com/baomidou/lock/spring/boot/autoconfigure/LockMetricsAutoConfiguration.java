@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.spring.boot.autoconfigure;
+
+import com.baomidou.lock.LockCacheFactory;
+import com.baomidou.lock.LockMetricsRecorder;
+import com.baomidou.lock.metrics.MicrometerLockCacheMetrics;
+import com.baomidou.lock.metrics.MicrometerLockMetricsRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+/**
+ * 锁指标自动配置器，项目中存在Micrometer的{@link MeterRegistry}时生效
+ */
+@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(MeterRegistry.class)
+@AutoConfigureAfter(
+    value = LockAutoConfiguration.class,
+    name = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration"
+)
+public class LockMetricsAutoConfiguration {
+
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Bean
+    @ConditionalOnBean(MeterRegistry.class)
+    @ConditionalOnMissingBean(LockMetricsRecorder.class)
+    public MicrometerLockMetricsRecorder micrometerLockMetricsRecorder(MeterRegistry meterRegistry) {
+        return new MicrometerLockMetricsRecorder(meterRegistry);
+    }
+
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Bean
+    @ConditionalOnBean({MeterRegistry.class, LockCacheFactory.class})
+    public MicrometerLockCacheMetrics micrometerLockCacheMetrics(MeterRegistry meterRegistry, LockCacheFactory lockCacheFactory) {
+        return new MicrometerLockCacheMetrics(meterRegistry, lockCacheFactory);
+    }
+}
@@ -28,6 +28,11 @@ import java.util.UUID;
  */
 public class LockUtil {
 
+    /**
+     * fencing token计数器key的后缀
+     */
+    private static final String FENCING_TOKEN_SUFFIX = ":fencing";
+
     public static String getLockId() {
         return simpleUUID();
     }
@@ -77,6 +82,20 @@ public class LockUtil {
         throw new IllegalStateException("ManagementFactory error");
     }
 
+    /**
+     * <p>获取Redis及Redisson执行器中锁key对应的fencing token计数器key，每个锁key各自拥有一个计数器。
+     *
+     * <p>为了在Redis集群模式下使计数器与锁key位于同一个slot：若锁key中已经包含<code>&#125;</code>，则直接追加后缀，
+     * 此时锁key中的hash tag(如{@code {order}:1})同样决定计数器所在的slot；否则以整个锁key作为计数器key的hash tag。
+     * 锁key中包含<code>&#125;</code>但不包含有效的hash tag时，计数器可能与锁key位于不同的slot。
+     *
+     * @param lockKey 锁key
+     * @return 计数器key
+     */
+    public static String getFencingTokenKey(String lockKey) {
+        return lockKey.indexOf('}') < 0 ? "{" + lockKey + "}" + FENCING_TOKEN_SUFFIX : lockKey + FENCING_TOKEN_SUFFIX;
+    }
+
     /**
      * 去除-的uuid
      *
@@ -0,0 +1,94 @@
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockInfo;
+import com.baomidou.lock.LockTemplate;
+import com.baomidou.lock.annotation.Lock4j;
+import com.baomidou.lock.spring.boot.autoconfigure.LockAutoConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test for {@link Lock4j#autoRelease}
+ */
+class AutoReleaseTest {
+
+    private static final String AUTO_KEY = "lock4j:auto#";
+    private static final String MANUAL_KEY = "lock4j:manual#";
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private TaskService service;
+    private LockTemplate lockTemplate;
+    private ExecutorService other;
+
+    @BeforeEach
+    void init() {
+        applicationContext = new AnnotationConfigApplicationContext(TestConfiguration.class);
+        service = applicationContext.getBean(TaskService.class);
+        lockTemplate = applicationContext.getBean(LockTemplate.class);
+        other = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void destroy() {
+        other.shutdown();
+        applicationContext.close();
+    }
+
+    @Test
+    void autoReleaseTest() throws Exception {
+        // 方法执行完毕后自动释放锁
+        service.autoRelease();
+        LockInfo next = tryLockInOther(AUTO_KEY);
+        Assertions.assertNotNull(next);
+        Assertions.assertTrue(other.submit(() -> lockTemplate.releaseLock(next)).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void manualReleaseTest() throws Exception {
+        // 方法执行完毕后仍持有锁，直到锁过期
+        service.manualRelease();
+        Assertions.assertNull(tryLockInOther(MANUAL_KEY));
+        Thread.sleep(1000L);
+        LockInfo next = tryLockInOther(MANUAL_KEY);
+        Assertions.assertNotNull(next);
+        Assertions.assertTrue(other.submit(() -> lockTemplate.releaseLock(next)).get(5, TimeUnit.SECONDS));
+    }
+
+    private LockInfo tryLockInOther(String key) throws Exception {
+        return other.submit(() -> lockTemplate.lock(key, 0, 0, LocalLockExecutor.class))
+            .get(5, TimeUnit.SECONDS);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @Import(LockAutoConfiguration.class)
+    static class TestConfiguration {
+
+        @Bean
+        public TaskService taskService() {
+            return new TaskService();
+        }
+    }
+
+    static class TaskService {
+
+        @Lock4j(name = "auto", acquireTimeout = 0, executor = LocalLockExecutor.class)
+        public void autoRelease() {
+        }
+
+        @Lock4j(name = "manual", expire = 500, acquireTimeout = 0, autoRelease = false, executor = LocalLockExecutor.class)
+        public void manualRelease() {
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package com.baomidou.lock.executor;
 
+import com.baomidou.lock.CompiledLockKey;
 import com.baomidou.lock.DefaultLockKeyBuilder;
 import com.baomidou.lock.SpelMethodBasedExpressionEvaluator;
+import org.aopalliance.intercept.MethodInvocation;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.aop.framework.ReflectiveMethodInvocation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.EmbeddedValueResolver;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.expression.spel.SpelEvaluationException;
 
 import java.lang.reflect.Method;
+import java.time.LocalDate;
 import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * test for {@link DefaultLockKeyBuilder}
@@ -25,6 +33,8 @@ class DefaultLockKeyBuilderTest {
 
     @Autowired
     private DefaultLockKeyBuilder defaultLockKeyBuilder;
+    @Autowired
+    private SpelMethodBasedExpressionEvaluator methodBasedExpressionEvaluator;
 
     @SneakyThrows
     @Test
@@ -42,11 +52,95 @@ class DefaultLockKeyBuilderTest {
         );
     }
 
+    @SneakyThrows
+    @Test
+    void compileTest() {
+        Method method = DefaultLockKeyBuilderTest.class.getDeclaredMethod(
+            "something", String.class, String.class);
+        TestInvocation invocation = new TestInvocation(
+            new Object(), method, new Object[]{ "k1", "k2"}
+        );
+
+        Assertions.assertEquals("", build(defaultLockKeyBuilder.compile(method, new String[]{}), invocation));
+        String[] keys = new String[]{ "#param1", "", "#param2", "'${example.service.message}'"};
+        Assertions.assertEquals(
+            defaultLockKeyBuilder.buildKey(invocation, keys),
+            build(defaultLockKeyBuilder.compile(method, keys), invocation)
+        );
+
+        // 重写了buildKey的子类仍然使用重写后的方法
+        DefaultLockKeyBuilder customLockKeyBuilder = new DefaultLockKeyBuilder(methodBasedExpressionEvaluator) {
+            @Override
+            public String buildKey(MethodInvocation invocation, String[] definitionKeys) {
+                return "custom:" + super.buildKey(invocation, definitionKeys);
+            }
+        };
+        Assertions.assertEquals("custom:k1.k2.k3", build(customLockKeyBuilder.compile(method, keys), invocation));
+    }
+
+    @SneakyThrows
+    @Test
+    void propertyPathTest() {
+        AtomicInteger evaluated = new AtomicInteger();
+        SpelMethodBasedExpressionEvaluator evaluator = new SpelMethodBasedExpressionEvaluator() {
+            @Override
+            public <T> T getValue(
+                Method method, Object[] arguments, String expression, Class<T> resultType, Map<String, Object> variables) {
+                evaluated.incrementAndGet();
+                return super.getValue(method, arguments, expression, resultType, variables);
+            }
+        };
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        evaluator.setBeanFactory(beanFactory);
+        evaluator.setEmbeddedValueResolver(new EmbeddedValueResolver(beanFactory));
+        DefaultLockKeyBuilder lockKeyBuilder = new DefaultLockKeyBuilder(evaluator);
+        Method method = DefaultLockKeyBuilderTest.class.getDeclaredMethod(
+            "anything", LocalDate.class, long.class, Object.class, Map.class);
+        TestInvocation invocation = new TestInvocation(
+            new Object(), method, new Object[]{ LocalDate.of(2020, 2, 1), 1L, "k", Collections.singletonMap("id", "v")}
+        );
+
+        // 简单属性路径直接通过参数下标与getter方法取值，不经过SpEL
+        String[] keys = new String[]{ "#date.year", "#date.month", "#date.month.value", "#date.leapYear", "#id", "#p1", "#a2"};
+        CompiledLockKey compiledLockKey = lockKeyBuilder.compile(method, keys);
+        String expected = lockKeyBuilder.buildKey(invocation, keys);
+        evaluated.set(0);
+        Assertions.assertEquals(expected, build(compiledLockKey, invocation));
+        Assertions.assertEquals("2020.FEBRUARY.2.true.1.1.k", expected);
+        Assertions.assertEquals(0, evaluated.get());
+
+        // 无法在编译时确定getter的属性路径，以及其他表达式仍然由SpEL计算
+        String[] fallbackKeys = new String[]{ "#value.bytes", "#map.id", "#id + 1", "#root.name"};
+        Assertions.assertEquals(
+            lockKeyBuilder.buildKey(invocation, fallbackKeys),
+            build(lockKeyBuilder.compile(method, fallbackKeys), invocation)
+        );
+        Assertions.assertEquals(8, evaluated.get());
+        // 无法转换为字符串的值同样交由SpEL处理
+        CompiledLockKey dateKey = lockKeyBuilder.compile(method, new String[]{ "#date"});
+        Assertions.assertThrows(SpelEvaluationException.class, () -> build(dateKey, invocation));
+
+        // 中间值为null时与SpEL的行为一致
+        CompiledLockKey nullSafeKey = lockKeyBuilder.compile(method, new String[]{ "#date.year"});
+        TestInvocation nullInvocation = new TestInvocation(new Object(), method, new Object[]{ null, 1L, null, null});
+        Assertions.assertThrows(SpelEvaluationException.class, () -> build(nullSafeKey, nullInvocation));
+        Assertions.assertEquals("null", build(lockKeyBuilder.compile(method, new String[]{ "#date"}), nullInvocation));
+    }
+
+    private static String build(CompiledLockKey compiledLockKey, MethodInvocation invocation) {
+        StringBuilder builder = new StringBuilder();
+        compiledLockKey.appendTo(builder, invocation);
+        return builder.toString();
+    }
 
     private void something(String param1, String param2) {
         // do nothing
     }
 
+    private void anything(LocalDate date, long id, Object value, Map<String, Object> map) {
+        // do nothing
+    }
+
     private static class TestInvocation extends ReflectiveMethodInvocation {
         @SneakyThrows
         public TestInvocation(Object target, Method method, Object[] arguments) {
@@ -0,0 +1,157 @@
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockContextHolder;
+import com.baomidou.lock.LockInfo;
+import com.baomidou.lock.LockTemplate;
+import com.baomidou.lock.annotation.Lock4j;
+import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
+import com.baomidou.lock.spring.boot.autoconfigure.LockAutoConfiguration;
+import com.baomidou.lock.util.LockUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test for {@link LockExecutor#getFencingToken} and {@link LockContextHolder}
+ */
+class FencingTokenTest {
+
+    private static final String KEY = "key";
+
+    private Lock4jProperties properties;
+    private LockTemplate lockTemplate;
+
+    @BeforeEach
+    void init() throws Exception {
+        properties = new Lock4jProperties();
+        properties.setFencingToken(true);
+        lockTemplate = new LockTemplate();
+        lockTemplate.setProperties(properties);
+        lockTemplate.setExecutors(Arrays.asList(new LocalLockExecutor(), new FailingLockExecutor()));
+        lockTemplate.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void destroy() {
+        lockTemplate.destroy();
+    }
+
+    @Test
+    void fencingTokenTest() {
+        LockInfo first = lockTemplate.lock(KEY);
+        Assertions.assertTrue(first.getFencingToken() > LockExecutor.NO_FENCING_TOKEN);
+        Assertions.assertTrue(lockTemplate.releaseLock(first));
+
+        // 后获取到锁的调用方总是得到更大的token
+        LockInfo second = lockTemplate.lock(KEY);
+        Assertions.assertTrue(second.getFencingToken() > first.getFencingToken());
+        Assertions.assertTrue(lockTemplate.releaseLock(second));
+
+        // 未开启时不获取token
+        properties.setFencingToken(false);
+        LockInfo lockInfo = lockTemplate.lock(KEY);
+        Assertions.assertEquals(LockExecutor.NO_FENCING_TOKEN, lockInfo.getFencingToken());
+        Assertions.assertTrue(lockTemplate.releaseLock(lockInfo));
+    }
+
+    @Test
+    void fencingTokenKeyTest() {
+        // 以整个锁key作为hash tag，使计数器与锁key位于同一个slot
+        Assertions.assertEquals("{lock4j:order#1}:fencing", LockUtil.getFencingTokenKey("lock4j:order#1"));
+        // 锁key中已有hash tag时直接追加后缀
+        Assertions.assertEquals("lock4j:{order}#1:fencing", LockUtil.getFencingTokenKey("lock4j:{order}#1"));
+    }
+
+    @Test
+    void fencingTokenFailureTest() {
+        Assertions.assertThrows(IllegalStateException.class,
+            () -> lockTemplate.lock(KEY, 0, 0, FailingLockExecutor.class));
+        // 获取token失败时释放刚刚获取的锁
+        properties.setFencingToken(false);
+        LockInfo lockInfo = lockTemplate.lock(KEY, 0, 0, FailingLockExecutor.class);
+        Assertions.assertNotNull(lockInfo);
+        Assertions.assertTrue(lockTemplate.releaseLock(lockInfo));
+    }
+
+    @Test
+    void executeAsyncTest() throws Exception {
+        Assertions.assertNull(LockContextHolder.getLockInfo());
+        LockInfo lockInfo = lockTemplate.executeAsync(KEY, LockContextHolder::getLockInfo).get(5, TimeUnit.SECONDS);
+        Assertions.assertNotNull(lockInfo);
+        Assertions.assertEquals(KEY, lockInfo.getLockKey());
+        Assertions.assertTrue(lockInfo.getFencingToken() > LockExecutor.NO_FENCING_TOKEN);
+    }
+
+    @Test
+    void annotationTest() {
+        try (AnnotationConfigApplicationContext applicationContext = new AnnotationConfigApplicationContext(TestConfiguration.class)) {
+            applicationContext.getBean(Lock4jProperties.class).setFencingToken(true);
+            FencedService service = applicationContext.getBean(FencedService.class);
+
+            long[] tokens = service.outer();
+            Assertions.assertTrue(tokens[0] > LockExecutor.NO_FENCING_TOKEN);
+            // 嵌套加锁时获取到最内层的锁，内层方法结束后恢复为外层的锁
+            Assertions.assertTrue(tokens[1] > tokens[0]);
+            Assertions.assertEquals(tokens[0], tokens[2]);
+            Assertions.assertNull(LockContextHolder.getLockInfo());
+            Assertions.assertEquals(LockExecutor.NO_FENCING_TOKEN, LockContextHolder.getFencingToken());
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @Import(LockAutoConfiguration.class)
+    static class TestConfiguration {
+
+        @Bean
+        public InnerService innerService() {
+            return new InnerService();
+        }
+
+        @Bean
+        public FencedService fencedService(InnerService innerService) {
+            return new FencedService(innerService);
+        }
+    }
+
+    static class FencedService {
+
+        private final InnerService innerService;
+
+        FencedService(InnerService innerService) {
+            this.innerService = innerService;
+        }
+
+        @Lock4j(name = "outer", executor = LocalLockExecutor.class)
+        public long[] outer() {
+            long outer = LockContextHolder.getFencingToken();
+            long inner = innerService.inner();
+            return new long[]{outer, inner, LockContextHolder.getFencingToken()};
+        }
+    }
+
+    static class InnerService {
+
+        @Lock4j(name = "inner", executor = LocalLockExecutor.class)
+        public long inner() {
+            return LockContextHolder.getFencingToken();
+        }
+    }
+
+    private static class FailingLockExecutor extends LocalLockExecutor {
+
+        @Override
+        public long getFencingToken(String lockKey, LocalLock lockInstance) {
+            throw new IllegalStateException();
+        }
+    }
+}
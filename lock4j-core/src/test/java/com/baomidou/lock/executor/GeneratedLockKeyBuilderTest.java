@@ -0,0 +1,165 @@
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.GeneratedLockKeyBuilder;
+import com.baomidou.lock.SpelMethodBasedExpressionEvaluator;
+import com.baomidou.lock.annotation.Lock4j;
+import com.baomidou.lock.annotation.LockWithDefault;
+import com.baomidou.lock.spring.boot.autoconfigure.LockAutoConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * test for {@link GeneratedLockKeyBuilder} generated by lock4j-processor
+ */
+class GeneratedLockKeyBuilderTest {
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private TestLockExecutor lockExecutor;
+    private CountingExpressionEvaluator evaluator;
+    private KeyService keyService;
+
+    @BeforeEach
+    void init() {
+        applicationContext = new AnnotationConfigApplicationContext(EvaluatorConfiguration.class, TestConfiguration.class);
+        lockExecutor = applicationContext.getBean(TestLockExecutor.class);
+        evaluator = applicationContext.getBean(CountingExpressionEvaluator.class);
+        keyService = applicationContext.getBean(KeyService.class);
+    }
+
+    @AfterEach
+    void destroy() {
+        applicationContext.close();
+    }
+
+    @Test
+    void generatedTest() throws Exception {
+        GeneratedLockKeyBuilder builder = (GeneratedLockKeyBuilder) Class.forName(
+            GeneratedLockKeyBuilderTest.class.getName() + "_KeyService_pay_Lock4jKeyBuilder").newInstance();
+        Assertions.assertEquals(KeyService.class.getMethod("pay", Order.class, long.class), builder.getMethod());
+        Assertions.assertFalse(builder.hasCondition());
+
+        // 使用编译期生成的key构建器，不需要在运行时执行表达式
+        keyService.pay(new Order("user", true), 100L);
+        keyService.check(new Order("user", true), "id");
+        Assertions.assertEquals(0, evaluator.count.get());
+        Assertions.assertEquals(2, lockExecutor.keys.size());
+        Assertions.assertTrue(lockExecutor.keys.get(0).endsWith("#user.fixed.100"));
+        Assertions.assertTrue(lockExecutor.keys.get(1).endsWith("#id"));
+        // 条件表达式同样在编译期生成
+        keyService.check(new Order("user", false), "id");
+        Assertions.assertEquals(2, lockExecutor.keys.size());
+        Assertions.assertEquals(0, evaluator.count.get());
+    }
+
+    @Test
+    void fallbackTest() {
+        // 无法在编译期处理的表达式仍在运行时执行
+        Assertions.assertThrows(ClassNotFoundException.class, () -> Class.forName(
+            GeneratedLockKeyBuilderTest.class.getName() + "_KeyService_complex_Lock4jKeyBuilder"));
+        keyService.complex(new Order("user", true));
+        Assertions.assertTrue(lockExecutor.keys.get(0).endsWith("#user1"));
+        Assertions.assertEquals(1, evaluator.count.get());
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class EvaluatorConfiguration {
+
+        @Bean
+        public CountingExpressionEvaluator countingExpressionEvaluator() {
+            return new CountingExpressionEvaluator();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @Import(LockAutoConfiguration.class)
+    static class TestConfiguration {
+
+        @Bean
+        public TestLockExecutor testLockExecutor() {
+            return new TestLockExecutor();
+        }
+
+        @Bean
+        public KeyService keyService() {
+            return new KeyService();
+        }
+    }
+
+    static class KeyService {
+
+        @Lock4j(keys = {"#order.userId", "", "'fixed'", "#p1"}, executor = TestLockExecutor.class)
+        public void pay(Order order, long amount) {
+            // do nothing
+        }
+
+        @LockWithDefault(keys = "#id", condition = "#order.paid", executor = TestLockExecutor.class)
+        public void check(Order order, String id) {
+            // do nothing
+        }
+
+        @Lock4j(keys = "#order.userId + 1", executor = TestLockExecutor.class)
+        public void complex(Order order) {
+            // do nothing
+        }
+    }
+
+    static class Order {
+        private final String userId;
+        private final boolean paid;
+
+        Order(String userId, boolean paid) {
+            this.userId = userId;
+            this.paid = paid;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public boolean isPaid() {
+            return paid;
+        }
+    }
+
+    static class CountingExpressionEvaluator extends SpelMethodBasedExpressionEvaluator {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public <T> T getValue(
+            Method method, Object[] arguments, String expression, Class<T> resultType, Map<String, Object> variables) {
+            count.incrementAndGet();
+            return super.getValue(method, arguments, expression, resultType, variables);
+        }
+    }
+
+    static class TestLockExecutor extends AbstractLockExecutor<String> {
+
+        private final List<String> keys = new ArrayList<>();
+
+        @Override
+        public String acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
+            keys.add(lockKey);
+            return lockValue;
+        }
+
+        @Override
+        public boolean releaseLock(String key, String value, String lockInstance) {
+            return true;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.baomidou.lock.executor;
 
+import com.baomidou.lock.LockOptions;
 import lombok.Setter;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
@@ -306,6 +310,113 @@ class LocalLockExecutorTest {
         Assertions.assertNotSame(newLock, oldLock.get());
     }
 
+    @Test
+    void stripedTest() throws Exception {
+        LocalLockExecutor stripedExecutor = new LocalLockExecutor(true, 3);
+        // 条带模式下同一个key总是使用同一个锁实例
+        LocalLockExecutor.LocalLock lock1 = stripedExecutor.acquire(KEY, VALUE, 250, 0);
+        Assertions.assertNotNull(lock1);
+        Assertions.assertTrue(stripedExecutor.releaseLock(KEY, VALUE, lock1));
+        Assertions.assertFalse(lock1.isLocked());
+        Assertions.assertFalse(lock1.isExpired());
+        LocalLockExecutor.LocalLock lock2 = stripedExecutor.acquire(KEY, VALUE, 250, 0);
+        Assertions.assertSame(lock1, lock2);
+
+        // 条带数量向上取整为4，因此5个key中至少有两个共用同一把锁，其他线程无法获取
+        String[] keys = { "k0", "k1", "k2", "k3", "k4" };
+        LocalLockExecutor.LocalLock[] locks = new LocalLockExecutor.LocalLock[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            locks[i] = stripedExecutor.acquire(keys[i], VALUE, 250, 0);
+        }
+        Assertions.assertTrue(Arrays.stream(locks).distinct().count() <= 4);
+        AtomicReference<LocalLockExecutor.LocalLock> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(stripedExecutor.acquire(KEY, VALUE, 250, 0)));
+        thread.start();
+        thread.join();
+        Assertions.assertNull(other.get());
+        for (int i = keys.length - 1; i >= 0; i--) {
+            Assertions.assertTrue(stripedExecutor.releaseLock(keys[i], VALUE, locks[i]));
+        }
+
+        // 持有的锁过期后将被新实例替换
+        block(500);
+        Assertions.assertTrue(lock2.isExpired());
+        thread = new Thread(() -> other.set(stripedExecutor.acquire(KEY, VALUE, 250, 0)));
+        thread.start();
+        thread.join();
+        Assertions.assertNotNull(other.get());
+        Assertions.assertNotSame(lock2, other.get());
+        Assertions.assertFalse(stripedExecutor.releaseLock(KEY, VALUE, lock2));
+    }
+
+    @Test
+    void fairnessTest() throws Exception {
+        LockOptions fairOptions = LockOptions.builder().fair(true).build();
+        LockOptions nonFairOptions = LockOptions.builder().fair(false).build();
+        LocalLockExecutor.LocalLock lock = localLockExecutor.acquire(KEY, VALUE, -1, 0, fairOptions);
+        Assertions.assertNotNull(lock);
+
+        // 另一线程公平地排队等待
+        AtomicReference<LocalLockExecutor.LocalLock> waiting = new AtomicReference<>();
+        CountDownLatch release = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            LocalLockExecutor.LocalLock acquired = localLockExecutor.acquire(KEY, VALUE, -1, 5000, fairOptions);
+            waiting.set(acquired);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            localLockExecutor.releaseLock(KEY, VALUE, acquired);
+        });
+        waiter.start();
+        while (!lock.hasQueuedThreads()) {
+            Thread.yield();
+        }
+
+        // 公平与非公平的竞争者使用同一个锁实例，彼此互斥
+        AtomicReference<LocalLockExecutor.LocalLock> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(localLockExecutor.acquire(KEY, VALUE, -1, 0, nonFairOptions)));
+        thread.start();
+        thread.join();
+        Assertions.assertNull(other.get());
+
+        // 有线程排队时，公平获取不会插队
+        Assertions.assertTrue(localLockExecutor.releaseLock(KEY, VALUE, lock));
+        Assertions.assertNull(localLockExecutor.acquire(KEY, VALUE, -1, 0, fairOptions));
+        release.countDown();
+        waiter.join();
+        Assertions.assertSame(lock, waiting.get());
+    }
+
+    @Test
+    void forcedExpiryTest() throws Exception {
+        // 持有者不释放锁，等待中的线程在锁到期时即可获取新的锁，而不必等到获取锁超时
+        Thread holder = new Thread(() -> localLockExecutor.acquire(KEY, VALUE, 200, 0));
+        holder.start();
+        holder.join();
+        long start = System.nanoTime();
+        LocalLockExecutor.LocalLock lock = localLockExecutor.acquire(KEY, VALUE, 250, 5000);
+        Assertions.assertNotNull(lock);
+        Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        Assertions.assertTrue(localLockExecutor.releaseLock(KEY, VALUE, lock));
+    }
+
+    @Test
+    void leakedLockTest() throws Exception {
+        // 持有者未释放锁便结束，锁到期后由时间轮主动移除，不再被执行器引用
+        AtomicReference<WeakReference<LocalLockExecutor.LocalLock>> leaked = new AtomicReference<>();
+        Thread holder = new Thread(() -> leaked.set(new WeakReference<>(localLockExecutor.acquire(KEY, VALUE, 100, 0))));
+        holder.start();
+        holder.join();
+        Assertions.assertNotNull(leaked.get().get());
+        for (int i = 0; i < 50 && Objects.nonNull(leaked.get().get()); i++) {
+            block(100);
+            System.gc();
+        }
+        Assertions.assertNull(leaked.get().get());
+    }
+
     @Setter
     private static class Worker extends Thread {
         private Runnable task;
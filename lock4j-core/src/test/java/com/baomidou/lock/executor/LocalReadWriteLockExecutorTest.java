@@ -0,0 +1,107 @@
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockOptions;
+import com.baomidou.lock.annotation.LockMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test for {@link LocalReadWriteLockExecutor}
+ */
+class LocalReadWriteLockExecutorTest {
+
+    private static final String KEY = "key";
+    private static final String VALUE = "value";
+    private static final LockOptions READ = LockOptions.builder().mode(LockMode.READ).build();
+
+    private LocalReadWriteLockExecutor executor;
+    private ExecutorService reader;
+    private ExecutorService writer;
+
+    @BeforeEach
+    void init() {
+        executor = new LocalReadWriteLockExecutor();
+        // 读写锁由线程持有，因此在同一个线程中加解锁
+        reader = Executors.newSingleThreadExecutor();
+        writer = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void destroy() {
+        executor.destroy();
+        reader.shutdownNow();
+        writer.shutdownNow();
+    }
+
+    @Test
+    void sharedTest() throws Exception {
+        LocalReadWriteLockExecutor.LockView read = executor.acquire(KEY, VALUE, 1000, 0, READ);
+        Assertions.assertNotNull(read);
+        Assertions.assertEquals(LockMode.READ, read.getMode());
+
+        // 读锁之间可以共同持有，但与写锁互斥
+        LocalReadWriteLockExecutor.LockView other = acquire(reader, READ, 1000, 0);
+        Assertions.assertNotNull(other);
+        Assertions.assertSame(read.getReadWriteLock(), other.getReadWriteLock());
+        Assertions.assertEquals(2, read.getReadWriteLock().getReadLockCount());
+        Assertions.assertNull(acquire(writer, LockOptions.DEFAULT, 1000, 0));
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, read));
+        Assertions.assertFalse(executor.releaseLock(KEY, VALUE, read));
+
+        // 写锁与读锁互斥，读锁被全部释放后才能获取
+        Future<LocalReadWriteLockExecutor.LockView> waiting = writer.submit(
+            () -> executor.acquire(KEY, VALUE, 1000, 1000, LockOptions.DEFAULT));
+        reader.submit(other::unlock).get(1, TimeUnit.SECONDS);
+        LocalReadWriteLockExecutor.LockView write = waiting.get(2, TimeUnit.SECONDS);
+        Assertions.assertNotNull(write);
+        Assertions.assertEquals(LockMode.WRITE, write.getMode());
+        Assertions.assertNull(executor.acquire(KEY, VALUE, 1000, 0, READ));
+        writer.submit(write::unlock).get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void reentrantTest() {
+        LocalReadWriteLockExecutor.LockView write = executor.acquire(KEY, VALUE, 1000, 0);
+        // 持有写锁的线程可以再获取写锁与读锁
+        LocalReadWriteLockExecutor.LockView reentrant = executor.acquire(KEY, VALUE, 1000, 0);
+        LocalReadWriteLockExecutor.LockView read = executor.acquire(KEY, VALUE, 1000, 0, READ);
+        Assertions.assertSame(write, reentrant);
+        Assertions.assertNotNull(read);
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, reentrant));
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, write));
+        Assertions.assertFalse(write.isHeldByCurrentThread());
+        Assertions.assertTrue(read.isHeldByCurrentThread());
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, read));
+
+        // 完全释放后锁实例即被移除
+        LocalReadWriteLockExecutor.LockView next = executor.acquire(KEY, VALUE, 1000, 0, READ);
+        Assertions.assertNotSame(read.getReadWriteLock(), next.getReadWriteLock());
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, next));
+    }
+
+    @Test
+    void forcedExpiryTest() throws Exception {
+        // 读锁到期后被强制过期，等待中的写锁获取新的锁实例，而不必等到获取锁超时
+        LocalReadWriteLockExecutor.LockView read = acquire(reader, READ, 100, 0);
+        Assertions.assertNotNull(read);
+        long start = System.nanoTime();
+        LocalReadWriteLockExecutor.LockView write = executor.acquire(KEY, VALUE, 1000, 5000);
+        Assertions.assertNotNull(write);
+        Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        Assertions.assertNotSame(read.getReadWriteLock(), write.getReadWriteLock());
+        Assertions.assertTrue(read.getReadWriteLock().isExpired());
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, write));
+    }
+
+    private LocalReadWriteLockExecutor.LockView acquire(
+        ExecutorService thread, LockOptions options, long expire, long acquireTimeout) throws Exception {
+        return thread.submit(() -> executor.acquire(KEY, VALUE, expire, acquireTimeout, options)).get(1, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,137 @@
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockInfo;
+import com.baomidou.lock.LockOptions;
+import com.baomidou.lock.LockTemplate;
+import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test for {@link LocalSemaphoreExecutor}
+ */
+class LocalSemaphoreExecutorTest {
+
+    private static final String KEY = "key";
+    private static final String VALUE = "value";
+    private static final LockOptions PERMITS = LockOptions.builder().permits(2).build();
+
+    private LocalSemaphoreExecutor executor;
+
+    @BeforeEach
+    void init() {
+        executor = new LocalSemaphoreExecutor();
+    }
+
+    @AfterEach
+    void destroy() {
+        executor.destroy();
+    }
+
+    @Test
+    void permitsTest() throws Exception {
+        LocalSemaphoreExecutor.Permit first = executor.acquire(KEY, VALUE, 1000, 0, PERMITS);
+        LocalSemaphoreExecutor.Permit second = executor.acquire(KEY, VALUE, 1000, 0, PERMITS);
+        Assertions.assertNotNull(first);
+        Assertions.assertNotNull(second);
+        Assertions.assertSame(first.getSemaphore(), second.getSemaphore());
+        Assertions.assertEquals(2, first.getSemaphore().getHolders());
+        // 许可已被用完
+        Assertions.assertNull(executor.acquire(KEY, VALUE, 1000, 0, PERMITS));
+
+        // 许可不与线程绑定，且只能归还一次
+        Assertions.assertTrue(CompletableFuture.supplyAsync(() -> executor.releaseLock(KEY, VALUE, first))
+            .get(1, TimeUnit.SECONDS));
+        Assertions.assertFalse(executor.releaseLock(KEY, VALUE, first));
+        LocalSemaphoreExecutor.Permit third = executor.acquire(KEY, VALUE, 1000, 0, PERMITS);
+        Assertions.assertNotNull(third);
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, second));
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, third));
+
+        // 完全归还后信号量即被移除
+        LocalSemaphoreExecutor.Permit next = executor.acquire(KEY, VALUE, 1000, 0, PERMITS);
+        Assertions.assertNotSame(first.getSemaphore(), next.getSemaphore());
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, next));
+    }
+
+    @Test
+    void forcedExpiryTest() {
+        // 许可到期后被强制归还，等待中的调用方随即获取许可，而不必等到获取许可超时
+        LocalSemaphoreExecutor.Permit permit = executor.acquire(KEY, VALUE, 100, 0);
+        Assertions.assertNotNull(permit);
+        long start = System.nanoTime();
+        LocalSemaphoreExecutor.Permit next = executor.acquire(KEY, VALUE, 1000, 5000);
+        Assertions.assertNotNull(next);
+        Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        Assertions.assertTrue(permit.isExpired());
+        Assertions.assertFalse(executor.releaseLock(KEY, VALUE, permit));
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, next));
+    }
+
+    @Test
+    void permitsMismatchTest() {
+        LocalSemaphoreExecutor.Permit permit = executor.acquire(KEY, VALUE, 1000, 0, PERMITS);
+        Assertions.assertNotNull(permit);
+        // 信号量使用期间不允许以不同的许可数量获取
+        LockOptions options = LockOptions.builder().permits(PERMITS.getPermits() + 1).build();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> executor.acquire(KEY, VALUE, 1000, 0, options));
+        Assertions.assertEquals(1, permit.getSemaphore().getHolders());
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, permit));
+
+        // 信号量被移除后可以使用新的许可数量
+        LocalSemaphoreExecutor.Permit next = executor.acquire(KEY, VALUE, 1000, 0, options);
+        Assertions.assertNotNull(next);
+        Assertions.assertEquals(PERMITS.getPermits() + 1, next.getSemaphore().getPermits());
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, next));
+    }
+
+    @Test
+    void permitExpiryTest() {
+        // 每个许可各自过期，到期的许可被单独归还，不影响其他持有者
+        LocalSemaphoreExecutor.Permit leaked = executor.acquire(KEY, VALUE, 100, 0, PERMITS);
+        LocalSemaphoreExecutor.Permit active = executor.acquire(KEY, VALUE, 10000, 0, PERMITS);
+        Assertions.assertNotNull(leaked);
+        Assertions.assertNotNull(active);
+        LocalSemaphoreExecutor.Permit next = executor.acquire(KEY, VALUE, 10000, 5000, PERMITS);
+        Assertions.assertNotNull(next);
+        Assertions.assertTrue(leaked.isExpired());
+        Assertions.assertFalse(leaked.isHeld());
+        Assertions.assertTrue(active.isHeld());
+        Assertions.assertFalse(active.isExpired());
+
+        // 同时持有的许可总数不超过许可数量
+        Assertions.assertSame(active.getSemaphore(), next.getSemaphore());
+        Assertions.assertEquals(2, next.getSemaphore().getHolders());
+        Assertions.assertNull(executor.acquire(KEY, VALUE, 10000, 0, PERMITS));
+
+        Assertions.assertFalse(executor.releaseLock(KEY, VALUE, leaked));
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, active));
+        Assertions.assertTrue(executor.releaseLock(KEY, VALUE, next));
+        Assertions.assertEquals(0, next.getSemaphore().getHolders());
+    }
+
+    @Test
+    void lockTemplateTest() throws Exception {
+        LockTemplate lockTemplate = new LockTemplate();
+        lockTemplate.setProperties(new Lock4jProperties());
+        lockTemplate.setExecutors(Collections.singletonList(executor));
+        lockTemplate.afterPropertiesSet();
+        try {
+            LockInfo first = lockTemplate.acquirePermit(KEY, 2, 1000, 0, LocalSemaphoreExecutor.class);
+            LockInfo second = lockTemplate.acquirePermit(KEY, 2, 1000, 0, LocalSemaphoreExecutor.class);
+            Assertions.assertNotNull(first);
+            Assertions.assertNotNull(second);
+            Assertions.assertNull(lockTemplate.acquirePermit(KEY, 2, 1000, 0, LocalSemaphoreExecutor.class));
+            Assertions.assertTrue(lockTemplate.releaseLock(first));
+            Assertions.assertTrue(lockTemplate.releaseLock(second));
+        } finally {
+            lockTemplate.destroy();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.AdaptiveRetryPolicy;
+import com.baomidou.lock.LockContextHolder;
+import com.baomidou.lock.LockInfo;
+import com.baomidou.lock.LockTemplate;
+import com.baomidou.lock.MultiLockInfo;
+import com.baomidou.lock.annotation.Lock4j;
+import com.baomidou.lock.exception.LockFailureException;
+import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
+import com.baomidou.lock.spring.boot.autoconfigure.LockAutoConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test for {@link LockTemplate#lockAll} and {@link Lock4j#eachKey}
+ */
+class LockAllTest {
+
+    private Lock4jProperties properties;
+    private LockTemplate lockTemplate;
+    private TestBatchLockExecutor batchLockExecutor;
+    private AdaptiveRetryPolicy retryPolicy;
+    private ExecutorService other;
+
+    @BeforeEach
+    void init() throws Exception {
+        properties = new Lock4jProperties();
+        batchLockExecutor = new TestBatchLockExecutor();
+        lockTemplate = new LockTemplate();
+        lockTemplate.setProperties(properties);
+        lockTemplate.setExecutors(Arrays.asList(new LocalLockExecutor(), batchLockExecutor));
+        retryPolicy = new AdaptiveRetryPolicy(10L, 100L);
+        lockTemplate.setRetryPolicies(Collections.singletonList(retryPolicy));
+        lockTemplate.afterPropertiesSet();
+        other = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void destroy() {
+        other.shutdown();
+        lockTemplate.destroy();
+    }
+
+    @Test
+    void lockEachTest() throws Exception {
+        LockInfo lockInfo = lockTemplate.lockAll(Arrays.asList("c", "a", "b", "a"), 0, 0, LocalLockExecutor.class);
+        Assertions.assertTrue(lockInfo instanceof MultiLockInfo);
+        MultiLockInfo multiLockInfo = (MultiLockInfo) lockInfo;
+        // key按字典序排序并去重
+        Assertions.assertEquals(Arrays.asList("a", "b", "c"), multiLockInfo.getLockKeys());
+        Assertions.assertEquals(3, multiLockInfo.getLocks().size());
+        Assertions.assertNull(tryLockInOther("b"));
+        Assertions.assertTrue(lockTemplate.releaseLock(lockInfo));
+
+        // 任意一个key获取失败时释放已经获取的锁
+        LockInfo held = tryLockInOther("b");
+        Assertions.assertNotNull(held);
+        Assertions.assertNull(lockTemplate.lockAll(Arrays.asList("a", "b", "c"), 0, 0, LocalLockExecutor.class));
+        LockInfo a = tryLockInOther("a");
+        Assertions.assertNotNull(a);
+        Assertions.assertTrue(other.submit(() -> lockTemplate.releaseLock(a) && lockTemplate.releaseLock(held))
+            .get(5, TimeUnit.SECONDS));
+
+        // 只有一个key时等同于单独加锁
+        LockInfo single = lockTemplate.lockAll(Collections.singleton("a"), 0, 0, LocalLockExecutor.class);
+        Assertions.assertFalse(single instanceof MultiLockInfo);
+        Assertions.assertEquals("a", single.getLockKey());
+        Assertions.assertTrue(lockTemplate.releaseLock(single));
+    }
+
+    @Test
+    void batchLockExecutorTest() {
+        properties.setFencingToken(true);
+        LockInfo lockInfo = lockTemplate.lockAll(Arrays.asList("b", "a"), 0, 0, TestBatchLockExecutor.class);
+        Assertions.assertTrue(lockInfo instanceof MultiLockInfo);
+        Assertions.assertNull(((MultiLockInfo) lockInfo).getLocks());
+        Assertions.assertEquals("a,b", lockInfo.getLockKey());
+        Assertions.assertEquals(1L, lockInfo.getFencingToken());
+        // 通过一次调用对所有key加锁
+        Assertions.assertEquals(Collections.singletonList(Arrays.asList("a", "b")), batchLockExecutor.batches);
+
+        Assertions.assertNull(lockTemplate.lockAll(Arrays.asList("b", "c"), 0, 0, TestBatchLockExecutor.class));
+        Assertions.assertFalse(batchLockExecutor.locks.containsKey("c"));
+
+        Assertions.assertTrue(lockTemplate.releaseLock(lockInfo));
+        Assertions.assertTrue(batchLockExecutor.locks.isEmpty());
+    }
+
+    @Test
+    void retryPolicyTest() {
+        LockInfo lockInfo = lockTemplate.lockAll(
+            Arrays.asList("b", "a"), "stock", 0, 0, TestBatchLockExecutor.class, AdaptiveRetryPolicy.class);
+        Assertions.assertTrue(lockTemplate.releaseLock(lockInfo));
+        // 持有时间按锁名称记录，而不是按key
+        Assertions.assertTrue(retryPolicy.getAverageHoldTime("stock") >= 0);
+        Assertions.assertEquals(-1, retryPolicy.getAverageHoldTime("a"));
+        Assertions.assertEquals(-1, retryPolicy.getAverageHoldTime(lockInfo.getLockKey()));
+    }
+
+    @Test
+    void batchUnsupportedTest() {
+        // 执行器不支持对这些key批量加锁时逐个加锁
+        batchLockExecutor.batchSupported = false;
+        LockInfo lockInfo = lockTemplate.lockAll(Arrays.asList("b", "a"), 0, 0, TestBatchLockExecutor.class);
+        Assertions.assertTrue(lockInfo instanceof MultiLockInfo);
+        Assertions.assertEquals(2, ((MultiLockInfo) lockInfo).getLocks().size());
+        Assertions.assertEquals(
+            Arrays.asList(Collections.singletonList("a"), Collections.singletonList("b")), batchLockExecutor.batches);
+        Assertions.assertTrue(lockTemplate.releaseLock(lockInfo));
+        Assertions.assertTrue(batchLockExecutor.locks.isEmpty());
+    }
+
+    @Test
+    void eachKeyTest() throws Exception {
+        try (AnnotationConfigApplicationContext applicationContext = new AnnotationConfigApplicationContext(TestConfiguration.class)) {
+            StockService service = applicationContext.getBean(StockService.class);
+            LockTemplate template = applicationContext.getBean(LockTemplate.class);
+
+            // 每个元素对应一把锁
+            Assertions.assertEquals(
+                Arrays.asList("lock4j:stock#w.1", "lock4j:stock#w.2"), service.update("w", Arrays.asList(2L, 1L)));
+            Assertions.assertEquals(Collections.singletonList("lock4j:each#1"), service.updateAll(new long[]{1L}));
+            // 没有元素时不加锁，直接执行方法
+            Assertions.assertNull(service.update("w", Collections.emptyList()));
+            Assertions.assertNull(service.update("w", null));
+            // 不支持与许可数量等选项同时指定
+            Assertions.assertThrows(IllegalArgumentException.class, () -> service.acquirePermits(Arrays.asList(1L, 2L)));
+
+            // 只与实际涉及的元素竞争
+            LockInfo held = other.submit(() -> template.lock("lock4j:stock#w.2", 0, 0, LocalLockExecutor.class))
+                .get(5, TimeUnit.SECONDS);
+            Assertions.assertNotNull(held);
+            Assertions.assertThrows(LockFailureException.class, () -> service.update("w", Arrays.asList(1L, 2L)));
+            Assertions.assertEquals(Collections.singletonList("lock4j:stock#w.1"), service.update("w", Collections.singletonList(1L)));
+            Assertions.assertTrue(other.submit(() -> template.releaseLock(held)).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @Import(LockAutoConfiguration.class)
+    static class TestConfiguration {
+
+        @Bean
+        public StockService stockService() {
+            return new StockService();
+        }
+    }
+
+    static class StockService {
+
+        @Lock4j(name = "stock", keys = "#warehouse", eachKey = "#skuIds", acquireTimeout = 0, executor = LocalLockExecutor.class)
+        public List<String> update(String warehouse, List<Long> skuIds) {
+            return lockKeys();
+        }
+
+        @Lock4j(name = "each", eachKey = "#skuIds", acquireTimeout = 0, executor = LocalLockExecutor.class)
+        public List<String> updateAll(long[] skuIds) {
+            return lockKeys();
+        }
+
+        @Lock4j(name = "permits", eachKey = "#skuIds", permits = 2, acquireTimeout = 0, executor = LocalLockExecutor.class)
+        public List<String> acquirePermits(List<Long> skuIds) {
+            return lockKeys();
+        }
+
+        private static List<String> lockKeys() {
+            LockInfo lockInfo = LockContextHolder.getLockInfo();
+            if (null == lockInfo) {
+                return null;
+            }
+            return lockInfo instanceof MultiLockInfo ?
+                ((MultiLockInfo) lockInfo).getLockKeys() : Collections.singletonList(lockInfo.getLockKey());
+        }
+    }
+
+    private LockInfo tryLockInOther(String key) throws Exception {
+        return other.submit(() -> lockTemplate.lock(key, 0, 0, LocalLockExecutor.class)).get(5, TimeUnit.SECONDS);
+    }
+
+    private static class TestBatchLockExecutor extends AbstractLockExecutor<String> implements BatchLockExecutor<String> {
+
+        private final Map<String, String> locks = new ConcurrentHashMap<>();
+        private final List<List<String>> batches = new ArrayList<>();
+        private volatile boolean batchSupported = true;
+
+        @Override
+        public boolean isBatchSupported(List<String> lockKeys) {
+            return batchSupported;
+        }
+
+        @Override
+        public String acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
+            return acquireAll(Collections.singletonList(lockKey), lockValue, expire, acquireTimeout);
+        }
+
+        @Override
+        public boolean releaseLock(String key, String value, String lockInstance) {
+            return releaseAll(Collections.singletonList(key), value, lockInstance);
+        }
+
+        @Override
+        public synchronized String acquireAll(List<String> lockKeys, String lockValue, long expire, long acquireTimeout) {
+            batches.add(lockKeys);
+            boolean locked = lockKeys.stream().noneMatch(locks::containsKey);
+            if (locked) {
+                lockKeys.forEach(key -> locks.put(key, lockValue));
+            }
+            return obtainLockInstance(locked, lockValue);
+        }
+
+        @Override
+        public synchronized boolean releaseAll(List<String> lockKeys, String value, String lockInstance) {
+            boolean released = true;
+            for (String key : lockKeys) {
+                released &= locks.remove(key, value);
+            }
+            return released;
+        }
+
+        @Override
+        public long getFencingToken(List<String> lockKeys, String lockInstance) {
+            return batches.size();
+        }
+    }
+}
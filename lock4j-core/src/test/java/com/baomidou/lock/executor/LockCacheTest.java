@@ -0,0 +1,79 @@
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockCache;
+import com.baomidou.lock.LockCacheFactory;
+import com.baomidou.lock.cache.CaffeineLockCacheFactory;
+import com.baomidou.lock.cache.ConcurrentMapLockCacheFactory;
+import com.baomidou.lock.metrics.MicrometerLockCacheMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * test for {@link LockCacheFactory}
+ */
+class LockCacheTest {
+
+    @Test
+    void concurrentMapTest() {
+        LockCacheFactory factory = new ConcurrentMapLockCacheFactory();
+        LockCache<String, String> cache = factory.createCache("test");
+        assertHitAndMiss(cache);
+        assertGetAndPutIfAbsent(factory.createCache("other"));
+        // 名称重复时追加序号
+        Assertions.assertEquals("test#2", factory.createCache("test").getName());
+        Assertions.assertEquals(3, factory.getCaches().size());
+    }
+
+    @Test
+    void caffeineTest() {
+        LockCacheFactory factory = new CaffeineLockCacheFactory(10);
+        LockCache<Integer, Integer> cache = factory.createCache("test");
+        assertHitAndMiss(factory.createCache("other"));
+        assertGetAndPutIfAbsent(factory.createCache("another"));
+        // 超出容量后淘汰
+        for (int i = 0; i < 1000; i++) {
+            cache.computeIfAbsent(i, k -> k);
+        }
+        Assertions.assertTrue(cache.size() <= 1000);
+        for (int i = 0; i < 1000 && cache.size() > 10; i++) {
+            cache.computeIfAbsent(i, k -> k);
+            Thread.yield();
+        }
+        Assertions.assertTrue(cache.size() <= 10);
+    }
+
+    @Test
+    void metricsTest() {
+        LockCacheFactory factory = new ConcurrentMapLockCacheFactory();
+        LockCache<String, String> cache = factory.createCache("test");
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new MicrometerLockCacheMetrics(registry, factory).afterSingletonsInstantiated();
+        assertHitAndMiss(cache);
+        Assertions.assertEquals(1, registry.get("lock4j.cache.gets")
+            .tags("cache", "test", "result", "hit").functionCounter().count());
+        Assertions.assertEquals(2, registry.get("lock4j.cache.gets")
+            .tags("cache", "test", "result", "miss").functionCounter().count());
+        Assertions.assertEquals(2, registry.get("lock4j.cache.size").tags("cache", "test").gauge().value());
+    }
+
+    private static void assertHitAndMiss(LockCache<String, String> cache) {
+        Assertions.assertEquals("a", cache.computeIfAbsent("a", k -> k));
+        Assertions.assertEquals("a", cache.computeIfAbsent("a", k -> "b"));
+        Assertions.assertEquals("b", cache.computeIfAbsent("b", k -> k));
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(2, cache.getMissCount());
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    private static void assertGetAndPutIfAbsent(LockCache<String, String> cache) {
+        Assertions.assertNull(cache.get("a"));
+        Assertions.assertNull(cache.putIfAbsent("a", "a"));
+        Assertions.assertEquals("a", cache.putIfAbsent("a", "b"));
+        Assertions.assertEquals("a", cache.get("a"));
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(1, cache.getMissCount());
+        Assertions.assertEquals(1, cache.size());
+    }
+}
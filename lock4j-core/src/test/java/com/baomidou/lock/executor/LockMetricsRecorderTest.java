@@ -0,0 +1,82 @@
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.DefaultLockFailureStrategy;
+import com.baomidou.lock.LockInfo;
+import com.baomidou.lock.LockMetricsRecorder;
+import com.baomidou.lock.LockTemplate;
+import com.baomidou.lock.metrics.MicrometerLockMetricsRecorder;
+import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+/**
+ * test for {@link MicrometerLockMetricsRecorder}
+ */
+class LockMetricsRecorderTest {
+
+    private static final String NAME = "order";
+
+    private MeterRegistry registry;
+    private LockTemplate lockTemplate;
+
+    @BeforeEach
+    void init() throws Exception {
+        Lock4jProperties properties = new Lock4jProperties();
+        properties.setRetryInterval(10L);
+        registry = new SimpleMeterRegistry();
+        lockTemplate = new LockTemplate();
+        lockTemplate.setProperties(properties);
+        lockTemplate.setExecutors(Collections.singletonList(new LocalLockExecutor()));
+        lockTemplate.setMetricsRecorder(new MicrometerLockMetricsRecorder(registry));
+        lockTemplate.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void destroy() {
+        lockTemplate.destroy();
+    }
+
+    @Test
+    void acquireAndReleaseTest() {
+        LockInfo lockInfo = lockTemplate.lock("key-1", NAME, 0, -1, null, null);
+        Assertions.assertEquals(NAME, lockInfo.getName());
+        Assertions.assertTrue(lockTemplate.releaseLock(lockInfo));
+        // 释放已释放的锁视为失败
+        Assertions.assertFalse(lockTemplate.releaseLock(lockInfo));
+        lockTemplate.releaseLock(lockTemplate.lock("key-2", NAME, 0, -1, null, null));
+
+        // 不同的key共用同一组指标
+        Timer acquired = registry.get("lock4j.acquire")
+            .tags("executor", "LocalLockExecutor", "name", NAME, "result", "acquired").timer();
+        Assertions.assertEquals(2, acquired.count());
+        Assertions.assertEquals(3, registry.get("lock4j.hold").tags("name", NAME).timer().count());
+        Assertions.assertEquals(1, registry.get("lock4j.release.failures").tags("name", NAME).counter().count());
+        Assertions.assertEquals(2, registry.get("lock4j.acquire.attempts").tags("name", NAME).summary().count());
+    }
+
+    @Test
+    void acquireFailedTest() throws Exception {
+        LockInfo lockInfo = lockTemplate.lock("key");
+        Thread thread = new Thread(() -> Assertions.assertNull(lockTemplate.lock("key", 0, 50)));
+        thread.start();
+        thread.join();
+        lockTemplate.releaseLock(lockInfo);
+
+        Timer failed = registry.get("lock4j.acquire").tags("name", LockMetricsRecorder.UNNAMED, "result", "failed").timer();
+        Assertions.assertEquals(1, failed.count());
+        Assertions.assertEquals(2, registry.get("lock4j.acquire.attempts").tags("name", LockMetricsRecorder.UNNAMED)
+            .summary().count());
+
+        lockTemplate.recordLockFailure(null, new DefaultLockFailureStrategy(), NAME);
+        Assertions.assertEquals(1, registry.get("lock4j.failures")
+            .tags("executor", "LocalLockExecutor", "name", NAME, "strategy", "DefaultLockFailureStrategy")
+            .counter().count());
+    }
+}
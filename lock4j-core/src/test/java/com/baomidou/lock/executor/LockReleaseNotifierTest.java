@@ -0,0 +1,84 @@
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockReleaseNotifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test for {@link LockReleaseNotifier}
+ */
+class LockReleaseNotifierTest {
+
+    private static final String KEY = "key";
+
+    private LockReleaseNotifier notifier;
+
+    @BeforeEach
+    void init() {
+        notifier = new LockReleaseNotifier();
+    }
+
+    @Test
+    void timeoutTest() throws InterruptedException {
+        try (LockReleaseNotifier.Subscription subscription = notifier.subscribe(KEY)) {
+            // 未收到通知，超时返回
+            Assertions.assertFalse(subscription.await(50));
+            // 其他key的通知不会唤醒当前等待者
+            notifier.signal("other");
+            Assertions.assertFalse(subscription.await(50));
+        }
+        Assertions.assertEquals(0, notifier.getWaitingKeyCount());
+    }
+
+    @Test
+    void signalTest() throws Exception {
+        LockReleaseNotifier.Subscription subscription = notifier.subscribe(KEY);
+        Assertions.assertEquals(1, notifier.getWaitingKeyCount());
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return subscription.await(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        notifier.signal(KEY);
+        // 收到通知后提前唤醒，而不是等待完整的超时时间
+        Assertions.assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        subscription.close();
+        Assertions.assertEquals(0, notifier.getWaitingKeyCount());
+    }
+
+    @Test
+    void signalBeforeAwaitTest() throws InterruptedException {
+        try (LockReleaseNotifier.Subscription subscription = notifier.subscribe(KEY)) {
+            // 订阅后、等待前收到的通知不会丢失
+            notifier.signal(KEY);
+            Assertions.assertTrue(subscription.await(0));
+            Assertions.assertFalse(subscription.await(0));
+        }
+    }
+
+    @Test
+    void multiKeyTest() throws InterruptedException {
+        LockReleaseNotifier.Subscription single = notifier.subscribe(KEY);
+        try (LockReleaseNotifier.Subscription subscription = notifier.subscribe(Arrays.asList(KEY, "other"))) {
+            Assertions.assertEquals(2, notifier.getWaitingKeyCount());
+            // 任意一个key被释放时都会唤醒等待者
+            notifier.signal("other");
+            Assertions.assertTrue(subscription.await(0));
+            Assertions.assertFalse(single.await(0));
+            notifier.signal(KEY);
+            Assertions.assertTrue(subscription.await(0));
+            Assertions.assertTrue(single.await(0));
+        }
+        Assertions.assertEquals(1, notifier.getWaitingKeyCount());
+        single.close();
+        Assertions.assertEquals(0, notifier.getWaitingKeyCount());
+    }
+}
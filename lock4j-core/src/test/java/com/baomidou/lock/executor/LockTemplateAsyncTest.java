@@ -0,0 +1,141 @@
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockInfo;
+import com.baomidou.lock.LockOptions;
+import com.baomidou.lock.LockTemplate;
+import com.baomidou.lock.annotation.LockMode;
+import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * test for {@link LockTemplate#lockAsync}
+ */
+class LockTemplateAsyncTest {
+
+    private static final String KEY = "key";
+
+    private LockTemplate lockTemplate;
+    private TestAsyncLockExecutor asyncLockExecutor;
+
+    @BeforeEach
+    void init() throws Exception {
+        Lock4jProperties properties = new Lock4jProperties();
+        properties.setRetryInterval(10L);
+        asyncLockExecutor = new TestAsyncLockExecutor();
+        lockTemplate = new LockTemplate();
+        lockTemplate.setProperties(properties);
+        lockTemplate.setExecutors(Arrays.asList(asyncLockExecutor, new LocalLockExecutor()));
+        lockTemplate.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void destroy() {
+        lockTemplate.destroy();
+    }
+
+    @Test
+    void lockAndReleaseTest() throws Exception {
+        LockInfo lockInfo = lockTemplate.lockAsync(KEY).toCompletableFuture().get(1, TimeUnit.SECONDS);
+        Assertions.assertNotNull(lockInfo);
+        Assertions.assertTrue(lockInfo.isAsync());
+        Assertions.assertEquals(1, lockInfo.getAcquireCount());
+
+        // 锁被占用时重试直到超时
+        Assertions.assertNull(lockTemplate.lockAsync(KEY, 0, 50).toCompletableFuture().get(1, TimeUnit.SECONDS));
+
+        Assertions.assertTrue(lockTemplate.releaseAsync(lockInfo).toCompletableFuture().get(1, TimeUnit.SECONDS));
+        Assertions.assertFalse(lockTemplate.releaseAsync(lockInfo).toCompletableFuture().get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void retryTest() throws Exception {
+        LockInfo lockInfo = lockTemplate.lockAsync(KEY).toCompletableFuture().get(1, TimeUnit.SECONDS);
+        CompletableFuture<LockInfo> waiting = lockTemplate.lockAsync(KEY, 0, 1000).toCompletableFuture();
+        // 确保首次尝试已经失败
+        while (asyncLockExecutor.attempts.get() < 2) {
+            Thread.yield();
+        }
+        Assertions.assertFalse(waiting.isDone());
+        // 异步获取的锁也可以同步释放
+        Assertions.assertTrue(lockTemplate.releaseLock(lockInfo));
+
+        LockInfo next = waiting.get(1, TimeUnit.SECONDS);
+        Assertions.assertNotNull(next);
+        Assertions.assertTrue(next.getAcquireCount() > 1);
+        Assertions.assertTrue(lockTemplate.releaseLock(next));
+    }
+
+    @Test
+    void asyncUnsupportedTest() {
+        // 不支持异步加锁的执行器直接失败，而不是在当前线程上同步加锁
+        CompletionStage<LockInfo> stage = lockTemplate.lockAsync(KEY, 0, 0, LocalLockExecutor.class, null);
+        CompletionException e = Assertions.assertThrows(
+            CompletionException.class, () -> stage.toCompletableFuture().getNow(null));
+        Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+
+        // 同步获取的锁仍然可以通过异步方式释放
+        LockInfo lockInfo = lockTemplate.lock(KEY, 0, 0, LocalLockExecutor.class);
+        Assertions.assertFalse(lockInfo.isAsync());
+        Assertions.assertTrue(lockTemplate.releaseAsync(lockInfo).toCompletableFuture().getNow(false));
+    }
+
+    @Test
+    void optionsTest() throws Exception {
+        // 加锁选项透传给执行器
+        LockOptions options = LockOptions.builder().mode(LockMode.READ).build();
+        LockInfo lockInfo = lockTemplate.lockAsync(KEY, null, 0, 0, null, null, options)
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+        Assertions.assertNotNull(lockInfo);
+        Assertions.assertSame(options, asyncLockExecutor.options.get());
+        Assertions.assertTrue(lockTemplate.releaseLock(lockInfo));
+    }
+
+    private static class TestAsyncLockExecutor extends AbstractLockExecutor<String> implements AsyncLockExecutor<String> {
+
+        private final Map<String, String> locks = new ConcurrentHashMap<>();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicReference<LockOptions> options = new AtomicReference<>();
+
+        @Override
+        public String acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
+            boolean locked = null == locks.putIfAbsent(lockKey, lockValue);
+            attempts.incrementAndGet();
+            return obtainLockInstance(locked, lockValue);
+        }
+
+        @Override
+        public boolean releaseLock(String key, String value, String lockInstance) {
+            return locks.remove(key, value);
+        }
+
+        @Override
+        public CompletionStage<String> acquireAsync(String lockKey, String lockValue, long expire, long acquireTimeout) {
+            return CompletableFuture.supplyAsync(() -> acquire(lockKey, lockValue, expire, acquireTimeout));
+        }
+
+        @Override
+        public CompletionStage<String> acquireAsync(
+            String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+            this.options.set(options);
+            return acquireAsync(lockKey, lockValue, expire, acquireTimeout);
+        }
+
+        @Override
+        public CompletionStage<Boolean> releaseLockAsync(String key, String value, String lockInstance) {
+            return CompletableFuture.supplyAsync(() -> releaseLock(key, value, lockInstance));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.annotation.Lock4j;
+import com.baomidou.lock.exception.LockFailureException;
+import com.baomidou.lock.spring.boot.autoconfigure.LockAutoConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * test for reactive {@link Lock4j} methods
+ */
+class ReactiveLockTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private TestAsyncLockExecutor lockExecutor;
+    private ReactiveService reactiveService;
+
+    @BeforeEach
+    void init() {
+        applicationContext = new AnnotationConfigApplicationContext(TestConfiguration.class);
+        lockExecutor = applicationContext.getBean(TestAsyncLockExecutor.class);
+        reactiveService = applicationContext.getBean(ReactiveService.class);
+    }
+
+    @AfterEach
+    void destroy() {
+        applicationContext.close();
+    }
+
+    @Test
+    void monoTest() {
+        Mono<String> mono = reactiveService.mono("key", Mono.fromCallable(() -> lockExecutor.isLocked("key")).map(String::valueOf));
+        // 订阅前不加锁
+        Assertions.assertFalse(lockExecutor.isLocked("key"));
+        Assertions.assertEquals("true", mono.block(TIMEOUT));
+        Assertions.assertFalse(lockExecutor.isLocked("key"));
+
+        Mono<String> error = reactiveService.mono("key", Mono.error(new IllegalArgumentException()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> error.block(TIMEOUT));
+        Assertions.assertFalse(lockExecutor.isLocked("key"));
+    }
+
+    @Test
+    void fluxTest() {
+        Sinks.Many<String> sink = Sinks.many().unicast().onBackpressureBuffer();
+        Flux<String> flux = reactiveService.flux("key", sink.asFlux());
+        // 持有锁直到发布者结束
+        Disposable subscription = flux.subscribe();
+        sink.tryEmitNext("a");
+        Assertions.assertTrue(lockExecutor.isLocked("key"));
+        sink.tryEmitComplete();
+        Assertions.assertFalse(lockExecutor.isLocked("key"));
+
+        // 取消订阅时释放锁
+        subscription = reactiveService.flux("key", Flux.never()).subscribe();
+        Assertions.assertTrue(lockExecutor.isLocked("key"));
+        subscription.dispose();
+        Assertions.assertFalse(lockExecutor.isLocked("key"));
+    }
+
+    @Test
+    void lockFailureTest() {
+        Disposable subscription = reactiveService.flux("key", Flux.never()).subscribe();
+        Assertions.assertThrows(LockFailureException.class,
+            () -> reactiveService.mono("key", Mono.just("value")).block(TIMEOUT));
+        subscription.dispose();
+        Assertions.assertEquals("value", reactiveService.mono("key", Mono.just("value")).block(TIMEOUT));
+    }
+
+    @Test
+    void syncExecutorTest() {
+        // 线程绑定的执行器无法在响应式方法中使用
+        Assertions.assertThrows(IllegalStateException.class, () -> reactiveService.local().block(TIMEOUT));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @Import(LockAutoConfiguration.class)
+    static class TestConfiguration {
+
+        @Bean
+        public TestAsyncLockExecutor testAsyncLockExecutor() {
+            return new TestAsyncLockExecutor();
+        }
+
+        @Bean
+        public ReactiveService reactiveService() {
+            return new ReactiveService();
+        }
+    }
+
+    static class ReactiveService {
+
+        @Lock4j(name = "reactive", keys = "#key", acquireTimeout = 0, executor = TestAsyncLockExecutor.class)
+        public Mono<String> mono(String key, Mono<String> body) {
+            return body;
+        }
+
+        @Lock4j(name = "reactive", keys = "#key", acquireTimeout = 0, executor = TestAsyncLockExecutor.class)
+        public Flux<String> flux(String key, Flux<String> body) {
+            return body;
+        }
+
+        @Lock4j(executor = LocalLockExecutor.class)
+        public Mono<String> local() {
+            return Mono.just("value");
+        }
+    }
+
+    static class TestAsyncLockExecutor extends AbstractLockExecutor<String> implements AsyncLockExecutor<String> {
+
+        private final Map<String, String> locks = new ConcurrentHashMap<>();
+
+        boolean isLocked(String key) {
+            return locks.keySet().stream().anyMatch(k -> k.endsWith(key));
+        }
+
+        @Override
+        public String acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
+            return obtainLockInstance(null == locks.putIfAbsent(lockKey, lockValue), lockValue);
+        }
+
+        @Override
+        public boolean releaseLock(String key, String value, String lockInstance) {
+            return locks.remove(key, value);
+        }
+
+        @Override
+        public CompletionStage<String> acquireAsync(String lockKey, String lockValue, long expire, long acquireTimeout) {
+            return CompletableFuture.completedFuture(acquire(lockKey, lockValue, expire, acquireTimeout));
+        }
+
+        @Override
+        public CompletionStage<Boolean> releaseLockAsync(String key, String value, String lockInstance) {
+            return CompletableFuture.completedFuture(releaseLock(key, value, lockInstance));
+        }
+    }
+}
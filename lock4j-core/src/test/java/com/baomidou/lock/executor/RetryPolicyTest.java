@@ -0,0 +1,63 @@
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * test for {@link RetryPolicy}
+ */
+class RetryPolicyTest {
+
+    private static final String NAME = "order";
+
+    @Test
+    void fixedTest() {
+        RetryPolicy policy = new FixedRetryPolicy(100);
+        Assertions.assertEquals(100, policy.nextInterval(NAME, 1, 0));
+        Assertions.assertEquals(100, policy.nextInterval(NAME, 10, 100));
+    }
+
+    @Test
+    void exponentialBackoffTest() {
+        RetryPolicy policy = new ExponentialBackoffRetryPolicy(100, 1000);
+        for (int i = 0; i < 100; i++) {
+            long first = policy.nextInterval(NAME, 1, 0);
+            Assertions.assertTrue(first >= 50 && first <= 100);
+            long third = policy.nextInterval(NAME, 3, first);
+            Assertions.assertTrue(third >= 200 && third <= 400);
+            // 不超过最大间隔，且次数很大时不会溢出
+            long last = policy.nextInterval(NAME, Integer.MAX_VALUE, third);
+            Assertions.assertTrue(last >= 500 && last <= 1000);
+        }
+    }
+
+    @Test
+    void decorrelatedJitterTest() {
+        RetryPolicy policy = new DecorrelatedJitterRetryPolicy(100, 1000);
+        long interval = 0;
+        for (int i = 1; i <= 100; i++) {
+            long next = policy.nextInterval(NAME, i, interval);
+            Assertions.assertTrue(next >= 100 && next <= Math.min(1000, Math.max(interval, 100) * 3));
+            interval = next;
+        }
+    }
+
+    @Test
+    void adaptiveTest() {
+        AdaptiveRetryPolicy policy = new AdaptiveRetryPolicy(10, 1000);
+        Assertions.assertEquals(-1, policy.getAverageHoldTime(NAME));
+        for (int i = 0; i < 50; i++) {
+            policy.onReleased(NAME, 40);
+        }
+        Assertions.assertEquals(40, policy.getAverageHoldTime(NAME));
+        // 持有时间较短时，重试间隔不超过平均持有时间
+        long interval = 0;
+        for (int i = 1; i <= 100; i++) {
+            interval = policy.nextInterval(NAME, i, interval);
+            Assertions.assertTrue(interval >= 10 && interval <= 40);
+        }
+        // 未观察到持有时间的锁名称不受影响
+        Assertions.assertTrue(policy.nextInterval("other", 1, 0) <= 30);
+    }
+}
@@ -6,9 +6,14 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.EmbeddedValueResolver;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
 
 /**
  * test for {@link SpelMethodBasedExpressionEvaluator}
@@ -66,6 +71,49 @@ class SpelMethodBasedExpressionEvaluatorTest {
         );
     }
 
+    @SneakyThrows
+    @Test
+    void testCompiledExpression() {
+        SpelMethodBasedExpressionEvaluator evaluator = new SpelMethodBasedExpressionEvaluator(
+            new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, getClass().getClassLoader()));
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        evaluator.setBeanFactory(beanFactory);
+        evaluator.setEmbeddedValueResolver(new EmbeddedValueResolver(beanFactory));
+        Method anything = SpelMethodBasedExpressionEvaluatorTest.class.getDeclaredMethod("anything", Object.class);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(5, evaluator.getValue(anything, new Object[]{"hello"}, "#param.length()", Integer.class));
+        }
+        // 参数类型变化导致编译后的表达式执行失败时，退化为解释执行
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(5, evaluator.getValue(
+                anything, new Object[]{new StringBuilder("world")}, "#param.length()", Integer.class));
+        }
+        Assertions.assertEquals(3, evaluator.getValue(anything, new Object[]{"foo"}, "#param.length()", Integer.class));
+    }
+
+    @Test
+    void testSharedContext() {
+        Object[] arguments = new Object[]{"wo", "rld"};
+        Assertions.assertEquals("world", spelMethodBasedExpressionEvaluator.getValue(
+            method, arguments, "#param1 + #param2", String.class));
+        // 同一次调用中的变量仅在当次计算中生效，且不影响参数的引用
+        Assertions.assertEquals("key:wo", spelMethodBasedExpressionEvaluator.getValue(
+            method, arguments, "#param1 + ':' + #p0", String.class, Collections.singletonMap("param1", "key")));
+        Assertions.assertEquals("wo", spelMethodBasedExpressionEvaluator.getValue(
+            method, arguments, "#param1", String.class));
+        // 参数数组中的值发生变化时，表达式引用的是最新的值
+        arguments[1] = "rd";
+        Assertions.assertEquals("word", spelMethodBasedExpressionEvaluator.getValue(
+            method, arguments, "#a0 + #param2", String.class));
+        Assertions.assertEquals("hello", spelMethodBasedExpressionEvaluator.getValue(
+            method, new Object[]{"hel", "lo"}, "#param1 + #param2", String.class));
+    }
+
+    private void anything(Object param) {
+        // do nothing
+    }
+
     private void something(String param1, String param2) {
         // do nothing
     }
@@ -0,0 +1,104 @@
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockInfo;
+import com.baomidou.lock.LockReleaseNotifier;
+import com.baomidou.lock.LockTemplate;
+import com.baomidou.lock.exception.LockFailureException;
+import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
+import com.baomidou.lock.util.VirtualThreads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test for {@link LockTemplate#executeAsync} and virtual threads
+ */
+class VirtualThreadTest {
+
+    private static final String KEY = "key";
+
+    private LockTemplate lockTemplate;
+
+    @BeforeEach
+    void init() throws Exception {
+        Lock4jProperties properties = new Lock4jProperties();
+        properties.setAcquireTimeout(TimeUnit.SECONDS.toMillis(30));
+        lockTemplate = new LockTemplate();
+        lockTemplate.setProperties(properties);
+        lockTemplate.setExecutors(Collections.singletonList(new LocalLockExecutor()));
+        lockTemplate.setReleaseNotifier(new LockReleaseNotifier());
+        lockTemplate.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void destroy() {
+        lockTemplate.destroy();
+    }
+
+    @Test
+    void executeAsyncTest() throws Exception {
+        Assertions.assertEquals("value", lockTemplate.executeAsync(KEY, () -> "value").get(5, TimeUnit.SECONDS));
+
+        // 锁被占用时以获取锁失败结束
+        LockInfo lockInfo = lockTemplate.lock(KEY);
+        CompletableFuture<String> future = lockTemplate.executeAsync(KEY, 0, 50, () -> "value");
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof LockFailureException);
+        Assertions.assertTrue(lockTemplate.releaseLock(lockInfo));
+
+        // 任务抛出异常时也会释放锁
+        CompletableFuture<String> failed = lockTemplate.executeAsync(KEY, () -> {
+            throw new IllegalArgumentException();
+        });
+        e = Assertions.assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof IllegalArgumentException);
+        Assertions.assertTrue(lockTemplate.releaseLock(lockTemplate.lock(KEY, 0, 0)));
+    }
+
+    @Test
+    void virtualThreadsUnsupportedTest() {
+        Assumptions.assumeFalse(VirtualThreads.isSupported());
+        Assertions.assertThrows(IllegalStateException.class, () -> VirtualThreads.newVirtualThreadPerTaskExecutor("test-"));
+    }
+
+    /**
+     * 等待锁的虚拟线程数远多于载体线程数，若等待时阻塞了载体线程，持有锁的虚拟线程将无法被调度而导致超时
+     */
+    @Test
+    void noPinningTest() throws Exception {
+        Assumptions.assumeTrue(VirtualThreads.isSupported());
+        int waiters = 10000;
+        int[] counter = new int[1];
+        PrintStream out = System.out;
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor("test-");
+        lockTemplate.setTaskExecutor(executor);
+        // 开启-Djdk.tracePinnedThreads时，虚拟线程被固定在载体线程上阻塞时会向System.out输出堆栈
+        System.setOut(new PrintStream(trace, true));
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[waiters];
+            for (int i = 0; i < waiters; i++) {
+                futures[i] = lockTemplate.executeAsync(KEY, () -> {
+                    Thread.sleep(0, 1000);
+                    return ++counter[0];
+                });
+            }
+            CompletableFuture.allOf(futures).get(60, TimeUnit.SECONDS);
+        } finally {
+            System.setOut(out);
+            executor.shutdown();
+        }
+        Assertions.assertEquals(waiters, counter[0]);
+        Assertions.assertFalse(trace.toString().contains("<== monitors"), trace::toString);
+    }
+}
@@ -0,0 +1,491 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * <p>为{@code @Lock4j}与{@code @LockWithDefault}方法生成{@code GeneratedLockKeyBuilder}实现类的注解处理器。
+ *
+ * <p>当key定义均为形如{@code #orderId}、{@code #order.userId}的属性路径或{@code 'value'}形式的字符串常量时，
+ * 处理器将生成按参数下标取值并直接调用getter方法的实现，并注册到{@code META-INF/services}中。
+ * 条件表达式同样为属性路径时，也会一并生成。引用了不存在的参数或属性时将导致编译失败；
+ * 其他无法在编译期确定的表达式则不生成实现类，仍在运行时通过SpEL计算。
+ *
+ * <p>由于其他注解处理器(比如Lombok)可能会为类型添加getter方法，处理器将在最后一轮统一生成代码。
+ */
+@SupportedAnnotationTypes({
+    LockKeyBuilderProcessor.LOCK4J, LockKeyBuilderProcessor.LOCK_WITH_DEFAULT
+})
+public class LockKeyBuilderProcessor extends AbstractProcessor {
+
+    static final String LOCK4J = "com.baomidou.lock.annotation.Lock4j";
+    static final String LOCK_WITH_DEFAULT = "com.baomidou.lock.annotation.LockWithDefault";
+    static final String GENERATED_LOCK_KEY_BUILDER = "com.baomidou.lock.GeneratedLockKeyBuilder";
+    static final String SERVICE_FILE = "META-INF/services/" + GENERATED_LOCK_KEY_BUILDER;
+    private static final String CLASS_SUFFIX = "_Lock4jKeyBuilder";
+    private static final Pattern PROPERTY_PATH = Pattern.compile("#[A-Za-z_]\\w*(\\.[A-Za-z_]\\w*)*");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'[^'$]*'");
+
+    private final Set<ExecutableElement> methods = new LinkedHashSet<>();
+    private final Set<String> generatedClasses = new HashSet<>();
+    private final Set<String> serviceEntries = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            ElementFilter.methodsIn(roundEnv.getElementsAnnotatedWith(annotation)).stream()
+                .filter(method -> null != findLockAnnotation(method))
+                .forEach(methods::add);
+        }
+        if (roundEnv.processingOver()) {
+            methods.forEach(this::generate);
+            methods.clear();
+            writeServiceFile();
+        }
+        return false;
+    }
+
+    /**
+     * 获取方法上唯一的锁注解，同时存在多个锁注解时返回{@code null}
+     *
+     * @param method 方法
+     * @return 注解
+     */
+    private AnnotationMirror findLockAnnotation(ExecutableElement method) {
+        AnnotationMirror found = null;
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            String name = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+            if (LOCK4J.equals(name) || LOCK_WITH_DEFAULT.equals(name)) {
+                if (null != found) {
+                    return null;
+                }
+                found = mirror;
+            }
+        }
+        return found;
+    }
+
+    private void generate(ExecutableElement method) {
+        TypeElement type = (TypeElement) method.getEnclosingElement();
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        AnnotationMirror annotation = findLockAnnotation(method);
+        if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)
+            || !isAccessible(type.asType(), pkg)
+            || method.getParameters().stream().anyMatch(p -> !isAccessible(erasure(p.asType()), pkg))) {
+            return;
+        }
+        List<String> keys = getStrings(annotation, "keys");
+        String condition = getStrings(annotation, "condition").get(0);
+        Map<String, Integer> argumentIndexes = resolveArgumentIndexes(method);
+
+        Context context = new Context(method, annotation, pkg, argumentIndexes);
+        List<String> segments = new ArrayList<>();
+        for (String key : keys) {
+            if (key.trim().isEmpty()) {
+                continue;
+            }
+            String segment = compile(context, key);
+            if (null == segment) {
+                context.supported = false;
+            }
+            segments.add(segment);
+        }
+        String conditionCode = condition.trim().isEmpty() ? null : compile(context, condition);
+        if (context.failed || !context.supported) {
+            return;
+        }
+        writeSource(type, method, pkg, keys, condition, segments, conditionCode);
+    }
+
+    /**
+     * 将属性路径或字符串常量编译为Java表达式
+     *
+     * @param context 上下文
+     * @param expression 表达式
+     * @return Java表达式，若无法在编译期处理则返回{@code null}
+     */
+    private String compile(Context context, String expression) {
+        if (STRING_LITERAL.matcher(expression).matches()) {
+            return literal(expression.substring(1, expression.length() - 1));
+        }
+        if (!PROPERTY_PATH.matcher(expression).matches()) {
+            return null;
+        }
+        String[] path = expression.substring(1).split("\\.");
+        Integer index = context.argumentIndexes.get(path[0]);
+        if (null == index) {
+            if (!"root".equals(path[0]) && !"this".equals(path[0])) {
+                context.error("Unknown parameter '" + path[0] + "' in expression: " + expression);
+            }
+            return null;
+        }
+        VariableElement parameter = context.method.getParameters().get(index);
+        TypeMirror type = erasure(parameter.asType());
+        StringBuilder code = new StringBuilder("arguments[").append(index).append(']');
+        if (path.length > 1) {
+            code.insert(0, "((" + type + ") ").append(')');
+        }
+        for (int i = 1; i < path.length; i++) {
+            if (!isBean(type)) {
+                return null;
+            }
+            Element accessor = findAccessor((TypeElement) processingEnv.getTypeUtils().asElement(type), path[i]);
+            if (null == accessor) {
+                context.error("Unknown property '" + path[i] + "' of type " + type + " in expression: " + expression);
+                return null;
+            }
+            if (!isAccessible(type, context.pkg) || !isAccessible(accessor.getEnclosingElement().asType(), context.pkg)) {
+                return null;
+            }
+            code.insert(0, "nonNull(").append(", ").append(literal(path[i])).append(").").append(accessor.getSimpleName());
+            if (accessor.getKind() == ElementKind.METHOD) {
+                code.append("()");
+                type = erasure(((ExecutableElement) accessor).getReturnType());
+            } else {
+                type = erasure(accessor.asType());
+            }
+        }
+        return code.toString();
+    }
+
+    /**
+     * 能否在编译期确定该类型的属性，{@link Object}与{@link Map}的属性需要在运行时确定
+     *
+     * @param type 类型
+     * @return 是否
+     */
+    private boolean isBean(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        Elements elements = processingEnv.getElementUtils();
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror map = types.erasure(elements.getTypeElement(Map.class.getName()).asType());
+        return !types.isSameType(type, elements.getTypeElement(Object.class.getName()).asType())
+            && !types.isAssignable(type, map);
+    }
+
+    /**
+     * 查找与SpEL属性访问一致的公共getter方法或字段
+     *
+     * @param type 类型
+     * @param property 属性名
+     * @return getter方法或字段，找不到时返回{@code null}
+     */
+    private Element findAccessor(TypeElement type, String property) {
+        String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        List<? extends Element> members = processingEnv.getElementUtils().getAllMembers(type);
+        ExecutableElement booleanGetter = null;
+        for (ExecutableElement method : ElementFilter.methodsIn(members)) {
+            if (!method.getParameters().isEmpty() || !method.getModifiers().contains(Modifier.PUBLIC)
+                || method.getModifiers().contains(Modifier.STATIC) || method.getReturnType().getKind() == TypeKind.VOID) {
+                continue;
+            }
+            String name = method.getSimpleName().toString();
+            if (name.equals("get" + suffix)) {
+                return method;
+            }
+            if (name.equals("is" + suffix) && isBoolean(method.getReturnType())) {
+                booleanGetter = method;
+            }
+        }
+        if (null != booleanGetter) {
+            return booleanGetter;
+        }
+        return ElementFilter.fieldsIn(members).stream()
+            .filter(field -> field.getSimpleName().contentEquals(property))
+            .filter(field -> field.getModifiers().contains(Modifier.PUBLIC) && !field.getModifiers().contains(Modifier.STATIC))
+            .findFirst()
+            .orElse(null);
+    }
+
+    private boolean isBoolean(TypeMirror type) {
+        return type.getKind() == TypeKind.BOOLEAN || Boolean.class.getName().equals(type.toString());
+    }
+
+    /**
+     * 解析方法参数的变量名与参数下标的对应关系，与运行时的SpEL上下文一致
+     *
+     * @param method 方法
+     * @return 变量名与参数下标的对应关系
+     */
+    private Map<String, Integer> resolveArgumentIndexes(ExecutableElement method) {
+        Map<String, Integer> argumentIndexes = new HashMap<>(16);
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            argumentIndexes.put("a" + i, i);
+            argumentIndexes.put("p" + i, i);
+            argumentIndexes.put(parameters.get(i).getSimpleName().toString(), i);
+        }
+        argumentIndexes.remove("root");
+        argumentIndexes.remove("this");
+        return argumentIndexes;
+    }
+
+    /**
+     * 生成的类能否访问该类型
+     *
+     * @param type 类型
+     * @param pkg 生成的类所在的包
+     * @return 是否
+     */
+    private boolean isAccessible(TypeMirror type, PackageElement pkg) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        }
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isAccessible(((ArrayType) type).getComponentType(), pkg);
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        Elements elements = processingEnv.getElementUtils();
+        Element element = processingEnv.getTypeUtils().asElement(type);
+        boolean samePackage = elements.getPackageOf(element).equals(pkg);
+        for (; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            NestingKind nestingKind = ((TypeElement) element).getNestingKind();
+            if (nestingKind == NestingKind.LOCAL || nestingKind == NestingKind.ANONYMOUS
+                || element.getModifiers().contains(Modifier.PRIVATE)
+                || (!samePackage && !element.getModifiers().contains(Modifier.PUBLIC))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private TypeMirror erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type);
+    }
+
+    private List<String> getStrings(AnnotationMirror annotation, String attribute) {
+        List<String> values = new ArrayList<>();
+        processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).forEach((element, value) -> {
+            if (!element.getSimpleName().contentEquals(attribute)) {
+                return;
+            }
+            Object v = value.getValue();
+            if (v instanceof List) {
+                ((List<?>) v).forEach(item -> values.add((String) ((AnnotationValue) item).getValue()));
+            } else {
+                values.add((String) v);
+            }
+        });
+        return values;
+    }
+
+    private void writeSource(
+        TypeElement type, ExecutableElement method, PackageElement pkg,
+        List<String> keys, String condition, List<String> segments, String conditionCode) {
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String className = getClassName(type, method);
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        StringBuilder parameterTypes = new StringBuilder();
+        for (VariableElement parameter : method.getParameters()) {
+            parameterTypes.append(parameterTypes.length() > 0 ? ", " : "").append(erasure(parameter.asType())).append(".class");
+        }
+        StringBuilder definitionKeys = new StringBuilder();
+        for (String key : keys) {
+            definitionKeys.append(definitionKeys.length() > 0 ? ", " : "").append(literal(key));
+        }
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, method);
+            try (PrintWriter out = new PrintWriter(file.openWriter())) {
+                if (!packageName.isEmpty()) {
+                    out.println("package " + packageName + ";");
+                    out.println();
+                }
+                out.println("/**");
+                out.println(" * Generated by lock4j-processor for {@link " + type.getQualifiedName() + "#" + method.getSimpleName() + "}");
+                out.println(" */");
+                out.println("public final class " + className + " extends " + GENERATED_LOCK_KEY_BUILDER + " {");
+                out.println();
+                out.println("    public " + className + "() {");
+                out.println("        super(" + type.getQualifiedName() + ".class, " + literal(method.getSimpleName().toString()) + ",");
+                out.println("            new Class<?>[]{" + parameterTypes + "},");
+                out.println("            new String[]{" + definitionKeys + "}, " + literal(condition) + ");");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    protected void appendKey(StringBuilder builder, Object[] arguments) {");
+                for (int i = 0; i < segments.size(); i++) {
+                    if (i > 0) {
+                        out.println("        builder.append('.');");
+                    }
+                    out.println("        builder.append(asString(" + segments.get(i) + "));");
+                }
+                out.println("    }");
+                if (null != conditionCode) {
+                    out.println();
+                    out.println("    @Override");
+                    out.println("    public boolean hasCondition() {");
+                    out.println("        return true;");
+                    out.println("    }");
+                    out.println();
+                    out.println("    @Override");
+                    out.println("    public boolean evaluateCondition(Object[] arguments) {");
+                    out.println("        return asCondition(" + conditionCode + ");");
+                    out.println("    }");
+                }
+                out.println("}");
+            }
+            serviceEntries.add(qualifiedName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Failed to generate lock key builder " + qualifiedName + ": " + e.getMessage(), method);
+        }
+    }
+
+    /**
+     * 生成的类名，如{@code Outer_Inner_method_Lock4jKeyBuilder}，重载的方法将追加序号
+     *
+     * @param type 方法所在的类
+     * @param method 方法
+     * @return 类名
+     */
+    private String getClassName(TypeElement type, ExecutableElement method) {
+        StringBuilder name = new StringBuilder(method.getSimpleName());
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            name.insert(0, element.getSimpleName() + "_");
+        }
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String className = name + CLASS_SUFFIX;
+        for (int i = 2; !generatedClasses.add(packageName + "." + className); i++) {
+            className = name.toString() + i + CLASS_SUFFIX;
+        }
+        return className;
+    }
+
+    /**
+     * 将生成的类追加到{@code META-INF/services}中，保留增量编译时已存在的记录
+     */
+    private void writeServiceFile() {
+        if (serviceEntries.isEmpty()) {
+            return;
+        }
+        Set<String> entries = new TreeSet<>(serviceEntries);
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                reader.lines().map(String::trim).filter(line -> !line.isEmpty()).forEach(entries::add);
+            }
+        } catch (IOException e) {
+            // 文件不存在
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String entry : entries) {
+                    writer.write(entry);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + SERVICE_FILE + ": " + e.getMessage());
+        }
+        serviceEntries.clear();
+    }
+
+    /**
+     * 转为Java字符串字面量
+     *
+     * @param value 字符串
+     * @return 字面量
+     */
+    private static String literal(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < ' ' || c > '~') {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * 单个方法的生成上下文
+     */
+    private class Context {
+        private final ExecutableElement method;
+        private final AnnotationMirror annotation;
+        private final PackageElement pkg;
+        private final Map<String, Integer> argumentIndexes;
+        private boolean supported = true;
+        private boolean failed;
+
+        Context(ExecutableElement method, AnnotationMirror annotation, PackageElement pkg, Map<String, Integer> argumentIndexes) {
+            this.method = method;
+            this.annotation = annotation;
+            this.pkg = pkg;
+            this.argumentIndexes = argumentIndexes;
+        }
+
+        void error(String message) {
+            failed = true;
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, method, annotation);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.baomidou.lock.annotation;
 
 import com.baomidou.lock.LockFailureStrategy;
 import com.baomidou.lock.LockKeyBuilder;
+import com.baomidou.lock.RetryPolicy;
 import com.baomidou.lock.executor.RedisTemplateLockExecutor;
 import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
 import org.springframework.core.Ordered;
@@ -70,6 +71,13 @@ public @interface RedisLock {
      */
     Class<? extends LockFailureStrategy> failStrategy() default LockFailureStrategy.class;
 
+    /**
+     * 获取锁失败时的重试策略，不设置则使用默认重试策略 默认值：{@link Lock4jProperties#primaryRetryPolicy}
+     *
+     * @return RetryPolicy
+     */
+    Class<? extends RetryPolicy> retryPolicy() default RetryPolicy.class;
+
     /**
      * key生成器策略
      *
@@ -18,16 +18,25 @@ package com.baomidou.lock.executor;
 
 import com.baomidou.lock.exception.LockException;
 import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
+import com.baomidou.lock.util.LockUtil;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * 分布式锁原生RedisTemplate处理器
@@ -36,18 +45,72 @@ import java.util.concurrent.CompletableFuture;
  */
 @Slf4j
 @RequiredArgsConstructor
-public class RedisTemplateLockExecutor extends AbstractLockExecutor<String> {
+public class RedisTemplateLockExecutor extends AbstractLockExecutor<String>
+        implements AsyncLockExecutor<String>, BatchLockExecutor<String>, DisposableBean {
 
     private static final RedisScript<String> SCRIPT_LOCK = new DefaultRedisScript<>("return redis.call('set',KEYS[1]," +
             "ARGV[1],'NX','PX',ARGV[2])", String.class);
+    /**
+     * 加锁成功后递增锁key对应的计数器，并将计数器的值作为fencing token返回
+     *
+     * @see LockUtil#getFencingTokenKey(String)
+     */
+    private static final RedisScript<String> SCRIPT_FENCED_LOCK = new DefaultRedisScript<>("if redis.call('set',KEYS[1]," +
+            "ARGV[1],'NX','PX',ARGV[2]) then return tostring(redis.call('incr',KEYS[2])) end return false", String.class);
     private static final RedisScript<String> SCRIPT_UNLOCK = new DefaultRedisScript<>("if redis.call('get',KEYS[1]) " +
-            "== ARGV[1] then return tostring(redis.call('del', KEYS[1])==1) else return 'false' end", String.class);
-    private static final RedisScript<Boolean> SCRIPT_RENEWAL = new DefaultRedisScript<>("if redis.call('get', KEYS[1]) ==ARGV[1] " +
-            "then return redis.call('pexpire', KEYS[1], ARGV[2]) else  return 0  end", Boolean.class);
+            "== ARGV[1] then local r = redis.call('del', KEYS[1])==1 if r and ARGV[2] then " +
+            "redis.call('publish', ARGV[2], KEYS[1]) end return tostring(r) else return 'false' end", String.class);
+    /**
+     * 任意一个key已被持有时返回false，否则对所有key加锁。ARGV[3]为1时后一半key为各个锁key对应的fencing token计数器，
+     * 此时递增其中值最大的计数器，并将其余计数器设置为同一个值，使得到的token对所有key均有效
+     */
+    private static final RedisScript<String> SCRIPT_LOCK_ALL = new DefaultRedisScript<>("local n = #KEYS / " +
+            "(1 + tonumber(ARGV[3])) for i = 1, n do if redis.call('exists',KEYS[i]) == 1 then return false end end " +
+            "for i = 1, n do redis.call('set',KEYS[i],ARGV[1],'PX',ARGV[2]) end " +
+            "if n < #KEYS then local m, v = n + 1, tonumber(redis.call('get',KEYS[n + 1]) or 0) " +
+            "for i = n + 2, #KEYS do local c = tonumber(redis.call('get',KEYS[i]) or 0) if c > v then m, v = i, c end end " +
+            "local t = redis.call('incr',KEYS[m]) for i = n + 1, #KEYS do if i ~= m then redis.call('set',KEYS[i],t) end end " +
+            "return tostring(t) end return 'OK'", String.class);
+    private static final RedisScript<String> SCRIPT_UNLOCK_ALL = new DefaultRedisScript<>("local c = 0 " +
+            "for i = 1, #KEYS do if redis.call('get',KEYS[i]) == ARGV[1] and redis.call('del',KEYS[i]) == 1 then " +
+            "c = c + 1 if ARGV[2] then redis.call('publish', ARGV[2], KEYS[i]) end end end " +
+            "return tostring(c == #KEYS)", String.class);
+    /**
+     * 锁释放通知频道后缀
+     */
+    static final String RELEASE_CHANNEL_SUFFIX = ":release";
     private static final String LOCK_SUCCESS = "OK";
 
     private final StringRedisTemplate redisTemplate;
     private final Lock4jProperties lock4jProperties;
+    private final RedisTemplateLockWatchdog watchdog;
+
+    /**
+     * 由执行器自行创建的看门狗，为空时说明看门狗由外部传入，其生命周期由外部管理
+     */
+    private RedisTemplateLockWatchdog ownedWatchdog;
+
+    /**
+     * 用于异步加解锁，基于Lettuce等支持响应式的客户端，为空时不支持异步加解锁
+     */
+    @Setter
+    private ReactiveStringRedisTemplate reactiveRedisTemplate;
+
+    /**
+     * 是否连接的是Redis集群，首次批量加锁时确定
+     */
+    private volatile Boolean cluster;
+
+    /**
+     * 由执行器自行创建并持有看门狗，看门狗将在{@link #destroy()}时关闭
+     *
+     * @param redisTemplate    redisTemplate
+     * @param lock4jProperties lock4j配置
+     */
+    public RedisTemplateLockExecutor(StringRedisTemplate redisTemplate, Lock4jProperties lock4jProperties) {
+        this(redisTemplate, lock4jProperties, new RedisTemplateLockWatchdog(redisTemplate));
+        this.ownedWatchdog = watchdog;
+    }
 
     @Override
     public boolean renewal() {
@@ -59,49 +122,204 @@ public class RedisTemplateLockExecutor extends AbstractLockExecutor<String> {
 
         final long newExpire = expire > 0 ? expire : lock4jProperties.getExpire();
 
-        CompletableFuture<String> cf = CompletableFuture.supplyAsync(() -> redisTemplate.execute(SCRIPT_LOCK,
-                        redisTemplate.getStringSerializer(),
-                        redisTemplate.getStringSerializer(),
-                        Collections.singletonList(lockKey),
-                        lockValue, String.valueOf(newExpire)))
-                .thenApply(acquired -> {
-                    //成功且传-1时开始续期
-                    if (LOCK_SUCCESS.equals(acquired) && expire == -1) {
-                        renewExpiration(newExpire, lockKey, lockValue);
-                    }
-                    return acquired;
-                });
+        // 直接在调用线程上执行，避免切换到公共线程池后再阻塞等待
+        final boolean fencing = lock4jProperties.isFencingToken();
         String lock;
         try {
-            lock = cf.get();
+            lock = redisTemplate.execute(fencing ? SCRIPT_FENCED_LOCK : SCRIPT_LOCK,
+                    redisTemplate.getStringSerializer(),
+                    redisTemplate.getStringSerializer(),
+                    lockKeys(lockKey, fencing),
+                    lockValue, String.valueOf(newExpire));
         } catch (Exception e) {
             log.error("lock error", e);
             throw new LockException();
         }
-        final boolean locked = LOCK_SUCCESS.equals(lock);
+        final boolean locked = isLocked(lock, fencing);
+        //成功且传-1时开始续期
+        if (locked && expire == -1) {
+            watchdog.renew(lockKey, lockValue, newExpire);
+        }
         return obtainLockInstance(locked, lock);
     }
 
     @Override
     public boolean releaseLock(String key, String value, String lockInstance) {
+        watchdog.cancel(key, value);
         String releaseResult = redisTemplate.execute(SCRIPT_UNLOCK,
                 redisTemplate.getStringSerializer(),
                 redisTemplate.getStringSerializer(),
-                Collections.singletonList(key), value);
+                Collections.singletonList(key), releaseArgs(value));
         return Boolean.parseBoolean(releaseResult);
     }
 
+    /**
+     * 集群模式下，只有所有key(包括各个锁key对应的fencing token计数器)位于同一个slot时才能通过一次脚本调用加锁，
+     * 因此需要通过hash tag(如{@code {order}:1}与{@code {order}:2})使它们位于同一个slot，否则逐个加锁
+     */
+    @Override
+    public boolean isBatchSupported(List<String> lockKeys) {
+        if (!isCluster()) {
+            return true;
+        }
+        final boolean fencing = lock4jProperties.isFencingToken();
+        int slot = ClusterSlotHashUtil.calculateSlot(lockKeys.get(0));
+        for (String lockKey : lockKeys) {
+            if (ClusterSlotHashUtil.calculateSlot(lockKey) != slot
+                    || fencing && ClusterSlotHashUtil.calculateSlot(LockUtil.getFencingTokenKey(lockKey)) != slot) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isCluster() {
+        Boolean current = cluster;
+        if (null == current) {
+            current = Boolean.TRUE.equals(redisTemplate.execute(
+                    (RedisCallback<Boolean>) connection -> connection instanceof RedisClusterConnection));
+            cluster = current;
+        }
+        return current;
+    }
 
-    private void renewExpiration(long expire, String lockKey, String lockValue) {
-        new Timer().schedule(new TimerTask() {
-            @Override
-            public void run() {
-                if (Boolean.TRUE.equals(redisTemplate.execute(SCRIPT_RENEWAL, Collections.singletonList(lockKey), lockValue, String.valueOf(expire)))) {
-                    renewExpiration(expire, lockKey, lockValue);
-                }
+    /**
+     * 通过一次脚本调用对所有key加锁
+     */
+    @Override
+    public String acquireAll(List<String> lockKeys, String lockValue, long expire, long acquireTimeout) {
+        final long newExpire = expire > 0 ? expire : lock4jProperties.getExpire();
+        final boolean fencing = lock4jProperties.isFencingToken();
+        List<String> keys = lockKeys;
+        if (fencing) {
+            keys = new ArrayList<>(lockKeys.size() * 2);
+            keys.addAll(lockKeys);
+            for (String lockKey : lockKeys) {
+                keys.add(LockUtil.getFencingTokenKey(lockKey));
+            }
+        }
+        String lock;
+        try {
+            lock = redisTemplate.execute(SCRIPT_LOCK_ALL,
+                    redisTemplate.getStringSerializer(),
+                    redisTemplate.getStringSerializer(),
+                    keys, lockValue, String.valueOf(newExpire), fencing ? "1" : "0");
+        } catch (Exception e) {
+            log.error("lock error", e);
+            throw new LockException();
+        }
+        final boolean locked = null != lock;
+        //成功且传-1时开始续期
+        if (locked && expire == -1) {
+            for (String lockKey : lockKeys) {
+                watchdog.renew(lockKey, lockValue, newExpire);
             }
-        }, expire / 3);
+        }
+        return obtainLockInstance(locked, lock);
     }
 
+    @Override
+    public boolean releaseAll(List<String> lockKeys, String value, String lockInstance) {
+        for (String lockKey : lockKeys) {
+            watchdog.cancel(lockKey, value);
+        }
+        String releaseResult = redisTemplate.execute(SCRIPT_UNLOCK_ALL,
+                redisTemplate.getStringSerializer(),
+                redisTemplate.getStringSerializer(),
+                lockKeys, releaseArgs(value));
+        return Boolean.parseBoolean(releaseResult);
+    }
 
+    @Override
+    public long getFencingToken(List<String> lockKeys, String lockInstance) {
+        return getFencingToken(lockKeys.get(0), lockInstance);
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return null != reactiveRedisTemplate;
+    }
+
+    @Override
+    public CompletionStage<String> acquireAsync(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        final long newExpire = expire > 0 ? expire : lock4jProperties.getExpire();
+        final boolean fencing = lock4jProperties.isFencingToken();
+        return reactiveRedisTemplate.execute(fencing ? SCRIPT_FENCED_LOCK : SCRIPT_LOCK, lockKeys(lockKey, fencing),
+                        Arrays.asList(lockValue, String.valueOf(newExpire)))
+                .next()
+                .toFuture()
+                .thenApply(lock -> {
+                    final boolean locked = isLocked(lock, fencing);
+                    //成功且传-1时开始续期
+                    if (locked && expire == -1) {
+                        watchdog.renew(lockKey, lockValue, newExpire);
+                    }
+                    return obtainLockInstance(locked, lock);
+                });
+    }
+
+    @Override
+    public CompletionStage<Boolean> releaseLockAsync(String key, String value, String lockInstance) {
+        watchdog.cancel(key, value);
+        return reactiveRedisTemplate.execute(SCRIPT_UNLOCK, Collections.singletonList(key), Arrays.asList(releaseArgs(value)))
+                .next()
+                .toFuture()
+                .thenApply(Boolean::parseBoolean);
+    }
+
+    /**
+     * 开启fencing token时，锁实例即为加锁脚本返回的token
+     */
+    @Override
+    public long getFencingToken(String lockKey, String lockInstance) {
+        return LOCK_SUCCESS.equals(lockInstance) ? NO_FENCING_TOKEN : Long.parseLong(lockInstance);
+    }
+
+    @Override
+    public CompletionStage<Long> getFencingTokenAsync(String lockKey, String lockInstance) {
+        return CompletableFuture.completedFuture(getFencingToken(lockKey, lockInstance));
+    }
+
+    private List<String> lockKeys(String lockKey, boolean fencing) {
+        return fencing ? Arrays.asList(lockKey, LockUtil.getFencingTokenKey(lockKey)) : Collections.singletonList(lockKey);
+    }
+
+    private static boolean isLocked(String lock, boolean fencing) {
+        return fencing ? null != lock : LOCK_SUCCESS.equals(lock);
+    }
+
+    /**
+     * 开启释放通知时，解锁成功后向其他节点广播被释放的key
+     */
+    private Object[] releaseArgs(String value) {
+        return lock4jProperties.isNotifyOnRelease() ? new Object[]{value, getReleaseChannel()} : new Object[]{value};
+    }
+
+    /**
+     * 获取锁释放通知频道
+     *
+     * @return 频道名称
+     */
+    public String getReleaseChannel() {
+        return lock4jProperties.getLockKeyPrefix() + RELEASE_CHANNEL_SUFFIX;
+    }
+
+    /**
+     * 获取当前正在自动续期的锁数量
+     *
+     * @return 数量
+     */
+    public int getActiveLeaseCount() {
+        return watchdog.getActiveLeaseCount();
+    }
+
+    /**
+     * 关闭由执行器自行创建的看门狗
+     */
+    @Override
+    public void destroy() {
+        if (null != ownedWatchdog) {
+            ownedWatchdog.destroy();
+        }
+    }
 }
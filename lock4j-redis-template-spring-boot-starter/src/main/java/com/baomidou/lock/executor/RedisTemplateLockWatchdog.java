@@ -0,0 +1,347 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>基于{@link StringRedisTemplate}的锁续期看门狗。
+ *
+ * <p>所有需要自动续期的锁共享同一个调度线程，每个周期检查一次到期需要续期的锁，
+ * 并将它们的续期脚本通过一次管道(pipeline)请求批量发送，避免每把锁、每次续期都创建新的线程。
+ * 调度线程在首次登记续期时才会创建。
+ *
+ * <p>默认在调度线程上直接发送续期请求，也可以指定一个有界的续期线程池，
+ * 避免Redis响应变慢时阻塞调度线程。线程池队列已满时由调度线程自行执行。
+ *
+ * <p>续期脚本与{@link StringRedisTemplate#execute(RedisScript, List, Object...)}一样通过{@code EVALSHA}发送，
+ * 脚本尚未缓存在Redis中时(比如Redis重启或执行了{@code SCRIPT FLUSH})，再通过{@code EVAL}重新发送并缓存。
+ */
+@Slf4j
+public class RedisTemplateLockWatchdog implements DisposableBean {
+
+    /**
+     * 默认检查周期(ms)
+     */
+    public static final long DEFAULT_TICK_INTERVAL = 500L;
+
+    private static final RedisScript<Long> SCRIPT_RENEWAL = new DefaultRedisScript<>("if redis.call('get', KEYS[1]) == " +
+            "ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+    private static final String NO_SCRIPT_ERROR = "NOSCRIPT";
+
+    private final StringRedisTemplate redisTemplate;
+    private final long tickInterval;
+    private final int renewalThreads;
+    private final int renewalQueueCapacity;
+
+    /**
+     * 正在续期的锁，key为锁key与锁value的组合：
+     * 读写锁中的多个读锁可能共用同一个锁key，批量加锁时的多个锁key则共用同一个锁value
+     */
+    private final ConcurrentMap<Map.Entry<String, String>, Lease> leases = new ConcurrentHashMap<>();
+
+    private volatile ScheduledExecutorService scheduler;
+    private volatile ExecutorService renewalExecutor;
+
+    public RedisTemplateLockWatchdog(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, DEFAULT_TICK_INTERVAL);
+    }
+
+    public RedisTemplateLockWatchdog(StringRedisTemplate redisTemplate, long tickInterval) {
+        this(redisTemplate, tickInterval, 0, 0);
+    }
+
+    /**
+     * 构造器
+     *
+     * @param redisTemplate        redisTemplate
+     * @param tickInterval         检查周期(ms)
+     * @param renewalThreads       续期线程数，小于等于0时直接在调度线程上续期
+     * @param renewalQueueCapacity 续期线程池的队列容量
+     */
+    public RedisTemplateLockWatchdog(StringRedisTemplate redisTemplate, long tickInterval,
+                                     int renewalThreads, int renewalQueueCapacity) {
+        this.redisTemplate = redisTemplate;
+        this.tickInterval = tickInterval > 0 ? tickInterval : DEFAULT_TICK_INTERVAL;
+        this.renewalThreads = renewalThreads;
+        this.renewalQueueCapacity = Math.max(renewalQueueCapacity, 1);
+    }
+
+    /**
+     * 登记一把需要自动续期的锁，每经过{@code expire / 3}续期一次，直到锁被释放或续期失败
+     *
+     * @param lockKey   锁key
+     * @param lockValue 锁value
+     * @param expire    每次续期的有效时间(ms)
+     */
+    public void renew(String lockKey, String lockValue, long expire) {
+        register(new Lease(lockKey, lockValue, expire, SCRIPT_RENEWAL));
+    }
+
+    /**
+     * 登记一把需要通过指定脚本续期的锁，每经过{@code expire / 3}续期一次，直到锁被释放或续期失败
+     *
+     * @param lockKey       锁key
+     * @param lockValue     锁value
+     * @param expire        每次续期的有效时间(ms)
+     * @param renewalScript 续期脚本，参数依次为锁key、锁value及有效时间，续期成功时返回1
+     */
+    public void renew(String lockKey, String lockValue, long expire, RedisScript<Long> renewalScript) {
+        register(new Lease(lockKey, lockValue, expire, renewalScript));
+    }
+
+    private void register(Lease lease) {
+        leases.put(lease.id, lease);
+        ensureStarted();
+    }
+
+    /**
+     * 取消锁的自动续期
+     *
+     * @param lockKey   锁key
+     * @param lockValue 锁value，只有与登记时一致才会取消
+     */
+    public void cancel(String lockKey, String lockValue) {
+        leases.remove(leaseId(lockKey, lockValue));
+    }
+
+    private static Map.Entry<String, String> leaseId(String lockKey, String lockValue) {
+        return new AbstractMap.SimpleImmutableEntry<>(lockKey, lockValue);
+    }
+
+    /**
+     * 获取当前正在续期的锁数量
+     *
+     * @return 数量
+     */
+    public int getActiveLeaseCount() {
+        return leases.size();
+    }
+
+    private void ensureStarted() {
+        if (null != scheduler) {
+            return;
+        }
+        synchronized (this) {
+            if (null == scheduler) {
+                ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "lock4j-redis-watchdog");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                if (renewalThreads > 0) {
+                    AtomicInteger threadCount = new AtomicInteger();
+                    renewalExecutor = new ThreadPoolExecutor(renewalThreads, renewalThreads, 60L, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(renewalQueueCapacity), r -> {
+                        Thread thread = new Thread(r, "lock4j-redis-renewal-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+                }
+                executor.scheduleWithFixedDelay(this::tick, tickInterval, tickInterval, TimeUnit.MILLISECONDS);
+                scheduler = executor;
+            }
+        }
+    }
+
+    /**
+     * 批量续期本周期内到期的锁，为避免续期晚于过期，提前一个周期进行续期
+     */
+    void tick() {
+        if (leases.isEmpty()) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + tickInterval;
+        List<Lease> due = new ArrayList<>();
+        for (Lease lease : leases.values()) {
+            // 跳过上一批仍在续期中的锁
+            if (lease.nextRenewalTime <= deadline && !lease.renewing) {
+                lease.renewing = true;
+                due.add(lease);
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = renewalExecutor;
+        if (null == executor) {
+            renewal(due);
+        } else {
+            executor.execute(() -> renewal(due));
+        }
+    }
+
+    /**
+     * 通过一次管道请求批量续期
+     *
+     * @param due 需要续期的锁
+     */
+    private void renewal(List<Lease> due) {
+        try {
+            doRenewal(due);
+        } finally {
+            for (Lease lease : due) {
+                lease.renewing = false;
+            }
+        }
+    }
+
+    private void doRenewal(List<Lease> due) {
+        List<Object> results;
+        try {
+            results = executeRenewal(due, true);
+            List<Lease> missing = new ArrayList<>();
+            for (int i = 0; i < due.size(); i++) {
+                if (i < results.size() && isNoScriptError(results.get(i))) {
+                    missing.add(due.get(i));
+                }
+            }
+            if (!missing.isEmpty()) {
+                // 脚本尚未缓存，通过EVAL重新发送，之后的续期即可继续使用EVALSHA
+                List<Object> retried = executeRenewal(missing, false);
+                for (int i = 0, j = 0; i < due.size() && j < retried.size(); i++) {
+                    if (isNoScriptError(results.get(i))) {
+                        results.set(i, retried.get(j++));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // 保留续期登记，下个周期重试
+            log.error("renewal lock error", e);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < due.size(); i++) {
+            Lease lease = due.get(i);
+            Object result = i < results.size() ? results.get(i) : null;
+            if (result instanceof Long && (Long) result == 1L) {
+                lease.nextRenewalTime = now + lease.expire / 3;
+            } else if (result instanceof Throwable) {
+                // 保留续期登记，下个周期重试
+                log.error("renewal lock error, lockKey={}", lease.lockKey, (Throwable) result);
+            } else {
+                // 锁已被释放或已被其他客户端持有，不再续期
+                leases.remove(lease.id, lease);
+            }
+        }
+    }
+
+    /**
+     * 通过一次管道请求发送续期脚本，单条命令执行失败时，其结果为对应的异常
+     *
+     * @param due    需要续期的锁
+     * @param useSha 是否通过{@code EVALSHA}发送
+     * @return 各条命令的执行结果
+     */
+    private List<Object> executeRenewal(List<Lease> due, boolean useSha) {
+        try {
+            return new ArrayList<>(redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Lease lease : due) {
+                    renewal(connection, lease, useSha);
+                }
+                return null;
+            }));
+        } catch (RedisPipelineException e) {
+            // 只有部分命令执行失败时才有各条命令的结果，否则交由调用方处理
+            if (e.getPipelineResult().size() != due.size()) {
+                throw e;
+            }
+            return new ArrayList<>(e.getPipelineResult());
+        }
+    }
+
+    private void renewal(RedisConnection connection, Lease lease, boolean useSha) {
+        RedisSerializer<String> serializer = redisTemplate.getStringSerializer();
+        byte[][] keysAndArgs = {serializer.serialize(lease.lockKey), serializer.serialize(lease.lockValue),
+                serializer.serialize(String.valueOf(lease.expire))};
+        if (useSha) {
+            connection.scriptingCommands().evalSha(lease.script.getSha1(), ReturnType.INTEGER, 1, keysAndArgs);
+        } else {
+            connection.scriptingCommands().eval(lease.script.getScriptAsString().getBytes(StandardCharsets.UTF_8),
+                    ReturnType.INTEGER, 1, keysAndArgs);
+        }
+    }
+
+    /**
+     * 是否为脚本尚未缓存导致的错误，与{@link StringRedisTemplate#execute(RedisScript, List, Object...)}的判断方式一致
+     *
+     * @param result 执行结果
+     * @return 是否
+     */
+    private static boolean isNoScriptError(Object result) {
+        Throwable current = result instanceof Throwable ? (Throwable) result : null;
+        while (null != current) {
+            if (null != current.getMessage() && current.getMessage().contains(NO_SCRIPT_ERROR)) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    @Override
+    public void destroy() {
+        ScheduledExecutorService executor = scheduler;
+        if (null != executor) {
+            executor.shutdownNow();
+        }
+        ExecutorService renewal = renewalExecutor;
+        if (null != renewal) {
+            renewal.shutdownNow();
+        }
+        leases.clear();
+    }
+
+    /**
+     * 续期登记
+     */
+    private static class Lease {
+        private final Map.Entry<String, String> id;
+        private final String lockKey;
+        private final String lockValue;
+        private final long expire;
+        private final RedisScript<Long> script;
+        private volatile long nextRenewalTime;
+        private volatile boolean renewing;
+
+        Lease(String lockKey, String lockValue, long expire, RedisScript<Long> script) {
+            this.id = leaseId(lockKey, lockValue);
+            this.lockKey = lockKey;
+            this.lockValue = lockValue;
+            this.expire = expire;
+            this.script = script;
+            this.nextRenewalTime = System.currentTimeMillis() + expire / 3;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockOptions;
+import com.baomidou.lock.annotation.LockMode;
+import com.baomidou.lock.exception.LockException;
+import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
+import com.baomidou.lock.util.LockUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * <p>基于原生RedisTemplate与Lua脚本实现的分布式读写锁处理器，根据{@link LockOptions#mode}获取读锁或写锁，
+ * 同一个key的读锁之间可以共同持有，写锁则与其他任何锁互斥。
+ *
+ * <p>每个key对应一个有序集合，成员为{@code r:}或{@code w:}加上锁value，分值为该成员基于Redis服务器时间的过期时间点，
+ * 集合中要么只有若干个读锁，要么只有一个写锁，读锁的数量即为集合中成员的数量。
+ * 每次加解锁时都会先移除已过期的成员，因此某个读锁的持有者宕机后，不会一直阻塞写锁的获取。
+ * 与{@link RedisTemplateLockExecutor}一样，锁不可重入。
+ *
+ * <p>脚本中使用了Redis服务器时间，因此需要Redis 3.2及以上版本。
+ *
+ * @see RedisTemplateLockExecutor
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedisTemplateReadWriteLockExecutor extends AbstractLockExecutor<String>
+        implements AsyncLockExecutor<String>, DisposableBean {
+
+    /**
+     * 获取当前的Redis服务器时间(ms)，并移除已过期的成员
+     */
+    static final String SCRIPT_EXPIRE = "redis.replicate_commands() local t = redis.call('time') " +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) " +
+            "redis.call('zremrangebyscore', KEYS[1], '-inf', now) ";
+    /**
+     * 加锁成功时的返回值，开启fencing token时递增计数器并返回计数器的值，否则返回0，加锁失败时返回-1
+     */
+    static final String SCRIPT_FENCING_TOKEN = "if KEYS[2] then return redis.call('incr', KEYS[2]) end return 0";
+    private static final RedisScript<Long> SCRIPT_LOCK = new DefaultRedisScript<>(SCRIPT_EXPIRE +
+            "local first = redis.call('zrange', KEYS[1], 0, 0)[1] " +
+            "if first and (string.sub(ARGV[1], 1, 2) == 'w:' or string.sub(first, 1, 2) == 'w:') then return -1 end " +
+            "redis.call('zadd', KEYS[1], now + tonumber(ARGV[2]), ARGV[1]) " +
+            "if redis.call('pttl', KEYS[1]) < tonumber(ARGV[2]) then redis.call('pexpire', KEYS[1], ARGV[2]) end " +
+            SCRIPT_FENCING_TOKEN, Long.class);
+    private static final RedisScript<String> SCRIPT_UNLOCK = new DefaultRedisScript<>(SCRIPT_EXPIRE +
+            "if redis.call('zrem', KEYS[1], ARGV[1]) == 0 then return 'false' end " +
+            "if ARGV[2] and redis.call('zcard', KEYS[1]) == 0 then redis.call('publish', ARGV[2], KEYS[1]) end " +
+            "return 'true'", String.class);
+    static final RedisScript<Long> SCRIPT_RENEWAL = new DefaultRedisScript<>(SCRIPT_EXPIRE +
+            "if not redis.call('zscore', KEYS[1], ARGV[1]) then return 0 end " +
+            "redis.call('zadd', KEYS[1], now + tonumber(ARGV[2]), ARGV[1]) " +
+            "if redis.call('pttl', KEYS[1]) < tonumber(ARGV[2]) then redis.call('pexpire', KEYS[1], ARGV[2]) end " +
+            "return 1", Long.class);
+    private static final String READ_PREFIX = "r:";
+    private static final String WRITE_PREFIX = "w:";
+    /**
+     * 锁实例中成员与fencing token之间的分隔符
+     */
+    private static final char TOKEN_SEPARATOR = '#';
+
+    private final StringRedisTemplate redisTemplate;
+    private final Lock4jProperties lock4jProperties;
+    private final RedisTemplateLockWatchdog watchdog;
+
+    /**
+     * 由执行器自行创建的看门狗，为空时说明看门狗由外部传入，其生命周期由外部管理
+     */
+    private RedisTemplateLockWatchdog ownedWatchdog;
+
+    /**
+     * 用于异步加解锁，基于Lettuce等支持响应式的客户端，为空时不支持异步加解锁
+     */
+    @Setter
+    private ReactiveStringRedisTemplate reactiveRedisTemplate;
+
+    /**
+     * 由执行器自行创建并持有看门狗，看门狗将在{@link #destroy()}时关闭
+     *
+     * @param redisTemplate    redisTemplate
+     * @param lock4jProperties lock4j配置
+     */
+    public RedisTemplateReadWriteLockExecutor(StringRedisTemplate redisTemplate, Lock4jProperties lock4jProperties) {
+        this(redisTemplate, lock4jProperties, new RedisTemplateLockWatchdog(redisTemplate));
+        this.ownedWatchdog = watchdog;
+    }
+
+    @Override
+    public boolean renewal() {
+        return true;
+    }
+
+    @Override
+    public String acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        return acquire(lockKey, lockValue, expire, acquireTimeout, LockOptions.DEFAULT);
+    }
+
+    /**
+     * 加锁，成功时锁实例为有序集合中的成员与fencing token，以{@code #}分隔
+     */
+    @Override
+    public String acquire(String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+        final long newExpire = expire > 0 ? expire : lock4jProperties.getExpire();
+        final String member = member(lockValue, options);
+        Long lock;
+        try {
+            lock = redisTemplate.execute(SCRIPT_LOCK, lockKeys(lockKey, lock4jProperties), member, String.valueOf(newExpire));
+        } catch (Exception e) {
+            log.error("lock error", e);
+            throw new LockException();
+        }
+        return onLockResult(lockKey, member, expire, newExpire, lock);
+    }
+
+    @Override
+    public boolean releaseLock(String key, String value, String lockInstance) {
+        final String member = memberOf(lockInstance);
+        watchdog.cancel(key, member);
+        String releaseResult = redisTemplate.execute(SCRIPT_UNLOCK, Collections.singletonList(key), releaseArgs(member));
+        return Boolean.parseBoolean(releaseResult);
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return null != reactiveRedisTemplate;
+    }
+
+    @Override
+    public CompletionStage<String> acquireAsync(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        return acquireAsync(lockKey, lockValue, expire, acquireTimeout, LockOptions.DEFAULT);
+    }
+
+    @Override
+    public CompletionStage<String> acquireAsync(
+            String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+        final long newExpire = expire > 0 ? expire : lock4jProperties.getExpire();
+        final String member = member(lockValue, options);
+        return reactiveRedisTemplate.execute(SCRIPT_LOCK, lockKeys(lockKey, lock4jProperties),
+                        Arrays.asList(member, String.valueOf(newExpire)))
+                .next()
+                .toFuture()
+                .thenApply(lock -> onLockResult(lockKey, member, expire, newExpire, lock));
+    }
+
+    @Override
+    public CompletionStage<Boolean> releaseLockAsync(String key, String value, String lockInstance) {
+        final String member = memberOf(lockInstance);
+        watchdog.cancel(key, member);
+        return reactiveRedisTemplate.execute(SCRIPT_UNLOCK, Collections.singletonList(key), Arrays.asList(releaseArgs(member)))
+                .next()
+                .toFuture()
+                .thenApply(Boolean::parseBoolean);
+    }
+
+    @Override
+    public long getFencingToken(String lockKey, String lockInstance) {
+        return fencingTokenOf(lockInstance);
+    }
+
+    @Override
+    public CompletionStage<Long> getFencingTokenAsync(String lockKey, String lockInstance) {
+        return CompletableFuture.completedFuture(fencingTokenOf(lockInstance));
+    }
+
+    private String onLockResult(String lockKey, String member, long expire, long newExpire, Long lock) {
+        final boolean locked = null != lock && lock >= 0;
+        //成功且传-1时开始续期
+        if (locked && expire == -1) {
+            watchdog.renew(lockKey, member, newExpire, SCRIPT_RENEWAL);
+        }
+        return locked ? lockInstance(member, lock) : null;
+    }
+
+    /**
+     * 开启fencing token时，加锁脚本需要同时操作锁key对应的计数器
+     */
+    static List<String> lockKeys(String lockKey, Lock4jProperties lock4jProperties) {
+        return lock4jProperties.isFencingToken()
+                ? Arrays.asList(lockKey, LockUtil.getFencingTokenKey(lockKey)) : Collections.singletonList(lockKey);
+    }
+
+    static String lockInstance(String member, long fencingToken) {
+        return member + TOKEN_SEPARATOR + fencingToken;
+    }
+
+    static String memberOf(String lockInstance) {
+        return lockInstance.substring(0, lockInstance.lastIndexOf(TOKEN_SEPARATOR));
+    }
+
+    static long fencingTokenOf(String lockInstance) {
+        return Long.parseLong(lockInstance.substring(lockInstance.lastIndexOf(TOKEN_SEPARATOR) + 1));
+    }
+
+    /**
+     * 根据锁的模式获取锁value在有序集合中对应的成员
+     */
+    private static String member(String lockValue, LockOptions options) {
+        return (options.getMode() == LockMode.READ ? READ_PREFIX : WRITE_PREFIX) + lockValue;
+    }
+
+    /**
+     * 开启释放通知时，锁被完全释放后向其他节点广播被释放的key
+     */
+    private Object[] releaseArgs(String member) {
+        return lock4jProperties.isNotifyOnRelease() ? new Object[]{member, getReleaseChannel()} : new Object[]{member};
+    }
+
+    /**
+     * 获取锁释放通知频道，与{@link RedisTemplateLockExecutor}共用同一个频道
+     *
+     * @return 频道名称
+     */
+    public String getReleaseChannel() {
+        return lock4jProperties.getLockKeyPrefix() + RedisTemplateLockExecutor.RELEASE_CHANNEL_SUFFIX;
+    }
+
+    /**
+     * 关闭由执行器自行创建的看门狗
+     */
+    @Override
+    public void destroy() {
+        if (null != ownedWatchdog) {
+            ownedWatchdog.destroy();
+        }
+    }
+}
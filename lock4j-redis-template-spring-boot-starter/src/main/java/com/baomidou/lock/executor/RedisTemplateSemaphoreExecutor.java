@@ -0,0 +1,198 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockOptions;
+import com.baomidou.lock.exception.LockException;
+import com.baomidou.lock.spring.boot.autoconfigure.Lock4jProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * <p>基于原生RedisTemplate与Lua脚本实现的分布式信号量处理器，同一个key最多可以同时被{@link LockOptions#permits}个调用方持有。
+ *
+ * <p>与{@link RedisTemplateReadWriteLockExecutor}一样，每个key对应一个有序集合，成员为锁value，分值为该成员基于Redis服务器时间的过期时间点，
+ * 集合中成员的数量即为已被占用的许可数量，每次加解锁时都会先移除已过期的成员，因此某个持有者宕机后，其占用的许可将在到期后自动归还。
+ * 许可数量由每次加锁时传入，同一个key应当总是使用相同的许可数量。
+ *
+ * <p>脚本中使用了Redis服务器时间，因此需要Redis 3.2及以上版本。
+ *
+ * @see RedisTemplateReadWriteLockExecutor
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedisTemplateSemaphoreExecutor extends AbstractLockExecutor<String>
+        implements AsyncLockExecutor<String>, DisposableBean {
+
+    private static final RedisScript<Long> SCRIPT_LOCK = new DefaultRedisScript<>(RedisTemplateReadWriteLockExecutor.SCRIPT_EXPIRE +
+            "if redis.call('zcard', KEYS[1]) >= tonumber(ARGV[3]) then return -1 end " +
+            "redis.call('zadd', KEYS[1], now + tonumber(ARGV[2]), ARGV[1]) " +
+            "if redis.call('pttl', KEYS[1]) < tonumber(ARGV[2]) then redis.call('pexpire', KEYS[1], ARGV[2]) end " +
+            RedisTemplateReadWriteLockExecutor.SCRIPT_FENCING_TOKEN, Long.class);
+    private static final RedisScript<String> SCRIPT_UNLOCK = new DefaultRedisScript<>(RedisTemplateReadWriteLockExecutor.SCRIPT_EXPIRE +
+            "if redis.call('zrem', KEYS[1], ARGV[1]) == 0 then return 'false' end " +
+            "if ARGV[2] then redis.call('publish', ARGV[2], KEYS[1]) end " +
+            "return 'true'", String.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Lock4jProperties lock4jProperties;
+    private final RedisTemplateLockWatchdog watchdog;
+
+    /**
+     * 由执行器自行创建的看门狗，为空时说明看门狗由外部传入，其生命周期由外部管理
+     */
+    private RedisTemplateLockWatchdog ownedWatchdog;
+
+    /**
+     * 用于异步加解锁，基于Lettuce等支持响应式的客户端，为空时不支持异步加解锁
+     */
+    @Setter
+    private ReactiveStringRedisTemplate reactiveRedisTemplate;
+
+    /**
+     * 由执行器自行创建并持有看门狗，看门狗将在{@link #destroy()}时关闭
+     *
+     * @param redisTemplate    redisTemplate
+     * @param lock4jProperties lock4j配置
+     */
+    public RedisTemplateSemaphoreExecutor(StringRedisTemplate redisTemplate, Lock4jProperties lock4jProperties) {
+        this(redisTemplate, lock4jProperties, new RedisTemplateLockWatchdog(redisTemplate));
+        this.ownedWatchdog = watchdog;
+    }
+
+    @Override
+    public boolean renewal() {
+        return true;
+    }
+
+    @Override
+    public String acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        return acquire(lockKey, lockValue, expire, acquireTimeout, LockOptions.DEFAULT);
+    }
+
+    /**
+     * 获取一个许可，成功时锁实例为有序集合中的成员与fencing token，以{@code #}分隔
+     */
+    @Override
+    public String acquire(String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+        final long newExpire = expire > 0 ? expire : lock4jProperties.getExpire();
+        Long lock;
+        try {
+            lock = redisTemplate.execute(SCRIPT_LOCK, RedisTemplateReadWriteLockExecutor.lockKeys(lockKey, lock4jProperties),
+                    lockValue, String.valueOf(newExpire), String.valueOf(options.getPermits()));
+        } catch (Exception e) {
+            log.error("lock error", e);
+            throw new LockException();
+        }
+        return onLockResult(lockKey, lockValue, expire, newExpire, lock);
+    }
+
+    @Override
+    public boolean releaseLock(String key, String value, String lockInstance) {
+        final String member = RedisTemplateReadWriteLockExecutor.memberOf(lockInstance);
+        watchdog.cancel(key, member);
+        String releaseResult = redisTemplate.execute(SCRIPT_UNLOCK, Collections.singletonList(key), releaseArgs(member));
+        return Boolean.parseBoolean(releaseResult);
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return null != reactiveRedisTemplate;
+    }
+
+    @Override
+    public CompletionStage<String> acquireAsync(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        return acquireAsync(lockKey, lockValue, expire, acquireTimeout, LockOptions.DEFAULT);
+    }
+
+    @Override
+    public CompletionStage<String> acquireAsync(
+            String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+        final long newExpire = expire > 0 ? expire : lock4jProperties.getExpire();
+        return reactiveRedisTemplate.execute(SCRIPT_LOCK, RedisTemplateReadWriteLockExecutor.lockKeys(lockKey, lock4jProperties),
+                        Arrays.asList(lockValue, String.valueOf(newExpire), String.valueOf(options.getPermits())))
+                .next()
+                .toFuture()
+                .thenApply(lock -> onLockResult(lockKey, lockValue, expire, newExpire, lock));
+    }
+
+    @Override
+    public CompletionStage<Boolean> releaseLockAsync(String key, String value, String lockInstance) {
+        final String member = RedisTemplateReadWriteLockExecutor.memberOf(lockInstance);
+        watchdog.cancel(key, member);
+        return reactiveRedisTemplate.execute(SCRIPT_UNLOCK, Collections.singletonList(key), Arrays.asList(releaseArgs(member)))
+                .next()
+                .toFuture()
+                .thenApply(Boolean::parseBoolean);
+    }
+
+    @Override
+    public long getFencingToken(String lockKey, String lockInstance) {
+        return RedisTemplateReadWriteLockExecutor.fencingTokenOf(lockInstance);
+    }
+
+    @Override
+    public CompletionStage<Long> getFencingTokenAsync(String lockKey, String lockInstance) {
+        return CompletableFuture.completedFuture(RedisTemplateReadWriteLockExecutor.fencingTokenOf(lockInstance));
+    }
+
+    private String onLockResult(String lockKey, String member, long expire, long newExpire, Long lock) {
+        final boolean locked = null != lock && lock >= 0;
+        //成功且传-1时开始续期
+        if (locked && expire == -1) {
+            watchdog.renew(lockKey, member, newExpire, RedisTemplateReadWriteLockExecutor.SCRIPT_RENEWAL);
+        }
+        return locked ? RedisTemplateReadWriteLockExecutor.lockInstance(member, lock) : null;
+    }
+
+    /**
+     * 开启释放通知时，每归还一个许可都向其他节点广播被释放的key
+     */
+    private Object[] releaseArgs(String member) {
+        return lock4jProperties.isNotifyOnRelease() ? new Object[]{member, getReleaseChannel()} : new Object[]{member};
+    }
+
+    /**
+     * 获取锁释放通知频道，与{@link RedisTemplateLockExecutor}共用同一个频道
+     *
+     * @return 频道名称
+     */
+    public String getReleaseChannel() {
+        return lock4jProperties.getLockKeyPrefix() + RedisTemplateLockExecutor.RELEASE_CHANNEL_SUFFIX;
+    }
+
+    /**
+     * 关闭由执行器自行创建的看门狗
+     */
+    @Override
+    public void destroy() {
+        if (null != ownedWatchdog) {
+            ownedWatchdog.destroy();
+        }
+    }
+}
@@ -16,13 +16,26 @@
 
 package com.baomidou.lock.spring.boot.autoconfigure;
 
+import com.baomidou.lock.LockReleaseNotifier;
 import com.baomidou.lock.executor.RedisTemplateLockExecutor;
+import com.baomidou.lock.executor.RedisTemplateLockWatchdog;
+import com.baomidou.lock.executor.RedisTemplateReadWriteLockExecutor;
+import com.baomidou.lock.executor.RedisTemplateSemaphoreExecutor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
 
 /**
  * RedisTemplate锁自动配置器
@@ -35,7 +48,65 @@ public class RedisTemplateLockAutoConfiguration {
 
     @Bean
     @Order(200)
-    public RedisTemplateLockExecutor redisTemplateLockExecutor(StringRedisTemplate stringRedisTemplate,Lock4jProperties lock4jProperties) {
-        return new RedisTemplateLockExecutor(stringRedisTemplate,lock4jProperties);
+    public RedisTemplateLockExecutor redisTemplateLockExecutor(StringRedisTemplate stringRedisTemplate,Lock4jProperties lock4jProperties,
+                                                               RedisTemplateLockWatchdog redisTemplateLockWatchdog,
+                                                               ObjectProvider<ReactiveStringRedisTemplate> reactiveStringRedisTemplate) {
+        RedisTemplateLockExecutor executor = new RedisTemplateLockExecutor(stringRedisTemplate,lock4jProperties,redisTemplateLockWatchdog);
+        // 使用Lettuce等支持响应式的客户端时，支持异步加解锁
+        executor.setReactiveRedisTemplate(reactiveStringRedisTemplate.getIfAvailable());
+        return executor;
+    }
+
+    @Bean
+    @Order(210)
+    public RedisTemplateReadWriteLockExecutor redisTemplateReadWriteLockExecutor(StringRedisTemplate stringRedisTemplate,
+                                                                                 Lock4jProperties lock4jProperties,
+                                                                                 RedisTemplateLockWatchdog redisTemplateLockWatchdog,
+                                                                                 ObjectProvider<ReactiveStringRedisTemplate> reactiveStringRedisTemplate) {
+        RedisTemplateReadWriteLockExecutor executor = new RedisTemplateReadWriteLockExecutor(
+                stringRedisTemplate, lock4jProperties, redisTemplateLockWatchdog);
+        executor.setReactiveRedisTemplate(reactiveStringRedisTemplate.getIfAvailable());
+        return executor;
+    }
+
+    @Bean
+    @Order(220)
+    public RedisTemplateSemaphoreExecutor redisTemplateSemaphoreExecutor(StringRedisTemplate stringRedisTemplate,
+                                                                         Lock4jProperties lock4jProperties,
+                                                                         RedisTemplateLockWatchdog redisTemplateLockWatchdog,
+                                                                         ObjectProvider<ReactiveStringRedisTemplate> reactiveStringRedisTemplate) {
+        RedisTemplateSemaphoreExecutor executor = new RedisTemplateSemaphoreExecutor(
+                stringRedisTemplate, lock4jProperties, redisTemplateLockWatchdog);
+        executor.setReactiveRedisTemplate(reactiveStringRedisTemplate.getIfAvailable());
+        return executor;
+    }
+
+    @Bean
+    public RedisTemplateLockProperties redisTemplateLockProperties() {
+        return new RedisTemplateLockProperties();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisTemplateLockWatchdog redisTemplateLockWatchdog(StringRedisTemplate stringRedisTemplate,
+                                                               RedisTemplateLockProperties redisTemplateLockProperties) {
+        return new RedisTemplateLockWatchdog(stringRedisTemplate, redisTemplateLockProperties.getRenewalTickInterval(),
+                redisTemplateLockProperties.getRenewalThreads(), redisTemplateLockProperties.getRenewalQueueCapacity());
+    }
+
+    /**
+     * 订阅锁释放通知，唤醒当前节点内等待同一个key的竞争者
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "lock4j", name = "notify-on-release", havingValue = "true")
+    public RedisMessageListenerContainer lock4jReleaseListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                        RedisTemplateLockExecutor redisTemplateLockExecutor,
+                                                                        LockReleaseNotifier lockReleaseNotifier) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener((message, pattern) ->
+                        lockReleaseNotifier.signal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(redisTemplateLockExecutor.getReleaseChannel()));
+        return container;
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.spring.boot.autoconfigure;
+
+import com.baomidou.lock.executor.RedisTemplateLockWatchdog;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 基于RedisTemplate的分布式锁配置
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "lock4j.redis-template")
+public class RedisTemplateLockProperties {
+
+    /**
+     * 续期看门狗的检查周期 单位：毫秒
+     */
+    private Long renewalTickInterval = RedisTemplateLockWatchdog.DEFAULT_TICK_INTERVAL;
+
+    /**
+     * 续期线程数，为0时直接在看门狗的调度线程上续期
+     */
+    private int renewalThreads = 0;
+
+    /**
+     * 续期线程池的队列容量，队列已满时由调度线程自行续期
+     */
+    private int renewalQueueCapacity = 64;
+}
@@ -0,0 +1,206 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockOptions;
+import com.baomidou.lock.util.LockUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * redisson 锁执行器的基类，由子类决定key对应的锁
+ *
+ * @author zengzhihong TaoYu
+ * @see RedissonLockExecutor
+ * @see RedissonReadWriteLockExecutor
+ */
+@Slf4j
+@RequiredArgsConstructor
+abstract class AbstractRedissonLockExecutor extends AbstractLockExecutor<RLock>
+        implements AsyncLockExecutor<RLock>, BatchLockExecutor<RLock> {
+
+    protected final RedissonClient redissonClient;
+
+    @Override
+    public boolean renewal() {
+        return true;
+    }
+
+    @Override
+    public RLock acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        return acquire(lockKey, lockValue, expire, acquireTimeout, LockOptions.DEFAULT);
+    }
+
+    @Override
+    public RLock acquire(String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+        try {
+            final RLock lockInstance = getLock(lockKey, options);
+            final boolean locked = lockInstance.tryLock(acquireTimeout, expire, TimeUnit.MILLISECONDS);
+            return obtainLockInstance(locked, lockInstance);
+        } catch (InterruptedException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean releaseLock(String key, String value, RLock lockInstance) {
+        if (lockInstance.isHeldByCurrentThread()) {
+            try {
+                lockInstance.unlockAsync().get();
+                return true;
+            } catch (ExecutionException | InterruptedException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 基于{@link org.redisson.RedissonMultiLock}对所有key加锁，任意一个key获取失败时释放已经获取的锁
+     */
+    @Override
+    public RLock acquireAll(List<String> lockKeys, String lockValue, long expire, long acquireTimeout) {
+        RLock[] locks = new RLock[lockKeys.size()];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = getLock(lockKeys.get(i), LockOptions.DEFAULT);
+        }
+        try {
+            final RLock lockInstance = redissonClient.getMultiLock(locks);
+            final boolean locked = lockInstance.tryLock(acquireTimeout, expire, TimeUnit.MILLISECONDS);
+            return obtainLockInstance(locked, lockInstance);
+        } catch (InterruptedException e) {
+            return null;
+        }
+    }
+
+    /**
+     * {@link org.redisson.RedissonMultiLock}不支持判断是否被当前线程持有，因此直接解锁
+     */
+    @Override
+    public boolean releaseAll(List<String> lockKeys, String value, RLock lockInstance) {
+        try {
+            lockInstance.unlockAsync().get();
+            return true;
+        } catch (ExecutionException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 每个key各自拥有计数器，因此递增所有计数器后，再将它们推进到其中的最大值，使得到的token对所有key均有效。
+     * 持有所有锁期间其他调用方不会操作这些计数器，因此两次批量操作之间无需保证原子性
+     */
+    @Override
+    public long getFencingToken(List<String> lockKeys, RLock lockInstance) {
+        RBatch increments = redissonClient.createBatch();
+        for (String lockKey : lockKeys) {
+            increments.getAtomicLong(LockUtil.getFencingTokenKey(lockKey)).incrementAndGetAsync();
+        }
+        List<?> tokens = increments.execute().getResponses();
+        long fencingToken = NO_FENCING_TOKEN;
+        for (Object token : tokens) {
+            fencingToken = Math.max(fencingToken, ((Number) token).longValue());
+        }
+        RBatch advances = redissonClient.createBatch();
+        boolean advance = false;
+        for (int i = 0; i < lockKeys.size(); i++) {
+            if (((Number) tokens.get(i)).longValue() < fencingToken) {
+                advances.getAtomicLong(LockUtil.getFencingTokenKey(lockKeys.get(i))).setAsync(fencingToken);
+                advance = true;
+            }
+        }
+        if (advance) {
+            advances.execute();
+        }
+        return fencingToken;
+    }
+
+    /**
+     * 异步加锁，由于不存在固定的持有线程，使用根据lockValue生成的id作为redisson的线程id
+     */
+    @Override
+    public CompletionStage<RLock> acquireAsync(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        return acquireAsync(lockKey, lockValue, expire, acquireTimeout, LockOptions.DEFAULT);
+    }
+
+    @Override
+    public CompletionStage<RLock> acquireAsync(
+            String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+        final RLock lockInstance = getLock(lockKey, options);
+        return lockInstance.tryLockAsync(acquireTimeout, expire, TimeUnit.MILLISECONDS, asyncThreadId(lockValue))
+                .thenApply(locked -> obtainLockInstance(Boolean.TRUE.equals(locked), lockInstance));
+    }
+
+    @Override
+    public CompletionStage<Boolean> releaseLockAsync(String key, String value, RLock lockInstance) {
+        return lockInstance.unlockAsync(asyncThreadId(value))
+                .handle((r, ex) -> {
+                    if (null != ex) {
+                        log.warn("redisson lock release error", ex);
+                        return false;
+                    }
+                    return true;
+                });
+    }
+
+    /**
+     * 在持有锁期间递增锁key对应的计数器作为fencing token
+     *
+     * @see LockUtil#getFencingTokenKey(String)
+     */
+    @Override
+    public long getFencingToken(String lockKey, RLock lockInstance) {
+        return redissonClient.getAtomicLong(LockUtil.getFencingTokenKey(lockKey)).incrementAndGet();
+    }
+
+    @Override
+    public CompletionStage<Long> getFencingTokenAsync(String lockKey, RLock lockInstance) {
+        return redissonClient.getAtomicLong(LockUtil.getFencingTokenKey(lockKey)).incrementAndGetAsync();
+    }
+
+    /**
+     * 获取key对应的锁
+     *
+     * @param lockKey 锁key
+     * @param options 加锁选项
+     * @return 锁
+     */
+    protected abstract RLock getLock(String lockKey, LockOptions options);
+
+    /**
+     * 根据lockValue生成异步加锁时使用的线程id，lockValue为随机生成的uuid，因此直接取其64位FNV-1a散列值
+     *
+     * @param lockValue 锁value
+     * @return 线程id
+     */
+    private static long asyncThreadId(String lockValue) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < lockValue.length(); i++) {
+            hash ^= lockValue.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -16,52 +16,23 @@
 
 package com.baomidou.lock.executor;
 
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import com.baomidou.lock.LockOptions;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-
 /**
  * redisson 重入锁
  *
  * @author zengzhihong TaoYu
  */
-@Slf4j
-@RequiredArgsConstructor
-public class RedissonLockExecutor extends AbstractLockExecutor<RLock> {
-
-    private final RedissonClient redissonClient;
+public class RedissonLockExecutor extends AbstractRedissonLockExecutor {
 
-    @Override
-    public boolean renewal() {
-        return true;
+    public RedissonLockExecutor(RedissonClient redissonClient) {
+        super(redissonClient);
     }
 
     @Override
-    public RLock acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
-        try {
-            final RLock lockInstance = redissonClient.getLock(lockKey);
-            final boolean locked = lockInstance.tryLock(acquireTimeout, expire, TimeUnit.MILLISECONDS);
-            return obtainLockInstance(locked, lockInstance);
-        } catch (InterruptedException e) {
-            return null;
-        }
+    protected RLock getLock(String lockKey, LockOptions options) {
+        return redissonClient.getLock(lockKey);
     }
-
-    @Override
-    public boolean releaseLock(String key, String value, RLock lockInstance) {
-        if (lockInstance.isHeldByCurrentThread()) {
-            try {
-                lockInstance.unlockAsync().get();
-                return true;
-            } catch (ExecutionException | InterruptedException e) {
-                return false;
-            }
-        }
-        return false;
-    }
-
 }
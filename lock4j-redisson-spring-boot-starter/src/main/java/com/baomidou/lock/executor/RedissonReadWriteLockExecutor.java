@@ -0,0 +1,44 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockOptions;
+import com.baomidou.lock.annotation.LockMode;
+import org.redisson.api.RLock;
+import org.redisson.api.RReadWriteLock;
+import org.redisson.api.RedissonClient;
+
+/**
+ * <p>redisson 读写锁，根据{@link LockOptions#mode}获取{@link RReadWriteLock}的读锁或写锁，
+ * 同一个key的读锁之间可以共同持有，写锁则与其他任何锁互斥。
+ *
+ * <p>读锁与写锁的重入、续期及释放规则与{@link RReadWriteLock}一致，持有读锁的线程无法再获取写锁。
+ *
+ * @see RedissonLockExecutor
+ */
+public class RedissonReadWriteLockExecutor extends AbstractRedissonLockExecutor {
+
+    public RedissonReadWriteLockExecutor(RedissonClient redissonClient) {
+        super(redissonClient);
+    }
+
+    @Override
+    protected RLock getLock(String lockKey, LockOptions options) {
+        RReadWriteLock lock = redissonClient.getReadWriteLock(lockKey);
+        return options.getMode() == LockMode.READ ? lock.readLock() : lock.writeLock();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockOptions;
+import com.baomidou.lock.util.LockUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RPermitExpirableSemaphore;
+import org.redisson.api.RedissonClient;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>redisson 信号量，基于{@link RPermitExpirableSemaphore}，同一个key最多可以同时被{@link LockOptions#permits}个调用方持有，
+ * 锁实例为许可id，每个许可都有独立的过期时间，持有者宕机后许可将在到期后自动归还。
+ *
+ * <p>信号量的许可数量仅在其首次创建时设置，同一个key应当总是使用相同的许可数量。
+ *
+ * @see RedissonLockExecutor
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedissonSemaphoreExecutor extends AbstractLockExecutor<String> implements AsyncLockExecutor<String> {
+
+    private final RedissonClient redissonClient;
+
+    @Override
+    public String acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        return acquire(lockKey, lockValue, expire, acquireTimeout, LockOptions.DEFAULT);
+    }
+
+    @Override
+    public String acquire(String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+        try {
+            final RPermitExpirableSemaphore semaphore = redissonClient.getPermitExpirableSemaphore(lockKey);
+            semaphore.trySetPermits(options.getPermits());
+            final String permitId = semaphore.tryAcquire(acquireTimeout, expire, TimeUnit.MILLISECONDS);
+            return obtainLockInstance(null != permitId, permitId);
+        } catch (InterruptedException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean releaseLock(String key, String value, String lockInstance) {
+        try {
+            return redissonClient.getPermitExpirableSemaphore(key).tryRelease(lockInstance);
+        } catch (Exception e) {
+            log.warn("redisson semaphore release error", e);
+            return false;
+        }
+    }
+
+    @Override
+    public CompletionStage<String> acquireAsync(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        return acquireAsync(lockKey, lockValue, expire, acquireTimeout, LockOptions.DEFAULT);
+    }
+
+    @Override
+    public CompletionStage<String> acquireAsync(
+            String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+        final RPermitExpirableSemaphore semaphore = redissonClient.getPermitExpirableSemaphore(lockKey);
+        return semaphore.trySetPermitsAsync(options.getPermits())
+                .thenCompose(r -> semaphore.tryAcquireAsync(acquireTimeout, expire, TimeUnit.MILLISECONDS))
+                .thenApply(permitId -> obtainLockInstance(null != permitId, permitId));
+    }
+
+    @Override
+    public CompletionStage<Boolean> releaseLockAsync(String key, String value, String lockInstance) {
+        return redissonClient.getPermitExpirableSemaphore(key).tryReleaseAsync(lockInstance)
+                .handle((r, ex) -> {
+                    if (null != ex) {
+                        log.warn("redisson semaphore release error", ex);
+                        return false;
+                    }
+                    return Boolean.TRUE.equals(r);
+                });
+    }
+
+    /**
+     * 在持有许可期间递增锁key对应的计数器作为fencing token
+     *
+     * @see LockUtil#getFencingTokenKey(String)
+     */
+    @Override
+    public long getFencingToken(String lockKey, String lockInstance) {
+        return redissonClient.getAtomicLong(LockUtil.getFencingTokenKey(lockKey)).incrementAndGet();
+    }
+
+    @Override
+    public CompletionStage<Long> getFencingTokenAsync(String lockKey, String lockInstance) {
+        return redissonClient.getAtomicLong(LockUtil.getFencingTokenKey(lockKey)).incrementAndGetAsync();
+    }
+}
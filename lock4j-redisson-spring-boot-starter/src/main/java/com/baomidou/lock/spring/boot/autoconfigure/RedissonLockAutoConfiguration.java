@@ -17,6 +17,8 @@
 package com.baomidou.lock.spring.boot.autoconfigure;
 
 import com.baomidou.lock.executor.RedissonLockExecutor;
+import com.baomidou.lock.executor.RedissonReadWriteLockExecutor;
+import com.baomidou.lock.executor.RedissonSemaphoreExecutor;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -37,4 +39,16 @@ class RedissonLockAutoConfiguration {
     public RedissonLockExecutor redissonLockExecutor(RedissonClient redissonClient) {
         return new RedissonLockExecutor(redissonClient);
     }
+
+    @Bean
+    @Order(110)
+    public RedissonReadWriteLockExecutor redissonReadWriteLockExecutor(RedissonClient redissonClient) {
+        return new RedissonReadWriteLockExecutor(redissonClient);
+    }
+
+    @Bean
+    @Order(120)
+    public RedissonSemaphoreExecutor redissonSemaphoreExecutor(RedissonClient redissonClient) {
+        return new RedissonSemaphoreExecutor(redissonClient);
+    }
 }
\ No newline at end of file
@@ -16,13 +16,25 @@
 
 package com.baomidou.lock.executor;
 
+import com.baomidou.lock.exception.LockException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.CuratorWatcher;
 import org.apache.curator.framework.imps.CuratorFrameworkState;
+import org.apache.curator.framework.recipes.locks.InterProcessMultiLock;
 import org.apache.curator.framework.recipes.locks.InterProcessMutex;
+import org.apache.curator.framework.recipes.locks.LockInternals;
+import org.apache.curator.framework.recipes.locks.StandardLockInternalsDriver;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
 
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
 
 /**
  * 分布式锁zookeeper处理器
@@ -31,7 +43,16 @@ import java.util.concurrent.TimeUnit;
  */
 @Slf4j
 @RequiredArgsConstructor
-public class ZookeeperLockExecutor extends AbstractLockExecutor<InterProcessMutex> {
+public class ZookeeperLockExecutor extends AbstractLockExecutor<InterProcessMutex>
+        implements AsyncLockExecutor<String>, BatchLockExecutor<InterProcessMultiLock> {
+
+    private static final String NODE_PATH = "/curator/lock4j/%s";
+
+    /**
+     * 与{@link InterProcessMutex}一致的锁节点名称，以便同步与异步加锁可以互斥
+     */
+    private static final String LOCK_NAME = "lock-";
+    private static final StandardLockInternalsDriver LOCK_DRIVER = new StandardLockInternalsDriver();
 
     private final CuratorFramework curatorFramework;
 
@@ -41,9 +62,8 @@ public class ZookeeperLockExecutor extends AbstractLockExecutor<InterProcessMute
             log.warn("instance must be started before calling this method");
             return null;
         }
-        String nodePath = "/curator/lock4j/%s";
         try {
-            InterProcessMutex mutex = new InterProcessMutex(curatorFramework, String.format(nodePath, lockKey));
+            InterProcessMutex mutex = new Mutex(curatorFramework, String.format(NODE_PATH, lockKey));
             final boolean locked = mutex.acquire(acquireTimeout, TimeUnit.MILLISECONDS);
             return obtainLockInstance(locked, mutex);
         } catch (Exception e) {
@@ -62,4 +82,291 @@ public class ZookeeperLockExecutor extends AbstractLockExecutor<InterProcessMute
         return true;
     }
 
-}
\ No newline at end of file
+    /**
+     * 基于{@link InterProcessMultiLock}按key的顺序依次加锁，任意一个key获取失败时释放已经获取的锁
+     */
+    @Override
+    public InterProcessMultiLock acquireAll(List<String> lockKeys, String lockValue, long expire, long acquireTimeout) {
+        if (!CuratorFrameworkState.STARTED.equals(curatorFramework.getState())) {
+            log.warn("instance must be started before calling this method");
+            return null;
+        }
+        try {
+            List<Mutex> mutexes = new ArrayList<>(lockKeys.size());
+            for (String lockKey : lockKeys) {
+                mutexes.add(new Mutex(curatorFramework, String.format(NODE_PATH, lockKey)));
+            }
+            MultiLock multiLock = new MultiLock(mutexes);
+            final boolean locked = multiLock.acquire(acquireTimeout, TimeUnit.MILLISECONDS);
+            return locked ? multiLock : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean releaseAll(List<String> lockKeys, String value, InterProcessMultiLock lockInstance) {
+        try {
+            lockInstance.release();
+        } catch (Exception e) {
+            log.warn("zookeeper lock release error", e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 以最后获取的锁节点的创建事务id作为fencing token，该节点是在持有其他所有锁期间创建的，因此token对所有key均有效
+     */
+    @Override
+    public long getFencingToken(List<String> lockKeys, InterProcessMultiLock lockInstance) {
+        return lockInstance instanceof MultiLock
+                ? fencingToken(curatorFramework, ((MultiLock) lockInstance).last.getLockPath()) : NO_FENCING_TOKEN;
+    }
+
+    /**
+     * 基于curator后台模式的异步加锁，锁节点的创建方式与{@link InterProcessMutex}一致，因此二者可以互斥
+     *
+     * @return 锁节点路径
+     */
+    @Override
+    public CompletionStage<String> acquireAsync(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        if (!CuratorFrameworkState.STARTED.equals(curatorFramework.getState())) {
+            log.warn("instance must be started before calling this method");
+            result.complete(null);
+            return result;
+        }
+        new AsyncLockAcquisition(String.format(NODE_PATH, lockKey), acquireTimeout, result).start();
+        return result;
+    }
+
+    @Override
+    public CompletionStage<Boolean> releaseLockAsync(String key, String value, String lockInstance) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        try {
+            curatorFramework.delete().guaranteed()
+                    .inBackground((client, event) -> result.complete(isOk(event)))
+                    .forPath(lockInstance);
+        } catch (Exception e) {
+            log.warn("zookeeper lock release error", e);
+            result.complete(false);
+        }
+        return result;
+    }
+
+    /**
+     * 以锁节点的创建事务id作为fencing token。锁节点按创建顺序依次获取锁，而zookeeper的事务id全局递增，
+     * 因此后获取到锁的节点总是具有更大的token。锁节点的序号在父节点因为没有子节点而被删除后将重新计数，因此不使用序号
+     */
+    @Override
+    public long getFencingToken(String lockKey, InterProcessMutex lockInstance) {
+        return lockInstance instanceof Mutex
+                ? fencingToken(curatorFramework, ((Mutex) lockInstance).getLockPath()) : NO_FENCING_TOKEN;
+    }
+
+    @Override
+    public CompletionStage<Long> getFencingTokenAsync(String lockKey, String lockInstance) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        try {
+            curatorFramework.checkExists()
+                    .inBackground((client, event) -> {
+                        if (null == event.getStat()) {
+                            result.completeExceptionally(new LockException("lock node not exists: " + lockInstance));
+                        } else {
+                            result.complete(event.getStat().getCzxid());
+                        }
+                    })
+                    .forPath(lockInstance);
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * 获取节点的创建事务id作为fencing token
+     *
+     * @param curatorFramework 客户端
+     * @param path             锁节点路径
+     * @return fencing token
+     */
+    static long fencingToken(CuratorFramework curatorFramework, String path) {
+        Stat stat;
+        try {
+            stat = curatorFramework.checkExists().forPath(path);
+        } catch (Exception e) {
+            log.error("zookeeper fencing token error", e);
+            throw new LockException();
+        }
+        if (null == stat) {
+            throw new LockException("lock node not exists: " + path);
+        }
+        return stat.getCzxid();
+    }
+
+    private static boolean isOk(CuratorEvent event) {
+        return event.getResultCode() == KeeperException.Code.OK.intValue();
+    }
+
+    /**
+     * 公开了锁节点路径的{@link InterProcessMutex}
+     */
+    private static class Mutex extends InterProcessMutex {
+
+        Mutex(CuratorFramework client, String path) {
+            super(client, path);
+        }
+
+        @Override
+        protected String getLockPath() {
+            return super.getLockPath();
+        }
+    }
+
+    /**
+     * 记录了最后一个加锁的{@link Mutex}的{@link InterProcessMultiLock}
+     */
+    private static class MultiLock extends InterProcessMultiLock {
+
+        private final Mutex last;
+
+        MultiLock(List<Mutex> mutexes) {
+            super(new ArrayList<>(mutexes));
+            this.last = mutexes.get(mutexes.size() - 1);
+        }
+    }
+
+    /**
+     * 一次异步加锁过程：创建临时顺序节点，若不是序号最小的节点，则监听前一个节点，直到其被删除或超时
+     */
+    private class AsyncLockAcquisition {
+
+        private final String basePath;
+        private final long deadline;
+        private final long acquireTimeout;
+        private final CompletableFuture<String> result;
+        private volatile String ourPath;
+
+        AsyncLockAcquisition(String basePath, long acquireTimeout, CompletableFuture<String> result) {
+            this.basePath = basePath;
+            this.acquireTimeout = acquireTimeout;
+            this.deadline = System.currentTimeMillis() + acquireTimeout;
+            this.result = result;
+        }
+
+        void start() {
+            if (acquireTimeout > 0) {
+                TimeoutScheduler.INSTANCE.schedule(() -> fail(null), acquireTimeout, TimeUnit.MILLISECONDS);
+            }
+            try {
+                curatorFramework.create()
+                        .creatingParentContainersIfNeeded()
+                        .withProtection()
+                        .withMode(CreateMode.EPHEMERAL_SEQUENTIAL)
+                        .inBackground((client, event) -> {
+                            if (!isOk(event)) {
+                                fail(KeeperException.create(KeeperException.Code.get(event.getResultCode())));
+                                return;
+                            }
+                            ourPath = event.getName();
+                            // 创建节点期间已超时
+                            if (result.isDone()) {
+                                deleteOurPath();
+                                return;
+                            }
+                            checkLock();
+                        })
+                        .forPath(ZKPaths.makePath(basePath, LOCK_NAME));
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+
+        private void checkLock() {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                curatorFramework.getChildren()
+                        .inBackground((client, event) -> {
+                            if (!isOk(event)) {
+                                fail(KeeperException.create(KeeperException.Code.get(event.getResultCode())));
+                                return;
+                            }
+                            onChildren(event.getChildren());
+                        })
+                        .forPath(basePath);
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+
+        private void onChildren(List<String> children) throws Exception {
+            List<String> sortedChildren = LockInternals.getSortedChildren(LOCK_NAME, LOCK_DRIVER, children);
+            int ourIndex = sortedChildren.indexOf(ZKPaths.getNodeFromPath(ourPath));
+            if (ourIndex < 0) {
+                fail(new KeeperException.NoNodeException(ourPath));
+                return;
+            }
+            if (ourIndex == 0) {
+                // 加锁成功，若此时已经超时则删除节点
+                if (!result.complete(ourPath)) {
+                    deleteOurPath();
+                }
+                return;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                fail(null);
+                return;
+            }
+            // 监听前一个节点，若其已被删除则立即重新检查
+            String previousPath = ZKPaths.makePath(basePath, sortedChildren.get(ourIndex - 1));
+            curatorFramework.checkExists()
+                    .usingWatcher((CuratorWatcher) event -> checkLock())
+                    .inBackground((client, event) -> {
+                        if (null == event.getStat()) {
+                            checkLock();
+                        }
+                    })
+                    .forPath(previousPath);
+        }
+
+        /**
+         * 加锁失败或超时，删除已创建的节点
+         *
+         * @param e 异常，超时时为null
+         */
+        private void fail(Exception e) {
+            if (null != e) {
+                log.warn("zookeeper lock acquire error", e);
+            }
+            if (result.complete(null)) {
+                deleteOurPath();
+            }
+        }
+
+        private void deleteOurPath() {
+            String path = ourPath;
+            if (null == path) {
+                return;
+            }
+            try {
+                curatorFramework.delete().guaranteed().inBackground().forPath(path);
+            } catch (Exception e) {
+                log.warn("zookeeper lock node delete error", e);
+            }
+        }
+    }
+
+    /**
+     * 异步加锁的超时调度线程
+     */
+    private static class TimeoutScheduler {
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "lock4j-zookeeper-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright (c) 2018-2022, baomidou (63976799@qq.com).
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.baomidou.lock.executor;
+
+import com.baomidou.lock.LockOptions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.imps.CuratorFrameworkState;
+import org.apache.curator.framework.recipes.locks.InterProcessSemaphoreV2;
+import org.apache.curator.framework.recipes.locks.Lease;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>分布式信号量zookeeper处理器，基于{@link InterProcessSemaphoreV2}实现，
+ * 同一个key最多可以同时被{@link LockOptions#permits}个调用方持有，锁实例为获取到的许可。
+ *
+ * <p>许可以临时节点的形式存在，持有者与zookeeper断开连接后自动归还，因此不支持指定过期时间。
+ * 信号量节点与{@link ZookeeperLockExecutor}的锁节点相互独立，同一个key应当总是使用相同的许可数量。
+ *
+ * @see ZookeeperLockExecutor
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ZookeeperSemaphoreExecutor extends AbstractLockExecutor<Lease> {
+
+    private static final String NODE_PATH = "/curator/lock4j-semaphore/%s";
+
+    private final CuratorFramework curatorFramework;
+
+    @Override
+    public Lease acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        return acquire(lockKey, lockValue, expire, acquireTimeout, LockOptions.DEFAULT);
+    }
+
+    @Override
+    public Lease acquire(String lockKey, String lockValue, long expire, long acquireTimeout, LockOptions options) {
+        if (!CuratorFrameworkState.STARTED.equals(curatorFramework.getState())) {
+            log.warn("instance must be started before calling this method");
+            return null;
+        }
+        try {
+            InterProcessSemaphoreV2 semaphore = new InterProcessSemaphoreV2(
+                    curatorFramework, String.format(NODE_PATH, lockKey), options.getPermits());
+            final Lease lease = semaphore.acquire(acquireTimeout, TimeUnit.MILLISECONDS);
+            return obtainLockInstance(null != lease, lease);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean releaseLock(String key, String value, Lease lockInstance) {
+        try {
+            lockInstance.close();
+        } catch (Exception e) {
+            log.warn("zookeeper semaphore release error", e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 以许可节点的创建事务id作为fencing token
+     *
+     * @see ZookeeperLockExecutor#getFencingToken
+     */
+    @Override
+    public long getFencingToken(String lockKey, Lease lockInstance) {
+        return ZookeeperLockExecutor.fencingToken(curatorFramework, lockInstance.getNodeName());
+    }
+}
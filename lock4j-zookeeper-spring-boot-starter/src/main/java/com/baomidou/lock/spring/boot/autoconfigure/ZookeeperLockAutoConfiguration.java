@@ -18,6 +18,7 @@ package com.baomidou.lock.spring.boot.autoconfigure;
 
 import com.baomidou.lock.condition.ZookeeperCondition;
 import com.baomidou.lock.executor.ZookeeperLockExecutor;
+import com.baomidou.lock.executor.ZookeeperSemaphoreExecutor;
 import lombok.Data;
 import org.apache.curator.RetryPolicy;
 import org.apache.curator.framework.CuratorFramework;
@@ -66,4 +67,10 @@ class ZookeeperLockAutoConfiguration {
     public ZookeeperLockExecutor zookeeperLockExecutor(CuratorFramework curatorFramework) {
         return new ZookeeperLockExecutor(curatorFramework);
     }
+
+    @Bean
+    @Order(310)
+    public ZookeeperSemaphoreExecutor zookeeperSemaphoreExecutor(CuratorFramework curatorFramework) {
+        return new ZookeeperSemaphoreExecutor(curatorFramework);
+    }
 }
\ No newline at end of file